@@ -0,0 +1,40 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.benchmark;
+
+import org.lastaflute.web.path.ActionFoundPathHandler;
+import org.lastaflute.web.path.ActionPathResolver;
+import org.lastaflute.web.path.MappingPathResource;
+import org.lastaflute.web.path.MappingResolutionResult;
+
+/**
+ * The action path resolver stand-in for benchmark, which maps every path to the one action.
+ * @author jflute
+ */
+public class BenchmarkActionPathResolver extends ActionPathResolver {
+
+    @Override
+    public MappingResolutionResult handleActionPath(String requestPath, ActionFoundPathHandler handler) throws Exception {
+        final MappingPathResource pathResource = new MappingPathResource(requestPath, requestPath, null, false);
+        final boolean handled = handler.handleActionPath(pathResource, BenchmarkEnvironment.ACTION_NAME, null, null);
+        return new MappingResolutionResult(pathResource, handled);
+    }
+
+    @Override
+    public String calculateActionPathByJspPath(String requestPath) {
+        return BenchmarkEnvironment.REQUEST_PATH;
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.benchmark;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+
+import javax.servlet.jsp.JspWriter;
+import javax.servlet.jsp.tagext.BodyContent;
+
+/**
+ * The in-memory writer for benchmark, used as both page writer and pushed body content. <br>
+ * The buffer is reused between invocations so that only the tag allocations are measured.
+ * @author jflute
+ */
+public class BenchmarkBodyContent extends BodyContent {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final StringBuilder buffer = new StringBuilder(4096);
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public BenchmarkBodyContent(JspWriter enclosingWriter) { // null allowed if page writer
+        super(enclosingWriter);
+    }
+
+    // ===================================================================================
+    //                                                                        Body Content
+    //                                                                        ============
+    @Override
+    public Reader getReader() {
+        return new StringReader(buffer.toString());
+    }
+
+    @Override
+    public String getString() {
+        return buffer.toString();
+    }
+
+    @Override
+    public void writeOut(Writer out) throws IOException {
+        out.append(buffer);
+    }
+
+    @Override
+    public void clearBody() {
+        buffer.setLength(0);
+    }
+
+    public int length() {
+        return buffer.length();
+    }
+
+    // ===================================================================================
+    //                                                                               Write
+    //                                                                               =====
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        buffer.append(cbuf, off, len);
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        buffer.append((char) c);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        buffer.append(str, off, off + len);
+    }
+
+    @Override
+    public Writer append(CharSequence csq) throws IOException {
+        buffer.append(csq);
+        return this;
+    }
+
+    @Override
+    public Writer append(CharSequence csq, int start, int end) throws IOException {
+        buffer.append(csq, start, end);
+        return this;
+    }
+
+    @Override
+    public Writer append(char c) throws IOException {
+        buffer.append(c);
+        return this;
+    }
+
+    // ===================================================================================
+    //                                                                               Print
+    //                                                                               =====
+    @Override
+    public void newLine() throws IOException {
+        buffer.append('\n');
+    }
+
+    @Override
+    public void print(boolean b) throws IOException {
+        buffer.append(b);
+    }
+
+    @Override
+    public void print(char c) throws IOException {
+        buffer.append(c);
+    }
+
+    @Override
+    public void print(int i) throws IOException {
+        buffer.append(i);
+    }
+
+    @Override
+    public void print(long l) throws IOException {
+        buffer.append(l);
+    }
+
+    @Override
+    public void print(float f) throws IOException {
+        buffer.append(f);
+    }
+
+    @Override
+    public void print(double d) throws IOException {
+        buffer.append(d);
+    }
+
+    @Override
+    public void print(char[] s) throws IOException {
+        buffer.append(s);
+    }
+
+    @Override
+    public void print(String s) throws IOException {
+        buffer.append(s);
+    }
+
+    @Override
+    public void print(Object obj) throws IOException {
+        buffer.append(obj);
+    }
+
+    @Override
+    public void println() throws IOException {
+        newLine();
+    }
+
+    @Override
+    public void println(boolean x) throws IOException {
+        print(x);
+        newLine();
+    }
+
+    @Override
+    public void println(char x) throws IOException {
+        print(x);
+        newLine();
+    }
+
+    @Override
+    public void println(int x) throws IOException {
+        print(x);
+        newLine();
+    }
+
+    @Override
+    public void println(long x) throws IOException {
+        print(x);
+        newLine();
+    }
+
+    @Override
+    public void println(float x) throws IOException {
+        print(x);
+        newLine();
+    }
+
+    @Override
+    public void println(double x) throws IOException {
+        print(x);
+        newLine();
+    }
+
+    @Override
+    public void println(char[] x) throws IOException {
+        print(x);
+        newLine();
+    }
+
+    @Override
+    public void println(String x) throws IOException {
+        print(x);
+        newLine();
+    }
+
+    @Override
+    public void println(Object x) throws IOException {
+        print(x);
+        newLine();
+    }
+
+    // ===================================================================================
+    //                                                                              Buffer
+    //                                                                              ======
+    @Override
+    public void clear() throws IOException {
+        buffer.setLength(0);
+    }
+
+    @Override
+    public void clearBuffer() throws IOException {
+        buffer.setLength(0);
+    }
+
+    @Override
+    public void flush() throws IOException {
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+
+    @Override
+    public int getRemaining() {
+        return Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.dbflute.jdbc.Classification;
+import org.dbflute.jdbc.ClassificationCodeType;
+import org.dbflute.jdbc.ClassificationMeta;
+import org.dbflute.jdbc.ClassificationUndefinedHandlingType;
+import org.dbflute.optional.OptionalThing;
+
+/**
+ * The classification for benchmark, shaped like the prefecture select box of real applications.
+ * @author jflute
+ */
+public enum BenchmarkCDef implements Classification {
+
+    Hokkaido("01", "Hokkaido"), Aomori("02", "Aomori"), Iwate("03", "Iwate"), Miyagi("04", "Miyagi"), Akita("05", "Akita"), //
+    Yamagata("06", "Yamagata"), Fukushima("07", "Fukushima"), Ibaraki("08", "Ibaraki"), Tochigi("09", "Tochigi"), //
+    Gunma("10", "Gunma"), Saitama("11", "Saitama"), Chiba("12", "Chiba"), Tokyo("13", "Tokyo"), Kanagawa("14", "Kanagawa"), //
+    Niigata("15", "Niigata"), Toyama("16", "Toyama"), Ishikawa("17", "Ishikawa"), Fukui("18", "Fukui"), //
+    Yamanashi("19", "Yamanashi"), Nagano("20", "Nagano"), Gifu("21", "Gifu"), Shizuoka("22", "Shizuoka"), //
+    Aichi("23", "Aichi"), Mie("24", "Mie"), Shiga("25", "Shiga"), Kyoto("26", "Kyoto"), Osaka("27", "Osaka"), //
+    Hyogo("28", "Hyogo"), Nara("29", "Nara"), Wakayama("30", "Wakayama"), Tottori("31", "Tottori"), //
+    Shimane("32", "Shimane"), Okayama("33", "Okayama"), Hiroshima("34", "Hiroshima"), Yamaguchi("35", "Yamaguchi"), //
+    Tokushima("36", "Tokushima"), Kagawa("37", "Kagawa"), Ehime("38", "Ehime"), Kochi("39", "Kochi"), //
+    Fukuoka("40", "Fukuoka"), Saga("41", "Saga"), Nagasaki("42", "Nagasaki"), Kumamoto("43", "Kumamoto"), //
+    Oita("44", "Oita"), Miyazaki("45", "Miyazaki"), Kagoshima("46", "Kagoshima"), Okinawa("47", "Okinawa & Islands");
+
+    private final String code;
+    private final String alias;
+
+    private BenchmarkCDef(String code, String alias) {
+        this.code = code;
+        this.alias = alias;
+    }
+
+    public String code() {
+        return code;
+    }
+
+    public String alias() {
+        return alias;
+    }
+
+    public Set<String> sisterSet() {
+        return Collections.emptySet();
+    }
+
+    public boolean inGroup(String groupName) {
+        return false;
+    }
+
+    public Map<String, Object> subItemMap() {
+        return Collections.emptyMap();
+    }
+
+    public ClassificationMeta meta() {
+        return Meta.INSTANCE;
+    }
+
+    public static class Meta implements ClassificationMeta {
+
+        public static final Meta INSTANCE = new Meta();
+
+        public String classificationName() {
+            return "Prefecture";
+        }
+
+        public OptionalThing<BenchmarkCDef> of(Object code) {
+            final BenchmarkCDef cdef = codeOf(code);
+            return cdef != null ? OptionalThing.of(cdef) : OptionalThing.empty();
+        }
+
+        public OptionalThing<BenchmarkCDef> byName(String name) {
+            final BenchmarkCDef cdef = nameOf(name);
+            return cdef != null ? OptionalThing.of(cdef) : OptionalThing.empty();
+        }
+
+        public BenchmarkCDef codeOf(Object code) {
+            for (BenchmarkCDef cdef : BenchmarkCDef.values()) {
+                if (cdef.code().equals(code)) {
+                    return cdef;
+                }
+            }
+            return null;
+        }
+
+        public BenchmarkCDef nameOf(String name) {
+            return BenchmarkCDef.valueOf(name);
+        }
+
+        public List<Classification> listAll() {
+            return new ArrayList<Classification>(Arrays.asList(BenchmarkCDef.values()));
+        }
+
+        public List<Classification> listByGroup(String groupName) {
+            return Collections.emptyList();
+        }
+
+        public List<Classification> groupOf(String groupName) {
+            return Collections.emptyList();
+        }
+
+        public ClassificationCodeType codeType() {
+            return ClassificationCodeType.String;
+        }
+
+        public ClassificationUndefinedHandlingType undefinedHandlingType() {
+            return ClassificationUndefinedHandlingType.EXCEPTION;
+        }
+    }
+}
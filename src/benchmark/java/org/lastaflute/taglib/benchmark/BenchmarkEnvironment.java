@@ -0,0 +1,292 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.dbflute.optional.OptionalThing;
+import org.lastaflute.core.direction.FwAssistantDirector;
+import org.lastaflute.core.direction.FwCoreDirection;
+import org.lastaflute.db.direction.FwDbDirection;
+import org.lastaflute.db.dbflute.classification.ListedClassificationProvider;
+import org.lastaflute.di.core.ExternalContext;
+import org.lastaflute.di.core.factory.SingletonLaContainerFactory;
+import org.lastaflute.di.core.meta.impl.ComponentDefImpl;
+import org.lastaflute.di.core.meta.impl.LaContainerImpl;
+import org.lastaflute.web.path.ActionPathResolver;
+import org.lastaflute.web.ruts.config.ActionMapping;
+import org.lastaflute.web.ruts.config.ModuleConfig;
+import org.lastaflute.web.servlet.request.RequestManager;
+import org.lastaflute.web.servlet.request.scoped.ScopedMessageHandler;
+import org.lastaflute.web.servlet.session.SessionManager;
+
+/**
+ * The fake LastaFlute environment for benchmark. <br>
+ * It registers stand-in components into Lasta Di singleton container
+ * so that tags resolve them by the same route as production.
+ * @author jflute
+ */
+public class BenchmarkEnvironment {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    public static final String CONTEXT_PATH = "/harbor";
+    public static final String REQUEST_PATH = "/member/list/";
+    public static final String ACTION_NAME = "memberListAction";
+    public static final String MODULE_CONFIG_KEY = "lastaflute.config.MODULE"; // same as LaModuleConfigUtil
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final Map<String, Object> requestMap = new HashMap<String, Object>();
+    protected final HttpServletRequest request;
+    protected final HttpServletResponse response;
+    protected final SessionManager sessionManager;
+    protected final RequestManager requestManager;
+    protected final BenchmarkMessageManager messageManager;
+    protected final FwAssistantDirector assistantDirector;
+    protected final ActionPathResolver actionPathResolver;
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public BenchmarkEnvironment() {
+        request = createRequest();
+        response = createResponse();
+        sessionManager = createSessionManager();
+        requestManager = createRequestManager();
+        messageManager = new BenchmarkMessageManager();
+        assistantDirector = createAssistantDirector();
+        actionPathResolver = new BenchmarkActionPathResolver();
+        requestMap.put(MODULE_CONFIG_KEY, createModuleConfig());
+    }
+
+    // ===================================================================================
+    //                                                                         Set up/Down
+    //                                                                         ===========
+    public void setUp() {
+        final LaContainerImpl container = new LaContainerImpl();
+        container.register(requestManager);
+        container.register(sessionManager);
+        container.register(messageManager);
+        container.register(assistantDirector);
+        container.register(actionPathResolver);
+        final ExternalContext externalContext = createExternalContext();
+        container.setExternalContext(externalContext);
+        SingletonLaContainerFactory.setContainer(container);
+        SingletonLaContainerFactory.setExternalContext(externalContext);
+    }
+
+    public void tearDown() {
+        SingletonLaContainerFactory.setExternalContext(null);
+        SingletonLaContainerFactory.setContainer(null);
+    }
+
+    public BenchmarkPageContext createPageContext() {
+        return new BenchmarkPageContext(request, response, requestMap);
+    }
+
+    // ===================================================================================
+    //                                                                     Servlet Objects
+    //                                                                     ===============
+    protected HttpServletRequest createRequest() {
+        return createProxy(HttpServletRequest.class, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                final String name = method.getName();
+                if (name.equals("getContextPath")) {
+                    return CONTEXT_PATH;
+                } else if (name.equals("getCharacterEncoding")) {
+                    return "UTF-8";
+                } else if (name.equals("getRequestURI")) {
+                    return CONTEXT_PATH + REQUEST_PATH;
+                } else if (name.equals("isRequestedSessionIdFromCookie")) {
+                    return true; // cookie session
+                } else if (name.equals("getAttribute")) {
+                    return requestMap.get((String) args[0]);
+                } else if (name.equals("setAttribute")) {
+                    requestMap.put((String) args[0], args[1]);
+                    return null;
+                } else if (name.equals("removeAttribute")) {
+                    requestMap.remove((String) args[0]);
+                    return null;
+                }
+                return defaultValue(method);
+            }
+        });
+    }
+
+    protected HttpServletResponse createResponse() {
+        return createProxy(HttpServletResponse.class, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                final String name = method.getName();
+                if (name.equals("encodeURL") || name.equals("encodeRedirectURL")) {
+                    return args[0]; // cookie session
+                }
+                return defaultValue(method);
+            }
+        });
+    }
+
+    protected ExternalContext createExternalContext() {
+        return createProxy(ExternalContext.class, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                final String name = method.getName();
+                if (name.equals("getRequest")) {
+                    return request;
+                } else if (name.equals("getResponse")) {
+                    return response;
+                } else if (name.equals("getRequestMap")) {
+                    return requestMap;
+                }
+                return defaultValue(method);
+            }
+        });
+    }
+
+    // ===================================================================================
+    //                                                                          Components
+    //                                                                          ==========
+    protected RequestManager createRequestManager() {
+        return createProxy(RequestManager.class, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                final String name = method.getName();
+                if (name.equals("getUserLocale")) {
+                    return Locale.ENGLISH;
+                } else if (name.equals("getRequestPath")) {
+                    return REQUEST_PATH;
+                } else if (name.equals("getContextPath")) {
+                    return CONTEXT_PATH;
+                } else if (name.equals("getRequest")) {
+                    return request;
+                } else if (name.equals("getSessionManager")) {
+                    return sessionManager;
+                } else if (name.equals("getMessageManager")) {
+                    return messageManager;
+                } else if (name.equals("getActionPathResolver")) {
+                    return actionPathResolver;
+                } else if (name.equals("getAttribute")) {
+                    return toOptional(requestMap.get((String) args[0]));
+                }
+                return defaultValue(method);
+            }
+        });
+    }
+
+    protected SessionManager createSessionManager() {
+        final Map<String, Object> sessionMap = new HashMap<String, Object>();
+        return createProxy(SessionManager.class, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                final String name = method.getName();
+                if (name.equals("getAttribute")) {
+                    return toOptional(sessionMap.get((String) args[0]));
+                } else if (name.equals("setAttribute")) {
+                    sessionMap.put((String) args[0], args[1]);
+                    return null;
+                } else if (name.equals("removeAttribute")) {
+                    sessionMap.remove((String) args[0]);
+                    return null;
+                } else if (name.equals("errors")) {
+                    return new ScopedMessageHandler((SessionManager) proxy, "global", "lastaflute.message.ERRORS");
+                } else if (name.equals("info")) {
+                    return new ScopedMessageHandler((SessionManager) proxy, "global", "lastaflute.message.INFO");
+                }
+                return defaultValue(method);
+            }
+        });
+    }
+
+    protected FwAssistantDirector createAssistantDirector() {
+        final FwCoreDirection coreDirection = new FwCoreDirection();
+        final FwDbDirection dbDirection = new FwDbDirection();
+        dbDirection.directClassification(new ListedClassificationProvider() {
+            public BenchmarkCDef.Meta provide(String classificationName) {
+                return BenchmarkCDef.Meta.INSTANCE; // only one classification in benchmark
+            }
+
+            public OptionalThing<String> determineAlias(Locale locale) {
+                return OptionalThing.empty();
+            }
+        });
+        return createProxy(FwAssistantDirector.class, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                final String name = method.getName();
+                if (name.equals("assistCoreDirection")) {
+                    return coreDirection;
+                } else if (name.equals("assistDbDirection")) {
+                    return dbDirection;
+                }
+                return defaultValue(method);
+            }
+        });
+    }
+
+    protected ModuleConfig createModuleConfig() {
+        final ModuleConfig moduleConfig = new ModuleConfig();
+        final ComponentDefImpl actionDef = new ComponentDefImpl(BenchmarkForm.class, ACTION_NAME); // action instance is unused
+        moduleConfig.addActionMapping(new ActionMapping(actionDef, ACTION_NAME, null));
+        return moduleConfig;
+    }
+
+    // ===================================================================================
+    //                                                                        Small Helper
+    //                                                                        ============
+    @SuppressWarnings("unchecked")
+    protected static <TYPE> TYPE createProxy(Class<TYPE> type, InvocationHandler handler) {
+        return (TYPE) Proxy.newProxyInstance(BenchmarkEnvironment.class.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+
+    protected static OptionalThing<Object> toOptional(Object value) {
+        return value != null ? OptionalThing.of(value) : OptionalThing.empty();
+    }
+
+    protected static Object defaultValue(Method method) {
+        final Class<?> returnType = method.getReturnType();
+        if (returnType == boolean.class) {
+            return false;
+        } else if (returnType == int.class) {
+            return 0;
+        } else if (returnType == long.class) {
+            return 0L;
+        } else if (returnType == OptionalThing.class) {
+            return OptionalThing.empty();
+        } else if (method.getName().equals("toString")) {
+            return "benchmark:" + method.getDeclaringClass().getSimpleName();
+        } else if (method.getName().equals("hashCode")) {
+            return 0;
+        }
+        return null;
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public Map<String, Object> getRequestMap() {
+        return requestMap;
+    }
+
+    public BenchmarkMessageManager getMessageManager() {
+        return messageManager;
+    }
+}
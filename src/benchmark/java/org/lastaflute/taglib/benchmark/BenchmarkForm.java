@@ -0,0 +1,40 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.benchmark;
+
+import java.util.List;
+
+/**
+ * The action form for benchmark, bound to the input tags. (public fields like LastaFlute forms)
+ * @author jflute
+ */
+public class BenchmarkForm {
+
+    public String memberName;
+    public String memberStatus;
+    public String prefectureCode;
+    public List<String> prefectureCodeList;
+    public String memo;
+    public String contentBody; // large text e.g. CMS body
+    public List<BenchmarkRow> memberList; // rows of editable grid
+
+    public static class BenchmarkRow {
+
+        public String memberName;
+        public String memberStatus;
+        public String memo;
+    }
+}
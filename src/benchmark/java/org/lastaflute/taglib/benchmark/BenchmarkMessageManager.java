@@ -0,0 +1,107 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.benchmark;
+
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.dbflute.optional.OptionalThing;
+import org.lastaflute.core.message.MessageManager;
+import org.lastaflute.core.message.UserMessages;
+import org.lastaflute.core.message.exception.MessageKeyNotFoundException;
+import org.lastaflute.core.message.resources.MessageResourcesGateway;
+
+/**
+ * The message manager stand-in for benchmark, which formats by MessageFormat like message resources.
+ * @author jflute
+ */
+public class BenchmarkMessageManager implements MessageManager {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final Map<String, String> messageMap = new HashMap<String, String>();
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public BenchmarkMessageManager() {
+        messageMap.put("errors.header", "<ul class=\"errors\">");
+        messageMap.put("errors.footer", "</ul>");
+        messageMap.put("errors.prefix", "<li>");
+        messageMap.put("errors.suffix", "</li>");
+        messageMap.put("errors.required", "{0} is required.");
+        messageMap.put("errors.maxlength", "{0} must be less than {1} characters.");
+        messageMap.put("labels.memberName", "Member Name");
+        messageMap.put("labels.search", "Search");
+        messageMap.put("messages.welcome", "Welcome, {0} (last login: {1})");
+        messageMap.put("messages.footer", "Copyright (c) The DBFlute Project");
+    }
+
+    public void registerMessage(String key, String message) {
+        messageMap.put(key, message);
+    }
+
+    // ===================================================================================
+    //                                                                             Message
+    //                                                                             =======
+    @Override
+    public String getMessage(Locale locale, String key) {
+        final String message = messageMap.get(key);
+        if (message == null) {
+            throw new MessageKeyNotFoundException("Not found the message: " + key);
+        }
+        return message;
+    }
+
+    @Override
+    public String getMessage(Locale locale, String key, Object... args) {
+        final String message = getMessage(locale, key);
+        return args != null && args.length > 0 ? new MessageFormat(message, locale).format(args) : message;
+    }
+
+    @Override
+    public OptionalThing<String> findMessage(Locale locale, String key) {
+        final String message = messageMap.get(key);
+        return message != null ? OptionalThing.of(message) : OptionalThing.empty();
+    }
+
+    @Override
+    public OptionalThing<String> findMessage(Locale locale, String key, Object[] args) {
+        return messageMap.containsKey(key) ? OptionalThing.of(getMessage(locale, key, args)) : OptionalThing.empty();
+    }
+
+    // ===================================================================================
+    //                                                                         Unsupported
+    //                                                                         ===========
+    @Override
+    public List<String> toMessageList(Locale locale, UserMessages messages) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Map<String, List<String>> toPropertyMessageMap(Locale locale, UserMessages messages) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public MessageResourcesGateway getMessageResourceGateway() {
+        throw new UnsupportedOperationException();
+    }
+}
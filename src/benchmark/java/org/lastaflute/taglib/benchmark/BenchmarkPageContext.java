@@ -0,0 +1,281 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.el.ELContext;
+import javax.servlet.Servlet;
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import javax.servlet.jsp.JspWriter;
+import javax.servlet.jsp.PageContext;
+import javax.servlet.jsp.el.ExpressionEvaluator;
+import javax.servlet.jsp.el.VariableResolver;
+import javax.servlet.jsp.tagext.BodyContent;
+
+/**
+ * The page context stand-in for benchmark, which keeps four scopes as plain maps
+ * and reuses pushed body contents per nest level.
+ * @author jflute
+ */
+@SuppressWarnings("deprecation")
+public class BenchmarkPageContext extends PageContext {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final HttpServletRequest request;
+    protected final HttpServletResponse response;
+    protected final Map<String, Object> pageMap = new HashMap<String, Object>();
+    protected final Map<String, Object> requestMap; // shared with request
+    protected final Map<String, Object> sessionMap = new HashMap<String, Object>();
+    protected final Map<String, Object> applicationMap = new HashMap<String, Object>();
+    protected final BenchmarkBodyContent pageOut = new BenchmarkBodyContent(null);
+    protected final List<BenchmarkBodyContent> bodyPool = new ArrayList<BenchmarkBodyContent>();
+    protected int bodyDepth;
+    protected JspWriter currentOut = pageOut;
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public BenchmarkPageContext(HttpServletRequest request, HttpServletResponse response, Map<String, Object> requestMap) {
+        this.request = request;
+        this.response = response;
+        this.requestMap = requestMap;
+    }
+
+    // ===================================================================================
+    //                                                                              Writer
+    //                                                                              ======
+    @Override
+    public JspWriter getOut() {
+        return currentOut;
+    }
+
+    public BenchmarkBodyContent getPageOut() {
+        return pageOut;
+    }
+
+    @Override
+    public BodyContent pushBody() {
+        if (bodyPool.size() <= bodyDepth) {
+            bodyPool.add(new BenchmarkBodyContent(currentOut));
+        }
+        final BenchmarkBodyContent body = bodyPool.get(bodyDepth);
+        body.clearBody();
+        ++bodyDepth;
+        currentOut = body;
+        return body;
+    }
+
+    @Override
+    public JspWriter popBody() {
+        --bodyDepth;
+        currentOut = bodyDepth > 0 ? bodyPool.get(bodyDepth - 1) : pageOut;
+        return currentOut;
+    }
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    @Override
+    public void setAttribute(String name, Object value) {
+        setAttribute(name, value, PAGE_SCOPE);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value, int scope) {
+        if (value == null) {
+            removeAttribute(name, scope);
+        } else {
+            scopeMap(scope).put(name, value);
+        }
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return getAttribute(name, PAGE_SCOPE);
+    }
+
+    @Override
+    public Object getAttribute(String name, int scope) {
+        return scopeMap(scope).get(name);
+    }
+
+    @Override
+    public Object findAttribute(String name) {
+        Object value = pageMap.get(name);
+        if (value == null) {
+            value = requestMap.get(name);
+        }
+        if (value == null) {
+            value = sessionMap.get(name);
+        }
+        if (value == null) {
+            value = applicationMap.get(name);
+        }
+        return value;
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+        pageMap.remove(name);
+        requestMap.remove(name);
+        sessionMap.remove(name);
+        applicationMap.remove(name);
+    }
+
+    @Override
+    public void removeAttribute(String name, int scope) {
+        scopeMap(scope).remove(name);
+    }
+
+    @Override
+    public int getAttributesScope(String name) {
+        if (pageMap.containsKey(name)) {
+            return PAGE_SCOPE;
+        } else if (requestMap.containsKey(name)) {
+            return REQUEST_SCOPE;
+        } else if (sessionMap.containsKey(name)) {
+            return SESSION_SCOPE;
+        } else if (applicationMap.containsKey(name)) {
+            return APPLICATION_SCOPE;
+        }
+        return 0;
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNamesInScope(int scope) {
+        return Collections.enumeration(scopeMap(scope).keySet());
+    }
+
+    protected Map<String, Object> scopeMap(int scope) {
+        switch (scope) {
+        case PAGE_SCOPE:
+            return pageMap;
+        case REQUEST_SCOPE:
+            return requestMap;
+        case SESSION_SCOPE:
+            return sessionMap;
+        case APPLICATION_SCOPE:
+            return applicationMap;
+        default:
+            throw new IllegalArgumentException("Unknown scope: " + scope);
+        }
+    }
+
+    // ===================================================================================
+    //                                                                     Servlet Objects
+    //                                                                     ===============
+    @Override
+    public ServletRequest getRequest() {
+        return request;
+    }
+
+    @Override
+    public ServletResponse getResponse() {
+        return response;
+    }
+
+    @Override
+    public HttpSession getSession() {
+        return null;
+    }
+
+    @Override
+    public Object getPage() {
+        return null;
+    }
+
+    @Override
+    public Exception getException() {
+        return null;
+    }
+
+    @Override
+    public ServletConfig getServletConfig() {
+        return null;
+    }
+
+    @Override
+    public ServletContext getServletContext() {
+        return null;
+    }
+
+    // ===================================================================================
+    //                                                                         Unsupported
+    //                                                                         ===========
+    @Override
+    public void initialize(Servlet servlet, ServletRequest request, ServletResponse response, String errorPageURL,
+            boolean needsSession, int bufferSize, boolean autoFlush) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void release() {
+    }
+
+    @Override
+    public void forward(String relativeUrlPath) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void include(String relativeUrlPath) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void include(String relativeUrlPath, boolean flush) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void handlePageException(Exception e) {
+        throw new IllegalStateException(e);
+    }
+
+    @Override
+    public void handlePageException(Throwable t) {
+        throw new IllegalStateException(t);
+    }
+
+    @Override
+    public ExpressionEvaluator getExpressionEvaluator() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public VariableResolver getVariableResolver() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ELContext getELContext() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.benchmark;
+
+import javax.servlet.jsp.JspException;
+import javax.servlet.jsp.tagext.BodyTag;
+import javax.servlet.jsp.tagext.IterationTag;
+import javax.servlet.jsp.tagext.Tag;
+import javax.servlet.jsp.tagext.TryCatchFinally;
+
+/**
+ * The driver of tag lifecycle for benchmark, calling the tag methods
+ * in the same order as the code generated by JSP compilers.
+ * @author jflute
+ */
+public class BenchmarkTagDriver {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final BenchmarkPageContext pageContext;
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public BenchmarkTagDriver(BenchmarkPageContext pageContext) {
+        this.pageContext = pageContext;
+    }
+
+    // ===================================================================================
+    //                                                                           Lifecycle
+    //                                                                           =========
+    public void prepare(Tag tag, Tag parent) {
+        tag.setPageContext(pageContext);
+        tag.setParent(parent);
+    }
+
+    public int drive(Tag tag) throws JspException {
+        return drive(tag, (String) null);
+    }
+
+    public int drive(Tag tag, String bodyText) throws JspException {
+        return drive(tag, new BodyRenderer() {
+            public void render() throws Exception {
+                if (bodyText != null) {
+                    pageContext.getOut().print(bodyText);
+                }
+            }
+        });
+    }
+
+    public int drive(Tag tag, BodyRenderer bodyRenderer) throws JspException {
+        if (!(tag instanceof TryCatchFinally)) {
+            return doDrive(tag, bodyRenderer);
+        }
+        final TryCatchFinally tryCatchFinally = (TryCatchFinally) tag;
+        try { // like generated JSP code
+            return doDrive(tag, bodyRenderer);
+        } catch (Throwable cause) {
+            try {
+                tryCatchFinally.doCatch(cause);
+            } catch (JspException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new JspException("Failed to drive the tag.", e);
+            }
+            return Tag.EVAL_PAGE;
+        } finally {
+            tryCatchFinally.doFinally();
+        }
+    }
+
+    protected int doDrive(Tag tag, BodyRenderer bodyRenderer) throws JspException {
+        final int startResult = tag.doStartTag();
+        if (startResult != Tag.SKIP_BODY) {
+            final boolean buffered = startResult == BodyTag.EVAL_BODY_BUFFERED && tag instanceof BodyTag;
+            if (buffered) {
+                final BodyTag bodyTag = (BodyTag) tag;
+                bodyTag.setBodyContent(pageContext.pushBody());
+                bodyTag.doInitBody();
+            }
+            try {
+                int afterResult;
+                do {
+                    renderBody(bodyRenderer);
+                    afterResult = tag instanceof IterationTag ? ((IterationTag) tag).doAfterBody() : Tag.SKIP_BODY;
+                } while (afterResult == IterationTag.EVAL_BODY_AGAIN);
+            } finally {
+                if (buffered) {
+                    pageContext.popBody();
+                }
+            }
+        }
+        return tag.doEndTag();
+    }
+
+    protected void renderBody(BodyRenderer bodyRenderer) throws JspException {
+        try {
+            bodyRenderer.render();
+        } catch (JspException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new JspException("Failed to render the body.", e);
+        }
+    }
+
+    // ===================================================================================
+    //                                                                       Body Renderer
+    //                                                                       =============
+    public static interface BodyRenderer {
+
+        void render() throws Exception;
+    }
+}
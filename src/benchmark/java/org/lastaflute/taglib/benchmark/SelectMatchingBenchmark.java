@@ -0,0 +1,138 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.benchmark;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.lastaflute.taglib.html.HtmlSelectTag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmark of selected-value matching in select tag, to find the crossover point
+ * between array scan and hash set (including the set building per select tag). <br>
+ * The result is reflected to MATCHED_VALUE_SET_THRESHOLD of HtmlSelectTag.
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.include=SelectMatchingBenchmark
+ * </pre>
+ * @author jflute
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SelectMatchingBenchmark {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    /** The count of options in the select, each option calls isMatched() once. */
+    @Param({ "47", "3000" })
+    public int optionCount;
+
+    /** The count of selected values in the select. */
+    @Param({ "1", "2", "4", "8", "16", "32", "256" })
+    public int selectedCount;
+
+    protected String[] optionValues;
+    protected String[] selectedValues;
+    protected BenchmarkSelectTag selectTag;
+
+    // ===================================================================================
+    //                                                                              Set up
+    //                                                                              ======
+    @Setup
+    public void setUp() {
+        optionValues = new String[optionCount];
+        for (int i = 0; i < optionCount; i++) {
+            optionValues[i] = "code" + i; // new instance so equals() compares chars
+        }
+        selectedValues = new String[selectedCount];
+        for (int i = 0; i < selectedCount; i++) {
+            selectedValues[i] = new String("code" + ((i * 7) % optionCount)); // spread over options
+        }
+        selectTag = new BenchmarkSelectTag();
+    }
+
+    // ===================================================================================
+    //                                                                           Benchmark
+    //                                                                           =========
+    @Benchmark
+    public int arrayScan() {
+        selectTag.prepareMatching(selectedValues, null);
+        return renderOptions();
+    }
+
+    @Benchmark
+    public int hashSet() {
+        selectTag.prepareMatching(selectedValues, buildHashSet(selectedValues));
+        return renderOptions();
+    }
+
+    @Benchmark
+    public int adaptive() { // actual logic of select tag
+        selectTag.prepareMatching(selectedValues, selectTag.callPrepareMatchedValueSet(selectedValues));
+        return renderOptions();
+    }
+
+    protected int renderOptions() {
+        int matchedCount = 0;
+        for (String optionValue : optionValues) {
+            if (selectTag.isMatched(optionValue)) {
+                ++matchedCount;
+            }
+        }
+        return matchedCount;
+    }
+
+    protected Set<String> buildHashSet(String[] values) {
+        final Set<String> valueSet = new HashSet<String>(values.length * 2);
+        for (String value : values) {
+            valueSet.add(value);
+        }
+        return valueSet;
+    }
+
+    // ===================================================================================
+    //                                                                    Bench Select Tag
+    //                                                                    ================
+    public static class BenchmarkSelectTag extends HtmlSelectTag {
+
+        private static final long serialVersionUID = 1L;
+
+        public void prepareMatching(String[] values, Set<String> valueSet) {
+            matchedValues = values;
+            matchedValueSet = valueSet;
+        }
+
+        public Set<String> callPrepareMatchedValueSet(String[] values) {
+            return prepareMatchedValueSet(values);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.lastaflute.taglib.html.HtmlSelectTag;
+import org.lastaflute.taglib.html.HtmlTextTag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmark of retained size of pooled tag handlers, containers keep them per JSP per thread. <br>
+ * A handler is created and set up with typical literal attributes like generated JSP code,
+ * so bytes allocated per operation (by GC profiler) are the retained size of the handler.
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.include=TagFootprintBenchmark
+ * </pre>
+ * @author jflute
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TagFootprintBenchmark {
+
+    @Benchmark
+    public Object plainTextHandler() { // most fields in forms
+        final HtmlTextTag tag = new HtmlTextTag();
+        tag.setProperty("memberName");
+        tag.setMaxlength("20");
+        tag.setStyleClass("form-control");
+        return tag;
+    }
+
+    @Benchmark
+    public Object errorStyledTextHandler() { // design system style
+        final HtmlTextTag tag = new HtmlTextTag();
+        tag.setProperty("memberName");
+        tag.setStyleClass("form-control");
+        tag.setErrorStyleClass("form-control is-invalid");
+        return tag;
+    }
+
+    @Benchmark
+    public Object eventTextHandler() { // with a few event handlers
+        final HtmlTextTag tag = new HtmlTextTag();
+        tag.setProperty("memberName");
+        tag.setStyleClass("form-control");
+        tag.setOnchange("validateMemberName(this)");
+        tag.setOnblur("trimValue(this)");
+        return tag;
+    }
+
+    @Benchmark
+    public Object plainSelectHandler() {
+        final HtmlSelectTag tag = new HtmlSelectTag();
+        tag.setProperty("prefectureCode");
+        tag.setStyleClass("form-select");
+        return tag;
+    }
+}
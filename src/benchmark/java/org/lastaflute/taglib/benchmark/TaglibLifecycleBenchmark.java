@@ -0,0 +1,405 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.jsp.JspException;
+import javax.servlet.jsp.PageContext;
+import javax.servlet.jsp.tagext.Tag;
+
+import org.lastaflute.core.message.UserMessage;
+import org.lastaflute.core.message.UserMessages;
+import org.lastaflute.taglib.base.TaglibAttributeKey;
+import org.lastaflute.taglib.base.TaglibEnhanceLogic;
+import org.lastaflute.taglib.bean.BeanMessageTag;
+import org.lastaflute.taglib.benchmark.BenchmarkForm.BenchmarkRow;
+import org.lastaflute.taglib.cache.CacheFragmentTag;
+import org.lastaflute.taglib.html.HtmlErrorsTag;
+import org.lastaflute.taglib.html.HtmlLinkTag;
+import org.lastaflute.taglib.html.HtmlOptionClsTag;
+import org.lastaflute.taglib.html.HtmlOptionTag;
+import org.lastaflute.taglib.html.HtmlRowsTag;
+import org.lastaflute.taglib.html.HtmlSelectTag;
+import org.lastaflute.taglib.html.HtmlTextareaTag;
+import org.lastaflute.taglib.html.HtmlTextTag;
+import org.lastaflute.taglib.html.MappingHtmlFormTag;
+import org.lastaflute.web.LastaWebKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmark of full doStartTag/doEndTag cycle for main tags. <br>
+ * Tag instances are reused between invocations like pooled tag handlers of containers,
+ * and the attributes are set per invocation like generated JSP code. <br>
+ * Run it with GC profiler to see bytes allocated per operation:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.include=TaglibLifecycleBenchmark
+ * </pre>
+ * @author jflute
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaglibLifecycleBenchmark {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    protected static final String FORM_NAME = "memberListForm";
+    protected static final int CONTENT_BODY_LENGTH = 100 * 1024; // like CMS body
+    protected static final int GRID_ROW_COUNT = 100; // editable grid
+    protected static final int NAVIGATION_LINK_COUNT = 12; // header menu
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected BenchmarkEnvironment environment;
+    protected BenchmarkPageContext pageContext;
+    protected BenchmarkTagDriver driver;
+    protected BenchmarkForm form;
+
+    /** Is compact output enabled? (e.g. -p compactOutput=false,true) */
+    @Param({ "false" })
+    public boolean compactOutput;
+
+    // -----------------------------------------------------
+    //                                           Pooled Tags
+    //                                           -----------
+    protected HtmlSelectTag selectTag;
+    protected HtmlOptionTag optionTag;
+    protected HtmlOptionClsTag optionClsTag;
+    protected HtmlTextTag textTag;
+    protected HtmlRowsTag rowsTag;
+    protected HtmlTextTag cellTag;
+    protected HtmlTextareaTag textareaTag;
+    protected HtmlLinkTag linkTag;
+    protected CacheFragmentTag cacheTag;
+    protected MappingHtmlFormTag formTag;
+    protected HtmlErrorsTag errorsTag;
+    protected BeanMessageTag messageTag;
+
+    // ===================================================================================
+    //                                                                         Set up/Down
+    //                                                                         ===========
+    @Setup(Level.Trial)
+    public void setUp() {
+        environment = new BenchmarkEnvironment();
+        environment.setUp();
+        if (compactOutput) {
+            TaglibEnhanceLogic.getInstance().enableCompactOutput();
+        }
+        pageContext = environment.createPageContext();
+        driver = new BenchmarkTagDriver(pageContext);
+        form = new BenchmarkForm();
+        form.memberName = "Mystic <Harbor> & \"Sea\"";
+        form.memberStatus = "FML";
+        form.prefectureCode = BenchmarkCDef.Tokyo.code();
+        form.prefectureCodeList = Arrays.asList("01", "13", "27", "47");
+        form.memo = "Over the 'waterfront'";
+        form.contentBody = prepareContentBody();
+        form.memberList = prepareMemberList();
+        pageContext.setAttribute(FORM_NAME, form, PageContext.REQUEST_SCOPE);
+        pageContext.setAttribute(TaglibAttributeKey.BEAN_KEY, form, PageContext.REQUEST_SCOPE);
+
+        selectTag = new HtmlSelectTag();
+        optionTag = new HtmlOptionTag();
+        optionClsTag = new HtmlOptionClsTag();
+        textTag = new HtmlTextTag();
+        rowsTag = new HtmlRowsTag();
+        cellTag = new HtmlTextTag();
+        textareaTag = new HtmlTextareaTag();
+        linkTag = new HtmlLinkTag();
+        cacheTag = new CacheFragmentTag();
+        formTag = new BenchmarkMappingHtmlFormTag();
+        errorsTag = new HtmlErrorsTag();
+        messageTag = new BeanMessageTag();
+    }
+
+    protected String prepareContentBody() {
+        final StringBuilder sb = new StringBuilder(CONTENT_BODY_LENGTH + 64);
+        while (sb.length() < CONTENT_BODY_LENGTH) {
+            sb.append("<p class=\"body\">Mystic harbor & land, \"sea\" is 'waterfront'.</p>\n");
+        }
+        return sb.toString();
+    }
+
+    protected List<BenchmarkRow> prepareMemberList() {
+        final List<BenchmarkRow> memberList = new ArrayList<BenchmarkRow>(GRID_ROW_COUNT);
+        for (int i = 0; i < GRID_ROW_COUNT; i++) {
+            final BenchmarkRow row = new BenchmarkRow();
+            row.memberName = "Mystic " + i;
+            row.memberStatus = i % 2 == 0 ? "FML" : "PRV";
+            row.memo = "harbor & \"sea\" " + i;
+            memberList.add(row);
+        }
+        return memberList;
+    }
+
+    protected UserMessages prepareErrors() {
+        final UserMessages errors = new UserMessages();
+        errors.add("memberName", new UserMessage("errors.required", "Member Name"));
+        errors.add("memberName", new UserMessage("errors.maxlength", "Member Name", 20));
+        errors.add("memo", new UserMessage("errors.required", "<Memo>"));
+        return errors;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        TaglibEnhanceLogic.getInstance().disableCompactOutput();
+        environment.tearDown();
+    }
+
+    // ===================================================================================
+    //                                                                              Select
+    //                                                                              ======
+    @Benchmark
+    public int selectWithOptions() throws JspException {
+        beginPage();
+        driver.prepare(selectTag, null);
+        selectTag.setProperty("prefectureCode");
+        selectTag.setStyleClass("form-select");
+        driver.drive(selectTag, new BenchmarkTagDriver.BodyRenderer() {
+            public void render() throws Exception {
+                for (BenchmarkCDef cdef : BenchmarkCDef.values()) {
+                    driver.prepare(optionTag, selectTag);
+                    optionTag.setValue(cdef.code());
+                    driver.drive(optionTag, cdef.alias());
+                }
+            }
+        });
+        return endPage();
+    }
+
+    @Benchmark
+    public int selectWithOptionCls() throws JspException {
+        beginPage();
+        driver.prepare(selectTag, null);
+        selectTag.setProperty("prefectureCodeList");
+        selectTag.setMultiple("true");
+        selectTag.setStyleClass("form-select");
+        driver.drive(selectTag, new BenchmarkTagDriver.BodyRenderer() {
+            public void render() throws Exception {
+                driver.prepare(optionClsTag, selectTag);
+                optionClsTag.setName("Prefecture");
+                driver.drive(optionClsTag);
+            }
+        });
+        selectTag.setMultiple(null); // not in all benchmarks
+        return endPage();
+    }
+
+    // ===================================================================================
+    //                                                                               Input
+    //                                                                               =====
+    @Benchmark
+    public int text() throws JspException {
+        beginPage();
+        driver.prepare(textTag, null);
+        textTag.setProperty("memberName");
+        textTag.setMaxlength("20");
+        textTag.setStyleClass("form-control");
+        textTag.setErrorStyleClass("form-control is-invalid");
+        textTag.setPlaceholder("labels.memberName");
+        textTag.setDynamicAttribute(null, "data-role", "member-name");
+        textTag.setDynamicAttribute(null, "aria-label", "Member Name");
+        driver.drive(textTag);
+        return endPage();
+    }
+
+    @Benchmark
+    public int textWithDataAttributes() throws JspException { // like Bootstrap/Alpine markup
+        beginPage();
+        driver.prepare(textTag, null);
+        textTag.setProperty("memberName");
+        textTag.setStyleClass("form-control");
+        textTag.setDynamicAttribute(null, "data-bs-toggle", "tooltip");
+        textTag.setDynamicAttribute(null, "data-bs-placement", "top");
+        textTag.setDynamicAttribute(null, "x-model", "memberName");
+        textTag.setDynamicAttribute(null, "x-on:input", "validate(\"memberName\")");
+        textTag.setDynamicAttribute(null, "aria-label", "Member Name");
+        textTag.setDynamicAttribute(null, "aria-describedby", "memberNameHelp");
+        textTag.setDynamicAttribute(null, "autofocus", null);
+        driver.drive(textTag);
+        return endPage();
+    }
+
+    @Benchmark
+    public int rowsGrid() throws JspException { // indexed inputs in rows, 100 rows x 3 columns
+        beginPage();
+        driver.prepare(rowsTag, null);
+        rowsTag.setId("memberList");
+        rowsTag.setProperty("memberList");
+        driver.drive(rowsTag, new BenchmarkTagDriver.BodyRenderer() {
+            public void render() throws Exception {
+                renderCell("memberName");
+                renderCell("memberStatus");
+                renderCell("memo");
+            }
+        });
+        return endPage();
+    }
+
+    protected void renderCell(String property) throws JspException {
+        driver.prepare(cellTag, rowsTag);
+        cellTag.setName("memberList");
+        cellTag.setProperty(property);
+        cellTag.setIndexed(true);
+        cellTag.setStyleClass("form-control");
+        cellTag.setErrorStyleClass("form-control is-invalid"); // design system style
+        driver.drive(cellTag);
+    }
+
+    // ===================================================================================
+    //                                                                            Textarea
+    //                                                                            ========
+    @Benchmark
+    public int textareaLarge() throws JspException {
+        beginPage();
+        driver.prepare(textareaTag, null);
+        textareaTag.setProperty("contentBody");
+        textareaTag.setRows("30");
+        textareaTag.setStyleClass("form-control");
+        driver.drive(textareaTag);
+        return endPage();
+    }
+
+    // ===================================================================================
+    //                                                                                Link
+    //                                                                                ====
+    @Benchmark
+    public int link() throws JspException {
+        beginPage();
+        driver.prepare(linkTag, null);
+        linkTag.setHref("/member/detail/?memberId=3");
+        linkTag.setStyleClass("nav-link");
+        driver.drive(linkTag, "Member Detail");
+        return endPage();
+    }
+
+    @Benchmark
+    public int navigation() throws JspException { // e.g. header menu rendered per request
+        beginPage();
+        renderNavigation(null);
+        return endPage();
+    }
+
+    @Benchmark
+    public int cachedNavigation() throws JspException { // same menu in cache tag
+        beginPage();
+        driver.prepare(cacheTag, null);
+        cacheTag.setKey("navigation");
+        cacheTag.setTtl(600);
+        driver.drive(cacheTag, new BenchmarkTagDriver.BodyRenderer() {
+            public void render() throws Exception {
+                renderNavigation(cacheTag);
+            }
+        });
+        return endPage();
+    }
+
+    protected void renderNavigation(Tag parent) throws JspException {
+        for (int i = 0; i < NAVIGATION_LINK_COUNT; i++) {
+            driver.prepare(linkTag, parent);
+            linkTag.setHref("/member/list/");
+            linkTag.setStyleClass("nav-link");
+            driver.drive(linkTag, "Member List");
+        }
+    }
+
+    // ===================================================================================
+    //                                                                                Form
+    //                                                                                ====
+    @Benchmark
+    public int form() throws JspException {
+        beginPage();
+        driver.prepare(formTag, null);
+        formTag.setAction("/member/list/");
+        formTag.setStyleClass("search-form");
+        formTag.setFocus("memberName");
+        driver.drive(formTag);
+        pageContext.setAttribute(TaglibAttributeKey.BEAN_KEY, form, PageContext.REQUEST_SCOPE); // removed at end tag
+        return endPage();
+    }
+
+    // ===================================================================================
+    //                                                                              Errors
+    //                                                                              ======
+    @Benchmark
+    public int errors() throws JspException {
+        beginPage();
+        // message arguments are escaped in place so new errors per request like production
+        pageContext.setAttribute(LastaWebKey.ACTION_ERRORS_KEY, prepareErrors(), PageContext.REQUEST_SCOPE);
+        driver.prepare(errorsTag, null);
+        driver.drive(errorsTag);
+        return endPage();
+    }
+
+    // ===================================================================================
+    //                                                                             Message
+    //                                                                             =======
+    @Benchmark
+    public int message() throws JspException {
+        beginPage();
+        driver.prepare(messageTag, null);
+        messageTag.setKey("messages.welcome");
+        messageTag.setArg0("<Mystic>");
+        messageTag.setArg1("2015/04/21");
+        driver.drive(messageTag);
+        return endPage();
+    }
+
+    // ===================================================================================
+    //                                                                        Small Helper
+    //                                                                        ============
+    protected void beginPage() {
+        pageContext.getPageOut().clearBody();
+    }
+
+    protected int endPage() {
+        return pageContext.getPageOut().length(); // returned to be consumed by JMH
+    }
+
+    // ===================================================================================
+    //                                                                      Bench Form Tag
+    //                                                                      ==============
+    public static class BenchmarkMappingHtmlFormTag extends MappingHtmlFormTag {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void setupBeanInfo() throws JspException {
+            beanName = FORM_NAME; // action execute is not prepared in benchmark
+        }
+    }
+}
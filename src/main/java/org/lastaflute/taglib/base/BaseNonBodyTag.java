@@ -15,11 +15,8 @@
  */
 package org.lastaflute.taglib.base;
 
-import java.util.LinkedHashSet;
-import java.util.Set;
-import java.util.function.Supplier;
-
 import javax.servlet.jsp.JspException;
+import javax.servlet.jsp.PageContext;
 import javax.servlet.jsp.tagext.DynamicAttributes;
 import javax.servlet.jsp.tagext.TagSupport;
 
@@ -31,7 +28,7 @@ import org.lastaflute.web.servlet.session.SessionManager;
 /**
  * @author modified by jflute (originated in Struts)
  */
-public abstract class BaseNonBodyTag extends TagSupport implements DynamicAttributes {
+public abstract class BaseNonBodyTag extends TagSupport implements DynamicAttributes, TaglibCallerInfo {
 
     // ===================================================================================
     //                                                                          Definition
@@ -45,7 +42,17 @@ public abstract class BaseNonBodyTag extends TagSupport implements DynamicAttrib
     // -----------------------------------------------------
     //                                               Control
     //                                               -------
-    protected Set<DynamicTagAttribute> dynamicAttributes; // lazy loaded
+    protected DynamicTagAttributes dynamicAttributes; // lazy loaded, reused by (pooled) instance
+    protected TaglibRenderContext renderContext; // lazy loaded, cleared per page context set
+
+    // ===================================================================================
+    //                                                                        Page Context
+    //                                                                        ============
+    @Override
+    public void setPageContext(PageContext pageContext) {
+        super.setPageContext(pageContext);
+        renderContext = null; // pooled instance may be used in other request
+    }
 
     // ===================================================================================
     //                                                                   Dynamic Attribute
@@ -55,8 +62,10 @@ public abstract class BaseNonBodyTag extends TagSupport implements DynamicAttrib
         getEnhanceLogic().addDynamicAttribute(getDynamicAttributes(), localName, value);
     }
 
-    protected void prepareDynamicAttributes(StringBuilder sb) {
-        sb.append(buildDynamicAttributeExp());
+    protected void prepareDynamicAttributes(TagMarkupWriter writer) {
+        if (dynamicAttributes != null && !dynamicAttributes.isEmpty()) {
+            getEnhanceLogic().writeDynamicAttributes(writer, dynamicAttributes);
+        }
         clearDynamicAttributes(); // taglib instance may be shared with other tags so need to clear
     }
 
@@ -64,17 +73,16 @@ public abstract class BaseNonBodyTag extends TagSupport implements DynamicAttrib
         return getEnhanceLogic().buildDynamicAttributeExp(getDynamicAttributes());
     }
 
-    protected Set<DynamicTagAttribute> getDynamicAttributes() {
+    protected DynamicTagAttributes getDynamicAttributes() {
         if (dynamicAttributes == null) {
-            dynamicAttributes = new LinkedHashSet<DynamicTagAttribute>(4);
+            dynamicAttributes = new DynamicTagAttributes();
         }
         return dynamicAttributes;
     }
 
     protected void clearDynamicAttributes() {
         if (dynamicAttributes != null) {
-            dynamicAttributes.clear();
-            dynamicAttributes = null;
+            dynamicAttributes.clear(); // keep the instance to reuse its arrays
         }
     }
 
@@ -105,24 +113,28 @@ public abstract class BaseNonBodyTag extends TagSupport implements DynamicAttrib
         getEnhanceLogic().writePrevious(pageContext, text);
     }
 
+    protected TagMarkupWriter createMarkupWriter() {
+        return getEnhanceLogic().createMarkupWriter(pageContext);
+    }
+
     protected Object lookupBean(String beanName) throws JspException {
         return getEnhanceLogic().lookupBean(pageContext, beanName, null, prepareCallerInfo());
     }
 
     protected Object lookupProperty(String beanName, String property) throws JspException {
-        return getEnhanceLogic().lookupProperty(pageContext, beanName, property, null, prepareCallerInfo()); // no lambda for jetty6
+        return getEnhanceLogic().lookupProperty(pageContext, beanName, property, null, prepareCallerInfo());
     }
 
     protected String findLabelResourceChecked(String label) {
         return getEnhanceLogic().findLabelResourceChecked(pageContext, label, prepareCallerInfo());
     }
 
-    protected Supplier<Object> prepareCallerInfo() {
-        return new Supplier<Object>() {
-            public Object get() {
-                return buildErrorIdentity();
-            }
-        };
+    protected TaglibCallerInfo prepareCallerInfo() {
+        return this; // the tag is the caller identity, not to create object per call
+    }
+
+    public Object buildCallerIdentity() { // called only when error
+        return buildErrorIdentity();
     }
 
     protected String getElementClose() {
@@ -135,11 +147,40 @@ public abstract class BaseNonBodyTag extends TagSupport implements DynamicAttrib
         return TaglibEnhanceLogic.getInstance();
     }
 
+    // ===================================================================================
+    //                                                                       Render Buffer
+    //                                                                       =============
+    /**
+     * Borrow the empty buffer from request-scoped arena, give it back by {@link #giveBackRenderBuffer(StringBuilder)}.
+     * @return The empty string builder. (NotNull)
+     */
+    protected StringBuilder borrowRenderBuffer() {
+        return getRenderContext().getRenderBuffers().borrow();
+    }
+
+    protected void giveBackRenderBuffer(StringBuilder buffer) {
+        getRenderContext().getRenderBuffers().giveBack(buffer);
+    }
+
+    // ===================================================================================
+    //                                                                      Compact Output
+    //                                                                      ==============
+    protected boolean isCompactOutput() { // without formatting whitespace
+        return getEnhanceLogic().isCompactOutput();
+    }
+
     // ===================================================================================
     //                                                                           Component
     //                                                                           =========
+    protected TaglibRenderContext getRenderContext() {
+        if (renderContext == null) { // first time in this tag use
+            renderContext = getEnhanceLogic().getRenderContext(pageContext);
+        }
+        return renderContext;
+    }
+
     protected RequestManager getRequestManager() {
-        return getComponent(RequestManager.class);
+        return getRenderContext().getRequestManager();
     }
 
     protected SessionManager getSessionManager() {
@@ -157,5 +198,6 @@ public abstract class BaseNonBodyTag extends TagSupport implements DynamicAttrib
     public void release() {
         super.release();
         clearDynamicAttributes();
+        renderContext = null;
     }
 }
@@ -15,16 +15,11 @@
  */
 package org.lastaflute.taglib.base;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-
 import javax.servlet.jsp.JspException;
 import javax.servlet.jsp.PageContext;
 
 import org.lastaflute.taglib.html.HtmlFormTag;
 import org.lastaflute.web.LastaWebKey;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * @author modified by jflute (originated in Struts)
@@ -35,7 +30,60 @@ public abstract class BaseTouchableBodyTag extends BaseBodyTag {
     //                                                                          Definition
     //                                                                          ==========
     private static final long serialVersionUID = 1L;
-    private static final Logger logger = LoggerFactory.getLogger(BaseTouchableBodyTag.class);
+
+    /** The attribute names of event handlers, in rendering order (same as event bits). */
+    protected static final String[] EVENT_HANDLER_NAMES = { "onclick", "ondblclick", "onmouseover", "onmouseout", "onmousemove",
+            "onmousedown", "onmouseup", "onkeydown", "onkeyup", "onkeypress", "onselect", "onchange", "onblur", "onfocus" };
+
+    // -----------------------------------------------------
+    //                                        Attribute Bits
+    //                                        --------------
+    // bit indexes of event handlers are same as the event handler names, which are in rendering order
+    protected static final int BIT_ONCLICK = 0;
+    protected static final int BIT_ONDBLCLICK = 1;
+    protected static final int BIT_ONMOUSEOVER = 2;
+    protected static final int BIT_ONMOUSEOUT = 3;
+    protected static final int BIT_ONMOUSEMOVE = 4;
+    protected static final int BIT_ONMOUSEDOWN = 5;
+    protected static final int BIT_ONMOUSEUP = 6;
+    protected static final int BIT_ONKEYDOWN = 7;
+    protected static final int BIT_ONKEYUP = 8;
+    protected static final int BIT_ONKEYPRESS = 9;
+    protected static final int BIT_ONSELECT = 10;
+    protected static final int BIT_ONCHANGE = 11;
+    protected static final int BIT_ONBLUR = 12;
+    protected static final int BIT_ONFOCUS = 13;
+    protected static final int BIT_DISABLED = 14;
+    protected static final int BIT_READONLY = 15;
+    protected static final int BIT_ACCESSKEY = 16;
+    protected static final int BIT_TABINDEX = 17;
+    protected static final int BIT_INDEXED = 18;
+    protected static final int BIT_STYLE = 19;
+    protected static final int BIT_STYLE_CLASS = 20;
+    protected static final int BIT_STYLE_ID = 21;
+    protected static final int BIT_ERROR_KEY = 22;
+    protected static final int BIT_ERROR_STYLE = 23;
+    protected static final int BIT_ERROR_STYLE_CLASS = 24;
+    protected static final int BIT_ERROR_STYLE_ID = 25;
+    protected static final int BIT_ALT = 26;
+    protected static final int BIT_ALT_KEY = 27;
+    protected static final int BIT_TITLE = 28;
+    protected static final int BIT_TITLE_KEY = 29;
+
+    protected static final int MOUSE_EVENT_BITS = bitRange(BIT_ONCLICK, BIT_ONMOUSEUP);
+    protected static final int KEY_EVENT_BITS = bitRange(BIT_ONKEYDOWN, BIT_ONKEYPRESS);
+    protected static final int TEXT_EVENT_BITS = bitRange(BIT_ONSELECT, BIT_ONCHANGE);
+    protected static final int FOCUS_EVENT_BITS = bitRange(BIT_ONBLUR, BIT_ONFOCUS);
+    protected static final int EVENT_HANDLER_BITS = bitRange(BIT_ONCLICK, BIT_ONFOCUS);
+    protected static final int STYLE_BITS = bitRange(BIT_STYLE, BIT_STYLE_ID) | bitRange(BIT_ERROR_STYLE, BIT_TITLE_KEY);
+    protected static final int ERROR_STYLE_BITS = bitRange(BIT_ERROR_STYLE, BIT_ERROR_STYLE_ID);
+
+    /** The bits of rarely used attributes, which are stored in small array (instead of fields) for footprint of pooled tags. */
+    protected static final int SPARSE_BITS = EVENT_HANDLER_BITS | ERROR_STYLE_BITS | bitRange(BIT_ALT, BIT_TITLE_KEY);
+
+    protected static int bitRange(int fromIndex, int toIndex) { // inclusive
+        return (-1 >>> (31 - toIndex)) & (-1 << fromIndex);
+    }
 
     // ===================================================================================
     //                                                                           Attribute
@@ -54,32 +102,22 @@ public abstract class BaseTouchableBodyTag extends BaseBodyTag {
     // -----------------------------------------------------
     //                                          Mouse Events
     //                                          ------------
-    protected String onclick;
-    protected String ondblclick;
-    protected String onmouseover;
-    protected String onmouseout;
-    protected String onmousemove;
-    protected String onmousedown;
-    protected String onmouseup;
+    // onclick, ondblclick, onmouseover, onmouseout, onmousemove, onmousedown, onmouseup in sparse attributes
 
     // -----------------------------------------------------
     //                                       Keyboard Events
     //                                       ---------------
-    protected String onkeydown;
-    protected String onkeyup;
-    protected String onkeypress;
+    // onkeydown, onkeyup, onkeypress in sparse attributes
 
     // -----------------------------------------------------
     //                                           Text Events
     //                                           -----------
-    protected String onselect;
-    protected String onchange;
+    // onselect, onchange in sparse attributes
 
     // -----------------------------------------------------
     //                               Focus Events and States
     //                               -----------------------
-    protected String onblur;
-    protected String onfocus;
+    // onblur, onfocus in sparse attributes
     protected boolean disabled;
     protected boolean readonly;
 
@@ -90,66 +128,59 @@ public abstract class BaseTouchableBodyTag extends BaseBodyTag {
     protected String styleClass;
     protected String styleId;
     protected String errorKey = LastaWebKey.ACTION_ERRORS_KEY;
-    protected String errorStyle;
-    protected String errorStyleClass;
-    protected String errorStyleId;
+    // errorStyle, errorStyleClass, errorStyleId in sparse attributes
 
     // -----------------------------------------------------
     //                               Other Common Attributes
     //                               -----------------------
-    protected String alt;
-    protected String altKey;
-    protected String title;
-    protected String titleKey;
+    // alt, altKey, title, titleKey in sparse attributes
 
     // -----------------------------------------------------
     //                                     Internal Handling
     //                                     -----------------
     protected boolean doDisabled = true;
     protected boolean doReadonly;
-
-    // -----------------------------------------------------
-    //                                             JSTL Info
-    //                                             ---------
-    private Class<?> loopTagSupportClass;
-    private Method loopTagSupportGetStatus;
-    private Class<?> loopTagStatusClass;
-    private Method loopTagStatusGetIndex;
-    private boolean triedJstlInit;
-    private boolean triedJstlSuccess;
+    protected String actualName; // null allowed, name rendered in current rendering e.g. memberList[0].memberName
+    protected boolean actualNamePrepared; // true if the actual name is prepared in current rendering
+    protected int attributeBits; // bits of attributes set by setters, rendering and release use only them
+    protected String[] sparseValues; // null allowed: values of set sparse attributes in bit order, allocated on first set
 
     // ===================================================================================
     //                                                                   Prepare Attribute
     //                                                                   =================
-    protected String prepareStyles() throws JspException {
-        final StringBuilder sb = new StringBuilder();
+    protected void prepareStyles(TagMarkupWriter writer) throws JspException {
+        if ((attributeBits & STYLE_BITS) == 0) { // basically no way, class is set in most cases
+            return;
+        }
         final boolean errorsExist = doErrorsExist();
         if (errorsExist && getErrorStyleId() != null) {
-            prepareAttribute(sb, "id", getErrorStyleId());
+            prepareAttribute(writer, "id", getErrorStyleId());
         } else {
-            prepareAttribute(sb, "id", getStyleId());
+            prepareAttribute(writer, "id", getStyleId());
         }
         if (errorsExist && getErrorStyle() != null) {
-            prepareAttribute(sb, "style", getErrorStyle());
+            prepareAttribute(writer, "style", getErrorStyle());
         } else {
-            prepareAttribute(sb, "style", getStyle());
+            prepareAttribute(writer, "style", getStyle());
         }
         if (errorsExist && getErrorStyleClass() != null) {
-            prepareAttribute(sb, "class", getErrorStyleClass());
+            prepareAttribute(writer, "class", getErrorStyleClass());
         } else {
-            prepareAttribute(sb, "class", getStyleClass());
+            prepareAttribute(writer, "class", getStyleClass());
         }
-        prepareAttribute(sb, "title", message(getTitle(), getTitleKey()));
-        prepareAttribute(sb, "alt", message(getAlt(), getAltKey()));
-        return sb.toString();
+        prepareAttribute(writer, "title", message(getTitle(), getTitleKey()));
+        prepareAttribute(writer, "alt", message(getAlt(), getAltKey()));
     }
 
     protected boolean doErrorsExist() throws JspException {
         boolean errorsExist = false;
+        if ((attributeBits & ERROR_STYLE_BITS) == 0) { // mostly here if no error style
+            return errorsExist;
+        }
         if (getErrorStyleId() != null || getErrorStyle() != null || getErrorStyleClass() != null) {
-            final String actualName = prepareName();
-            if (actualName != null) {
-                errorsExist = getEnhanceLogic().findUserMessages(pageContext, errorKey).size(actualName) > 0;
+            final String errorName = findActualName();
+            if (errorName != null) {
+                errorsExist = getEnhanceLogic().hasErrorsOf(pageContext, getRenderContext(), errorKey, errorName); // hash lookup
             }
         }
         return errorsExist;
@@ -159,6 +190,23 @@ public abstract class BaseTouchableBodyTag extends BaseBodyTag {
         return null;
     }
 
+    // -----------------------------------------------------
+    //                                           Actual Name
+    //                                           -----------
+    protected void prepareNameAttribute(TagMarkupWriter writer) throws JspException {
+        actualName = prepareName();
+        actualNamePrepared = true; // reused by error styles in the same rendering
+        prepareAttribute(writer, "name", actualName);
+    }
+
+    protected String findActualName() throws JspException {
+        if (actualNamePrepared) { // already rendered as name attribute
+            actualNamePrepared = false; // one-time use not to be reused in next rendering
+            return actualName;
+        }
+        return prepareName();
+    }
+
     protected String message(String literal, String key) throws JspException {
         if (literal != null) {
             if (key != null) {
@@ -172,64 +220,102 @@ public abstract class BaseTouchableBodyTag extends BaseBodyTag {
         }
     }
 
-    protected String prepareEventHandlers() {
-        final StringBuilder sb = new StringBuilder();
-        prepareMouseEvents(sb);
-        prepareKeyEvents(sb);
-        prepareTextEvents(sb);
-        prepareFocusEvents(sb);
-        return sb.toString();
+    protected void prepareEventHandlers(TagMarkupWriter writer) {
+        if ((attributeBits & EVENT_HANDLER_BITS) == 0) { // mostly here, no event handler
+            prepareFocusStates(writer);
+            return;
+        }
+        prepareMouseEvents(writer);
+        prepareKeyEvents(writer);
+        prepareTextEvents(writer);
+        prepareFocusEvents(writer);
     }
 
-    protected void prepareMouseEvents(StringBuilder sb) {
-        prepareAttribute(sb, "onclick", getOnclick());
-        prepareAttribute(sb, "ondblclick", getOndblclick());
-        prepareAttribute(sb, "onmouseover", getOnmouseover());
-        prepareAttribute(sb, "onmouseout", getOnmouseout());
-        prepareAttribute(sb, "onmousemove", getOnmousemove());
-        prepareAttribute(sb, "onmousedown", getOnmousedown());
-        prepareAttribute(sb, "onmouseup", getOnmouseup());
+    protected void prepareMouseEvents(TagMarkupWriter writer) {
+        prepareEventAttributes(writer, MOUSE_EVENT_BITS);
     }
 
-    protected void prepareKeyEvents(StringBuilder sb) {
-        prepareAttribute(sb, "onkeydown", getOnkeydown());
-        prepareAttribute(sb, "onkeyup", getOnkeyup());
-        prepareAttribute(sb, "onkeypress", getOnkeypress());
+    protected void prepareKeyEvents(TagMarkupWriter writer) {
+        prepareEventAttributes(writer, KEY_EVENT_BITS);
     }
 
-    protected void prepareTextEvents(StringBuilder sb) {
-        prepareAttribute(sb, "onselect", getOnselect());
-        prepareAttribute(sb, "onchange", getOnchange());
+    protected void prepareTextEvents(TagMarkupWriter writer) {
+        prepareEventAttributes(writer, TEXT_EVENT_BITS);
     }
 
-    protected void prepareFocusEvents(StringBuilder sb) {
-        prepareAttribute(sb, "onblur", getOnblur());
-        prepareAttribute(sb, "onfocus", getOnfocus());
+    protected void prepareFocusEvents(TagMarkupWriter writer) {
+        prepareEventAttributes(writer, FOCUS_EVENT_BITS);
+        prepareFocusStates(writer);
+    }
+
+    protected void prepareEventAttributes(TagMarkupWriter writer, int eventBits) {
+        int bits = attributeBits & eventBits;
+        while (bits != 0) { // only set attributes in rendering order
+            final int index = Integer.numberOfTrailingZeros(bits);
+            prepareAttribute(writer, EVENT_HANDLER_NAMES[index], getEventHandler(index));
+            bits &= bits - 1; // clear the lowest bit
+        }
+    }
+
+    protected String getEventHandler(int index) { // via getter for overriding
+        switch (index) {
+        case BIT_ONCLICK:
+            return getOnclick();
+        case BIT_ONDBLCLICK:
+            return getOndblclick();
+        case BIT_ONMOUSEOVER:
+            return getOnmouseover();
+        case BIT_ONMOUSEOUT:
+            return getOnmouseout();
+        case BIT_ONMOUSEMOVE:
+            return getOnmousemove();
+        case BIT_ONMOUSEDOWN:
+            return getOnmousedown();
+        case BIT_ONMOUSEUP:
+            return getOnmouseup();
+        case BIT_ONKEYDOWN:
+            return getOnkeydown();
+        case BIT_ONKEYUP:
+            return getOnkeyup();
+        case BIT_ONKEYPRESS:
+            return getOnkeypress();
+        case BIT_ONSELECT:
+            return getOnselect();
+        case BIT_ONCHANGE:
+            return getOnchange();
+        case BIT_ONBLUR:
+            return getOnblur();
+        case BIT_ONFOCUS:
+            return getOnfocus();
+        default:
+            throw new IllegalArgumentException("Unknown index of event handler: " + index);
+        }
+    }
+
+    protected void prepareFocusStates(TagMarkupWriter writer) {
         HtmlFormTag formTag = null;
         if ((doDisabled && !getDisabled()) || (doReadonly && !getReadonly())) {
-            formTag = (HtmlFormTag) pageContext.getAttribute(TaglibAttributeKey.FORM_KEY, PageContext.REQUEST_SCOPE);
+            formTag = getRenderContext().getCurrentForm(); // pushed by form tag, nearest if nested
         }
         if (doDisabled) {
             final boolean formDisabled = formTag == null ? false : formTag.isDisabled();
             if (formDisabled || getDisabled()) {
-                sb.append(" disabled=\"disabled\"");
+                writer.flag("disabled");
             }
         }
         if (doReadonly) {
             final boolean formReadOnly = formTag == null ? false : formTag.isReadonly();
             if (formReadOnly || getReadonly()) {
-                sb.append(" readonly=\"readonly\"");
+                writer.flag("readonly");
             }
         }
     }
 
-    protected void prepareOtherAttributes(StringBuilder sb) {
+    protected void prepareOtherAttributes(TagMarkupWriter writer) {
     }
 
-    protected void prepareAttribute(StringBuilder sb, String name, Object value) {
-        if (value != null) {
-            sb.append(" ").append(name).append("=\"").append(value).append("\"");
-        }
+    protected void prepareAttribute(TagMarkupWriter writer, String name, Object value) {
+        writer.attribute(name, value); // writes nothing if null
     }
 
     // ===================================================================================
@@ -245,7 +331,22 @@ public abstract class BaseTouchableBodyTag extends BaseBodyTag {
         }
     }
 
+    protected String buildIndexedName(String beanName, String property) throws JspException { // e.g. memberList[0].memberName
+        final StringBuilder sb = borrowRenderBuffer();
+        try {
+            prepareIndex(sb, beanName);
+            sb.append(property);
+            return sb.toString();
+        } finally {
+            giveBackRenderBuffer(sb);
+        }
+    }
+
     protected int getIndexValue() throws JspException {
+        final TaglibRowContext rowContext = findRowContext();
+        if (rowContext != null) { // in rows tag
+            return rowContext.getIndex(); // computed once per row
+        }
         final Integer jstlLoopIndex = getJstlLoopIndex();
         if (jstlLoopIndex == null) {
             throw new JspException("Not nested in JSTL loop.");
@@ -254,46 +355,46 @@ public abstract class BaseTouchableBodyTag extends BaseBodyTag {
     }
 
     protected Integer getJstlLoopIndex() {
-        if (!triedJstlInit) {
-            triedJstlInit = true;
-            try {
-                loopTagSupportClass = applicationClass("javax.servlet.jsp.jstl.core.LoopTagSupport");
-                loopTagSupportGetStatus = loopTagSupportClass.getDeclaredMethod("getLoopStatus", (Class<?>[]) null);
-                loopTagStatusClass = applicationClass("javax.servlet.jsp.jstl.core.LoopTagStatus");
-                loopTagStatusGetIndex = loopTagStatusClass.getDeclaredMethod("getIndex", (Class<?>[]) null);
-                triedJstlSuccess = true;
-            } catch (ClassNotFoundException ignored) { // means JSTL not loaded
-            } catch (NoSuchMethodException ignored) {}
+        return TaglibJstlLoopIndexFinder.findLoopIndex(this); // discovered once per class loader
+    }
+
+    // ===================================================================================
+    //                                                                         Row Context
+    //                                                                         ===========
+    /**
+     * Find the context of current row if the tag is nested in rows tag as nearest loop.
+     * @return The context of row pushed by rows tag. (NullAllowed: when not in rows tag)
+     */
+    protected TaglibRowContext findRowContext() {
+        final Object context = pageContext.getAttribute(TaglibAttributeKey.ROW_CONTEXT_KEY);
+        if (context == null) {
+            return null;
         }
-        if (triedJstlSuccess) {
-            try {
-                final Object loopTag = findAncestorWithClass(this, loopTagSupportClass);
-                if (loopTag == null) {
-                    return null;
-                }
-                final Object status = loopTagSupportGetStatus.invoke(loopTag, (Object[]) null);
-                return (Integer) loopTagStatusGetIndex.invoke(status, (Object[]) null);
-            } catch (IllegalAccessException e) {
-                logger.error(e.getMessage(), e);
-            } catch (IllegalArgumentException e) {
-                logger.error(e.getMessage(), e);
-            } catch (InvocationTargetException e) {
-                logger.error(e.getMessage(), e);
-            } catch (NullPointerException e) {
-                logger.error(e.getMessage(), e);
-            } catch (ExceptionInInitializerError e) {
-                logger.error(e.getMessage(), e);
-            }
+        final TaglibRowContext rowContext = (TaglibRowContext) context;
+        return rowContext.isNearestLoopOf(this) ? rowContext : null;
+    }
+
+    @Override
+    protected Object lookupBean(String beanName) throws JspException {
+        final Object row = findIndexedRow(beanName);
+        return row != null ? row : super.lookupBean(beanName);
+    }
+
+    @Override
+    protected Object lookupProperty(String beanName, String property) throws JspException {
+        final Object row = findIndexedRow(beanName);
+        if (row != null) { // no scope search for row bean
+            return getEnhanceLogic().getProperty(row, property, prepareCallerInfo());
         }
-        return null;
+        return super.lookupProperty(beanName, property);
     }
 
-    protected Class<?> applicationClass(String className) throws ClassNotFoundException {
-        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
-        if (classLoader == null) {
-            classLoader = getClass().getClassLoader();
+    protected Object findIndexedRow(String beanName) {
+        if (!indexed || beanName == null) {
+            return null;
         }
-        return classLoader.loadClass(className);
+        final TaglibRowContext rowContext = findRowContext();
+        return rowContext != null && beanName.equals(rowContext.getRowName()) ? rowContext.getRow() : null;
     }
 
     // ===================================================================================
@@ -302,36 +403,82 @@ public abstract class BaseTouchableBodyTag extends BaseBodyTag {
     @Override
     public void release() {
         super.release();
-        accesskey = null;
-        alt = null;
-        altKey = null;
-        errorKey = LastaWebKey.ACTION_ERRORS_KEY;
-        errorStyle = null;
-        errorStyleClass = null;
-        errorStyleId = null;
-        indexed = false;
-        onclick = null;
-        ondblclick = null;
-        onmouseover = null;
-        onmouseout = null;
-        onmousemove = null;
-        onmousedown = null;
-        onmouseup = null;
-        onkeydown = null;
-        onkeyup = null;
-        onkeypress = null;
-        onselect = null;
-        onchange = null;
-        onblur = null;
-        onfocus = null;
-        disabled = false;
-        readonly = false;
-        style = null;
-        styleClass = null;
-        styleId = null;
-        tabindex = null;
-        title = null;
-        titleKey = null;
+        actualName = null;
+        actualNamePrepared = false;
+        sparseValues = null;
+        int bits = attributeBits & ~SPARSE_BITS;
+        while (bits != 0) { // only set attributes
+            resetAttribute(Integer.numberOfTrailingZeros(bits));
+            bits &= bits - 1; // clear the lowest bit
+        }
+        attributeBits = 0;
+    }
+
+    protected void resetAttribute(int index) {
+        switch (index) {
+        case BIT_DISABLED:
+            disabled = false;
+            break;
+        case BIT_READONLY:
+            readonly = false;
+            break;
+        case BIT_ACCESSKEY:
+            accesskey = null;
+            break;
+        case BIT_TABINDEX:
+            tabindex = null;
+            break;
+        case BIT_INDEXED:
+            indexed = false;
+            break;
+        case BIT_STYLE:
+            style = null;
+            break;
+        case BIT_STYLE_CLASS:
+            styleClass = null;
+            break;
+        case BIT_STYLE_ID:
+            styleId = null;
+            break;
+        case BIT_ERROR_KEY:
+            errorKey = LastaWebKey.ACTION_ERRORS_KEY;
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown index of attribute: " + index);
+        }
+    }
+
+    protected void markAttribute(int index) {
+        attributeBits |= 1 << index;
+    }
+
+    // ===================================================================================
+    //                                                                    Sparse Attribute
+    //                                                                    ================
+    protected String getSparseAttribute(int index) {
+        final int bit = 1 << index;
+        if ((attributeBits & bit) == 0) { // mostly here
+            return null;
+        }
+        return sparseValues[Integer.bitCount(attributeBits & SPARSE_BITS & (bit - 1))];
+    }
+
+    protected void setSparseAttribute(int index, String value) {
+        final int bit = 1 << index;
+        final int position = Integer.bitCount(attributeBits & SPARSE_BITS & (bit - 1));
+        if ((attributeBits & bit) != 0) { // basically pooled tag, set again per use
+            sparseValues[position] = value;
+            return;
+        }
+        final int size = Integer.bitCount(attributeBits & SPARSE_BITS);
+        final String[] extended = new String[size + 1]; // only first time of the attribute
+        if (sparseValues != null) {
+            System.arraycopy(sparseValues, 0, extended, 0, position);
+            System.arraycopy(sparseValues, position, extended, position + 1, size - position);
+        }
+        extended[position] = value;
+        sparseValues = extended;
+        markAttribute(index);
     }
 
     // ===================================================================================
@@ -342,6 +489,7 @@ public abstract class BaseTouchableBodyTag extends BaseBodyTag {
     //                                 ---------------------
     public void setAccesskey(String accessKey) {
         this.accesskey = accessKey;
+        markAttribute(BIT_ACCESSKEY);
     }
 
     public String getAccesskey() {
@@ -350,6 +498,7 @@ public abstract class BaseTouchableBodyTag extends BaseBodyTag {
 
     public void setTabindex(String tabIndex) {
         this.tabindex = tabIndex;
+        markAttribute(BIT_TABINDEX);
     }
 
     public String getTabindex() {
@@ -361,6 +510,7 @@ public abstract class BaseTouchableBodyTag extends BaseBodyTag {
     //                          ----------------------------
     public void setIndexed(boolean indexed) {
         this.indexed = indexed;
+        markAttribute(BIT_INDEXED);
     }
 
     public boolean getIndexed() {
@@ -370,129 +520,131 @@ public abstract class BaseTouchableBodyTag extends BaseBodyTag {
     // -----------------------------------------------------
     //                                          Mouse Events
     //                                          ------------
+    // onclick, ondblclick, onmouseover, onmouseout, onmousemove, onmousedown, onmouseup in sparse attributes
     public void setOnclick(String onClick) {
-        this.onclick = onClick;
+        setSparseAttribute(BIT_ONCLICK, onClick);
     }
 
     public String getOnclick() {
-        return onclick;
+        return getSparseAttribute(BIT_ONCLICK);
     }
 
     public void setOndblclick(String onDblClick) {
-        this.ondblclick = onDblClick;
+        setSparseAttribute(BIT_ONDBLCLICK, onDblClick);
     }
 
     public String getOndblclick() {
-        return ondblclick;
+        return getSparseAttribute(BIT_ONDBLCLICK);
     }
 
     public void setOnmousedown(String onMouseDown) {
-        this.onmousedown = onMouseDown;
+        setSparseAttribute(BIT_ONMOUSEDOWN, onMouseDown);
     }
 
     public String getOnmousedown() {
-        return onmousedown;
+        return getSparseAttribute(BIT_ONMOUSEDOWN);
     }
 
     public void setOnmouseup(String onMouseUp) {
-        this.onmouseup = onMouseUp;
+        setSparseAttribute(BIT_ONMOUSEUP, onMouseUp);
     }
 
     public String getOnmouseup() {
-        return onmouseup;
+        return getSparseAttribute(BIT_ONMOUSEUP);
     }
 
     public void setOnmousemove(String onMouseMove) {
-        this.onmousemove = onMouseMove;
+        setSparseAttribute(BIT_ONMOUSEMOVE, onMouseMove);
     }
 
     public String getOnmousemove() {
-        return onmousemove;
+        return getSparseAttribute(BIT_ONMOUSEMOVE);
     }
 
     public void setOnmouseover(String onMouseOver) {
-        this.onmouseover = onMouseOver;
+        setSparseAttribute(BIT_ONMOUSEOVER, onMouseOver);
     }
 
     public String getOnmouseover() {
-        return onmouseover;
+        return getSparseAttribute(BIT_ONMOUSEOVER);
     }
 
     public void setOnmouseout(String onMouseOut) {
-        this.onmouseout = onMouseOut;
+        setSparseAttribute(BIT_ONMOUSEOUT, onMouseOut);
     }
 
     public String getOnmouseout() {
-        return onmouseout;
+        return getSparseAttribute(BIT_ONMOUSEOUT);
     }
 
     // -----------------------------------------------------
     //                                       Keyboard Events
     //                                       ---------------
     public void setOnkeydown(String onKeyDown) {
-        this.onkeydown = onKeyDown;
+        setSparseAttribute(BIT_ONKEYDOWN, onKeyDown);
     }
 
     public String getOnkeydown() {
-        return onkeydown;
+        return getSparseAttribute(BIT_ONKEYDOWN);
     }
 
     public void setOnkeyup(String onKeyUp) {
-        this.onkeyup = onKeyUp;
+        setSparseAttribute(BIT_ONKEYUP, onKeyUp);
     }
 
     public String getOnkeyup() {
-        return onkeyup;
+        return getSparseAttribute(BIT_ONKEYUP);
     }
 
     public void setOnkeypress(String onKeyPress) {
-        this.onkeypress = onKeyPress;
+        setSparseAttribute(BIT_ONKEYPRESS, onKeyPress);
     }
 
     public String getOnkeypress() {
-        return onkeypress;
+        return getSparseAttribute(BIT_ONKEYPRESS);
     }
 
     // -----------------------------------------------------
     //                                           Text Events
     //                                           -----------
     public void setOnchange(String onChange) {
-        this.onchange = onChange;
+        setSparseAttribute(BIT_ONCHANGE, onChange);
     }
 
     public String getOnchange() {
-        return onchange;
+        return getSparseAttribute(BIT_ONCHANGE);
     }
 
     public void setOnselect(String onSelect) {
-        this.onselect = onSelect;
+        setSparseAttribute(BIT_ONSELECT, onSelect);
     }
 
     public String getOnselect() {
-        return onselect;
+        return getSparseAttribute(BIT_ONSELECT);
     }
 
     // -----------------------------------------------------
     //                               Focus Events and States
     //                               -----------------------
     public void setOnblur(String onBlur) {
-        this.onblur = onBlur;
+        setSparseAttribute(BIT_ONBLUR, onBlur);
     }
 
     public String getOnblur() {
-        return onblur;
+        return getSparseAttribute(BIT_ONBLUR);
     }
 
     public void setOnfocus(String onFocus) {
-        this.onfocus = onFocus;
+        setSparseAttribute(BIT_ONFOCUS, onFocus);
     }
 
     public String getOnfocus() {
-        return onfocus;
+        return getSparseAttribute(BIT_ONFOCUS);
     }
 
     public void setDisabled(boolean disabled) {
         this.disabled = disabled;
+        markAttribute(BIT_DISABLED);
     }
 
     public boolean getDisabled() {
@@ -501,6 +653,7 @@ public abstract class BaseTouchableBodyTag extends BaseBodyTag {
 
     public void setReadonly(boolean readonly) {
         this.readonly = readonly;
+        markAttribute(BIT_READONLY);
     }
 
     public boolean getReadonly() {
@@ -512,6 +665,7 @@ public abstract class BaseTouchableBodyTag extends BaseBodyTag {
     //                                     -----------------
     public void setStyle(String style) {
         this.style = style;
+        markAttribute(BIT_STYLE);
     }
 
     public String getStyle() {
@@ -520,6 +674,7 @@ public abstract class BaseTouchableBodyTag extends BaseBodyTag {
 
     public void setStyleClass(String styleClass) {
         this.styleClass = styleClass;
+        markAttribute(BIT_STYLE_CLASS);
     }
 
     public String getStyleClass() {
@@ -528,6 +683,7 @@ public abstract class BaseTouchableBodyTag extends BaseBodyTag {
 
     public void setStyleId(String styleId) {
         this.styleId = styleId;
+        markAttribute(BIT_STYLE_ID);
     }
 
     public String getStyleId() {
@@ -540,64 +696,65 @@ public abstract class BaseTouchableBodyTag extends BaseBodyTag {
 
     public void setErrorKey(String errorKey) {
         this.errorKey = errorKey;
+        markAttribute(BIT_ERROR_KEY);
     }
 
     public String getErrorStyle() {
-        return errorStyle;
+        return getSparseAttribute(BIT_ERROR_STYLE);
     }
 
     public void setErrorStyle(String errorStyle) {
-        this.errorStyle = errorStyle;
+        setSparseAttribute(BIT_ERROR_STYLE, errorStyle);
     }
 
     public String getErrorStyleClass() {
-        return errorStyleClass;
+        return getSparseAttribute(BIT_ERROR_STYLE_CLASS);
     }
 
     public void setErrorStyleClass(String errorStyleClass) {
-        this.errorStyleClass = errorStyleClass;
+        setSparseAttribute(BIT_ERROR_STYLE_CLASS, errorStyleClass);
     }
 
     public String getErrorStyleId() {
-        return errorStyleId;
+        return getSparseAttribute(BIT_ERROR_STYLE_ID);
     }
 
     public void setErrorStyleId(String errorStyleId) {
-        this.errorStyleId = errorStyleId;
+        setSparseAttribute(BIT_ERROR_STYLE_ID, errorStyleId);
     }
 
     // -----------------------------------------------------
     //                               Other Common Attributes
     //                               -----------------------
     public String getAlt() {
-        return alt;
+        return getSparseAttribute(BIT_ALT);
     }
 
     public void setAlt(String alt) {
-        this.alt = alt;
+        setSparseAttribute(BIT_ALT, alt);
     }
 
     public String getAltKey() {
-        return altKey;
+        return getSparseAttribute(BIT_ALT_KEY);
     }
 
     public void setAltKey(String altKey) {
-        this.altKey = altKey;
+        setSparseAttribute(BIT_ALT_KEY, altKey);
     }
 
     public String getTitle() {
-        return title;
+        return getSparseAttribute(BIT_TITLE);
     }
 
     public void setTitle(String title) {
-        this.title = title;
+        setSparseAttribute(BIT_TITLE, title);
     }
 
     public String getTitleKey() {
-        return titleKey;
+        return getSparseAttribute(BIT_TITLE_KEY);
     }
 
     public void setTitleKey(String titleKey) {
-        this.titleKey = titleKey;
+        setSparseAttribute(BIT_TITLE_KEY, titleKey);
     }
 }
@@ -42,35 +42,37 @@ public abstract class BaseTouchableFieldTag extends BaseTouchableInputTag {
     }
 
     @Override
-    protected void prepareBasicInputAttribute(StringBuilder results) throws JspException {
-        prepareAttribute(results, "type", type);
-        prepareAttribute(results, "name", prepareName());
-        prepareAttribute(results, "accesskey", getAccesskey());
-        prepareAttribute(results, "accept", getAccept());
-        prepareAttribute(results, "maxlength", getMaxlength());
-        prepareAttribute(results, "size", getSize());
-        prepareAttribute(results, "tabindex", getTabindex());
-        prepareValue(results);
+    protected void prepareBasicInputAttribute(TagMarkupWriter writer) throws JspException {
+        prepareAttribute(writer, "type", type);
+        prepareNameAttribute(writer);
+        prepareAttribute(writer, "accesskey", getAccesskey());
+        prepareAttribute(writer, "accept", getAccept());
+        prepareAttribute(writer, "maxlength", getMaxlength());
+        prepareAttribute(writer, "size", getSize());
+        prepareAttribute(writer, "tabindex", getTabindex());
+        prepareValue(writer);
     }
 
-    protected void prepareValue(StringBuilder results) throws JspException {
-        results.append(" value=\"");
+    protected void prepareValue(TagMarkupWriter writer) throws JspException {
+        writer.append(" value=\"");
         if (value != null) {
-            results.append(formatValue(value));
+            writeValue(writer, value);
         } else if (redisplay || !"password".equals(type)) {
             // #later textTag redisplay catch and throw good error message
-            results.append(formatValue(lookupProperty(name, property)));
+            writeValue(writer, lookupProperty(name, property));
         }
-        results.append('"');
+        writer.append('"');
     }
 
-    protected String formatValue(Object value) throws JspException {
-        return value != null ? getEnhanceLogic().filter(value.toString()) : "";
+    protected void writeValue(TagMarkupWriter writer, Object value) throws JspException {
+        if (value != null) { // escaped directly into the writer
+            getEnhanceLogic().escapeTo(writer.getOut(), value.toString());
+        }
     }
 
     @Override
-    protected void prepareClosingInputAttribute(StringBuilder results) throws JspException {
-        results.append(">"); // HTML5 style
+    protected void prepareClosingInputAttribute(TagMarkupWriter writer) throws JspException {
+        writer.append('>'); // HTML5 style
     }
 
     // ===================================================================================
@@ -15,8 +15,6 @@
  */
 package org.lastaflute.taglib.base;
 
-import java.util.function.Supplier;
-
 import javax.servlet.jsp.JspException;
 
 /**
@@ -42,33 +40,31 @@ public abstract class BaseTouchableInputTag extends BaseTouchableBodyTag {
     //                                                                           =========
     @Override
     public int doStartTag() throws JspException {
-        write(renderInputElement());
+        renderInputElement(createMarkupWriter());
         return EVAL_BODY_BUFFERED;
     }
 
-    protected String renderInputElement() throws JspException {
-        final StringBuilder sb = new StringBuilder();
-        sb.append("<").append(getTagName());
-        prepareBasicInputAttribute(sb);
-        sb.append(prepareEventHandlers());
-        sb.append(prepareStyles());
-        prepareHtml5Attribute(sb);
-        prepareOtherAttributes(sb);
-        prepareDynamicAttributes(sb);
-        prepareClosingInputAttribute(sb);
-        return sb.toString();
+    protected void renderInputElement(TagMarkupWriter writer) throws JspException {
+        writer.append('<').append(getTagName());
+        prepareBasicInputAttribute(writer);
+        prepareEventHandlers(writer);
+        prepareStyles(writer);
+        prepareHtml5Attribute(writer);
+        prepareOtherAttributes(writer);
+        prepareDynamicAttributes(writer);
+        prepareClosingInputAttribute(writer);
     }
 
     protected abstract String getTagName() throws JspException;
 
-    protected abstract void prepareBasicInputAttribute(StringBuilder sb) throws JspException;
+    protected abstract void prepareBasicInputAttribute(TagMarkupWriter writer) throws JspException;
 
-    protected void prepareHtml5Attribute(StringBuilder results) {
-        prepareAttribute(results, "placeholder", resolvePlaceholderResource(getPlaceholder()));
-        prepareAttribute(results, "autocomplete", resolveAutocompleteResource(getAutocomplete()));
+    protected void prepareHtml5Attribute(TagMarkupWriter writer) {
+        prepareAttribute(writer, "placeholder", resolvePlaceholderResource(getPlaceholder()));
+        prepareAttribute(writer, "autocomplete", resolveAutocompleteResource(getAutocomplete()));
     }
 
-    protected abstract void prepareClosingInputAttribute(StringBuilder sb) throws JspException;
+    protected abstract void prepareClosingInputAttribute(TagMarkupWriter writer) throws JspException;
 
     // ===================================================================================
     //                                                                             End Tag
@@ -87,10 +83,7 @@ public abstract class BaseTouchableInputTag extends BaseTouchableBodyTag {
             return null;
         }
         if (indexed) {
-            final StringBuilder results = new StringBuilder();
-            prepareIndex(results, name);
-            results.append(property);
-            return results.toString();
+            return buildIndexedName(name, property);
         }
         return property;
     }
@@ -114,19 +107,11 @@ public abstract class BaseTouchableInputTag extends BaseTouchableBodyTag {
     //                                                                             Enhance
     //                                                                             =======
     protected String resolvePlaceholderResource(String placeholder) {
-        return getEnhanceLogic().resolveLabelResource(pageContext, placeholder, new Supplier<Object>() {
-            public Object get() {
-                return buildErrorIdentity();
-            }
-        });
+        return getEnhanceLogic().resolveLabelResource(pageContext, placeholder, prepareCallerInfo());
     }
 
     protected String resolveAutocompleteResource(String label) {
-        return getEnhanceLogic().resolveAutocompleteResource(pageContext, label, new Supplier<Object>() {
-            public Object get() {
-                return buildErrorIdentity();
-            }
-        });
+        return getEnhanceLogic().resolveAutocompleteResource(pageContext, label, prepareCallerInfo());
     }
 
     // ===================================================================================
@@ -135,11 +120,7 @@ public abstract class BaseTouchableInputTag extends BaseTouchableBodyTag {
     @Override
     public void setTitle(String title) { // for label use
         final TaglibEnhanceLogic tablibLogic = getEnhanceLogic();
-        super.setTitle(tablibLogic.resolveLabelResource(pageContext, title, new Supplier<Object>() {
-            public Object get() {
-                return buildErrorIdentity();
-            }
-        }));
+        super.setTitle(tablibLogic.resolveLabelResource(pageContext, title, prepareCallerInfo()));
     }
 
     // ===================================================================================
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+/**
+ * The insertion-ordered store of dynamic attributes by parallel arrays, e.g. data-*, aria-*. <br>
+ * It is owned by (pooled) tag instance and cleared after rendering, so the arrays are reused across renders.
+ * The same key is overridden by the last value (keeping the first position).
+ * @author jflute
+ */
+public class DynamicTagAttributes {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    protected static final int DEFAULT_CAPACITY = 8; // covers most data-* and aria-* attributes of one element
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected String[] keys = new String[DEFAULT_CAPACITY];
+    protected String[] values = new String[DEFAULT_CAPACITY]; // element null means bare attribute
+    protected int size;
+
+    // ===================================================================================
+    //                                                                                 Put
+    //                                                                                 ===
+    /**
+     * @param key The key of attribute, e.g. data-sea. (NotNull)
+     * @param value The value of attribute. (NullAllowed: written as bare attribute)
+     */
+    public void put(String key, String value) {
+        for (int i = 0; i < size; i++) { // linear search is enough for a few attributes
+            if (keys[i].equals(key)) {
+                values[i] = value; // last wins
+                return;
+            }
+        }
+        if (size == keys.length) {
+            grow();
+        }
+        keys[size] = key;
+        values[size] = value;
+        ++size;
+    }
+
+    protected void grow() {
+        final int newCapacity = keys.length * 2;
+        final String[] newKeys = new String[newCapacity];
+        final String[] newValues = new String[newCapacity];
+        System.arraycopy(keys, 0, newKeys, 0, size);
+        System.arraycopy(values, 0, newValues, 0, size);
+        keys = newKeys;
+        values = newValues;
+    }
+
+    // ===================================================================================
+    //                                                                               Clear
+    //                                                                               =====
+    public void clear() {
+        for (int i = 0; i < size; i++) { // not to hold values after rendering
+            keys[i] = null;
+            values[i] = null;
+        }
+        size = 0;
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("dynamicAttributes:{");
+        for (int i = 0; i < size; i++) {
+            sb.append(i > 0 ? ", " : "").append(keys[i]).append("=").append(values[i]);
+        }
+        return sb.append("}").toString();
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getKey(int index) {
+        return keys[index];
+    }
+
+    public String getValue(int index) {
+        return values[index];
+    }
+}
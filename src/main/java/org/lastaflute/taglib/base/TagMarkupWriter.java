@@ -0,0 +1,202 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+import java.io.IOException;
+
+/**
+ * The writer of tag markup, which streams element parts into the destination directly. <br>
+ * The destination is basically JSP writer of page context so no intermediate string is created,
+ * and you can also use string builder as destination when you need the expression as string.
+ * <pre>
+ * writer.append("&lt;input").attribute("name", name).attribute("value", value).append('&gt;');
+ * </pre>
+ * @author jflute
+ */
+public class TagMarkupWriter {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    /** The destination of markup, e.g. JSP writer, string builder. (NotNull) */
+    protected final Appendable out;
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param out The destination of markup, e.g. JSP writer, string builder. (NotNull)
+     */
+    public TagMarkupWriter(Appendable out) {
+        if (out == null) {
+            throw new IllegalArgumentException("The argument 'out' should not be null.");
+        }
+        this.out = out;
+    }
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    /**
+     * Write the attribute as ' name="value"' if the value exists. <br>
+     * The value is written as plain so escape it before calling if it needs.
+     * @param name The name of attribute. (NotNull)
+     * @param value The value of attribute. (NullAllowed: if null, writes nothing)
+     * @return this. (NotNull)
+     */
+    public TagMarkupWriter attribute(String name, Object value) {
+        if (value != null) {
+            doAppend(' ');
+            doAppend(name);
+            doAppend("=\"");
+            doAppend(value instanceof String ? (String) value : value.toString());
+            doAppend('"');
+        }
+        return this;
+    }
+
+    /**
+     * Write the attribute as ' name="value"' escaping only inner double quotations to &amp;quot; while writing. <br>
+     * Other characters are written as plain, e.g. for dynamic attributes written by JSP.
+     * @param name The name of attribute. (NotNull)
+     * @param value The value of attribute. (NullAllowed: if null, writes nothing)
+     * @return this. (NotNull)
+     */
+    public TagMarkupWriter attributeEscapingQuote(String name, String value) {
+        if (value != null) {
+            doAppend(' ');
+            doAppend(name);
+            doAppend("=\"");
+            int start = 0;
+            final int length = value.length();
+            for (int i = 0; i < length; i++) {
+                if (value.charAt(i) == '"') {
+                    doAppend(value, start, i);
+                    doAppend("&quot;");
+                    start = i + 1;
+                }
+            }
+            doAppend(value, start, length);
+            doAppend('"');
+        }
+        return this;
+    }
+
+    /**
+     * Write the boolean attribute as ' name="name"', e.g. disabled="disabled".
+     * @param name The name of attribute. (NotNull)
+     * @return this. (NotNull)
+     */
+    public TagMarkupWriter flag(String name) {
+        doAppend(' ');
+        doAppend(name);
+        doAppend("=\"");
+        doAppend(name);
+        doAppend('"');
+        return this;
+    }
+
+    /**
+     * Write the attribute that has no value as ' name', e.g. required.
+     * @param name The name of attribute. (NotNull)
+     * @return this. (NotNull)
+     */
+    public TagMarkupWriter bareAttribute(String name) {
+        doAppend(' ');
+        doAppend(name);
+        return this;
+    }
+
+    // ===================================================================================
+    //                                                                              Append
+    //                                                                              ======
+    /**
+     * @param text The plain text written as it is. (NullAllowed: if null, writes nothing)
+     * @return this. (NotNull)
+     */
+    public TagMarkupWriter append(String text) {
+        if (text != null) {
+            doAppend(text);
+        }
+        return this;
+    }
+
+    /**
+     * @param ch The plain character written as it is.
+     * @return this. (NotNull)
+     */
+    public TagMarkupWriter append(char ch) {
+        doAppend(ch);
+        return this;
+    }
+
+    /**
+     * @param value The plain value written as string. (NullAllowed: if null, writes nothing)
+     * @return this. (NotNull)
+     */
+    public TagMarkupWriter append(Object value) {
+        if (value != null) {
+            doAppend(value.toString());
+        }
+        return this;
+    }
+
+    protected void doAppend(CharSequence text) {
+        try {
+            out.append(text);
+        } catch (IOException e) {
+            throwMarkupWriteFailureException(text, e);
+        }
+    }
+
+    protected void doAppend(CharSequence text, int start, int end) {
+        if (start < end) {
+            try {
+                out.append(text, start, end);
+            } catch (IOException e) {
+                throwMarkupWriteFailureException(text, e);
+            }
+        }
+    }
+
+    protected void doAppend(char ch) {
+        try {
+            out.append(ch);
+        } catch (IOException e) {
+            throwMarkupWriteFailureException(String.valueOf(ch), e);
+        }
+    }
+
+    protected void throwMarkupWriteFailureException(CharSequence text, IOException cause) {
+        String msg = "Failed to print the text by the writer: writer=" + out + " text=" + text;
+        throw new IllegalStateException(msg, cause);
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public Appendable getOut() {
+        return out;
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "markupWriter:{" + out + "}";
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.lastaflute.core.smartdeploy.ManagedHotdeploy;
+import org.lastaflute.web.path.ActionFoundPathHandler;
+import org.lastaflute.web.path.ActionPathResolver;
+import org.lastaflute.web.path.MappingPathResource;
+import org.lastaflute.web.path.RoutingParamPath;
+import org.lastaflute.web.ruts.config.ActionExecute;
+
+/**
+ * The cache of action path resolution for link and form tags. <br>
+ * Action paths, e.g. /member/list/, are resolved to action mappings once,
+ * and JSP paths are calculated to action paths once. <br>
+ * Action mappings are reloaded only by hot deploy (with new resolver),
+ * so the cache is switched to new one when hot deploy count or resolver instance is changed.
+ * The maps are held with the resolver and hot deploy count as one generation,
+ * so a thread still resolving by old resolver puts its result into the old generation (discarded).
+ * @author jflute
+ */
+public class TaglibActionPathCache {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    /** The default limit of cached paths for each map. */
+    public static final int DEFAULT_PATH_LIMIT = 1024;
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    /** The limit of cached paths for each map, over-limit path is resolved every time. */
+    protected final int pathLimit;
+
+    /** The current generation of cached paths, switched when reloaded. (NotNull) */
+    protected volatile CachedPathGeneration generation = new CachedPathGeneration(null, 0);
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public TaglibActionPathCache() {
+        this(DEFAULT_PATH_LIMIT);
+    }
+
+    public TaglibActionPathCache(int pathLimit) {
+        this.pathLimit = pathLimit;
+    }
+
+    // ===================================================================================
+    //                                                                 Resolve Action Path
+    //                                                                 ===================
+    /**
+     * Resolve the action path to action mapping, caching the result.
+     * @param resolver The resolver of action path for the current request. (NotNull)
+     * @param path The action path without query string, e.g. /member/list/ (NotNull)
+     * @return The resolved action path, which may be not-handled. (NotNull)
+     * @throws Exception When the resolver fails.
+     */
+    public ResolvedActionPath resolveActionPath(ActionPathResolver resolver, String path) throws Exception {
+        final ConcurrentHashMap<String, ResolvedActionPath> actionPathMap = prepareGeneration(resolver).actionPathMap;
+        ResolvedActionPath resolved = actionPathMap.get(path);
+        if (resolved == null) {
+            resolved = doResolveActionPath(resolver, path);
+            if (isCacheableResolved(resolved) && actionPathMap.size() < pathLimit) {
+                actionPathMap.put(path, resolved);
+            }
+        }
+        return resolved;
+    }
+
+    protected boolean isCacheableResolved(ResolvedActionPath resolved) {
+        // path with routing parameters (e.g. /member/edit/1001/) is unbounded by IDs, so not cached
+        // or the cache is filled by them and common paths are never cached
+        final RoutingParamPath paramPath = resolved.getParamPath();
+        return paramPath == null || paramPath.isEmpty();
+    }
+
+    protected ResolvedActionPath doResolveActionPath(ActionPathResolver resolver, String path) throws Exception {
+        final ResolvedActionPath[] found = new ResolvedActionPath[1];
+        final boolean handled = resolver.handleActionPath(path, new ActionFoundPathHandler() {
+            public boolean handleActionPath(MappingPathResource pathResource, String actionName, RoutingParamPath paramPath,
+                    ActionExecute execute) {
+                found[0] = new ResolvedActionPath(true, actionName, paramPath, execute);
+                return true;
+            }
+        }).isPathHandled(); // not lambda for Jetty6
+        return handled && found[0] != null ? found[0] : new ResolvedActionPath(false, null, null, null);
+    }
+
+    // ===================================================================================
+    //                                                                    Calculate by JSP
+    //                                                                    ================
+    /**
+     * Calculate the action path by the JSP path, caching the result.
+     * @param resolver The resolver of action path for the current request. (NotNull)
+     * @param jspPath The path of requested JSP, e.g. /member/member_list.jsp (NotNull)
+     * @return The calculated action path. (NullAllowed: depends on resolver)
+     */
+    public String calculateActionPathByJspPath(ActionPathResolver resolver, String jspPath) {
+        final ConcurrentHashMap<String, String> jspActionPathMap = prepareGeneration(resolver).jspActionPathMap;
+        String actionPath = jspActionPathMap.get(jspPath);
+        if (actionPath == null) {
+            actionPath = resolver.calculateActionPathByJspPath(jspPath);
+            if (actionPath != null && jspActionPathMap.size() < pathLimit) {
+                jspActionPathMap.put(jspPath, actionPath);
+            }
+        }
+        return actionPath;
+    }
+
+    // ===================================================================================
+    //                                                                         Clear Cache
+    //                                                                         ===========
+    protected CachedPathGeneration prepareGeneration(ActionPathResolver resolver) {
+        final int currentCount = ManagedHotdeploy.isHotdeploy() ? ManagedHotdeploy.getHotdeployCount() : 0;
+        final CachedPathGeneration current = generation;
+        if (current.resolver == resolver && current.hotdeployCount == currentCount) { // mostly here
+            return current;
+        }
+        final CachedPathGeneration switched = new CachedPathGeneration(resolver, currentCount); // first time or reloaded
+        generation = switched; // last one wins if concurrent, each resolves by its own resolver
+        return switched;
+    }
+
+    /**
+     * Clear all cached paths, e.g. when action mappings are reloaded.
+     */
+    public void clear() {
+        final CachedPathGeneration current = generation;
+        generation = new CachedPathGeneration(current.resolver, current.hotdeployCount);
+    }
+
+    // ===================================================================================
+    //                                                              Cached Path Generation
+    //                                                              ======================
+    /**
+     * The maps of cached paths for one resolver and hot deploy count. (maps are thread-safe)
+     * @author jflute
+     */
+    protected static class CachedPathGeneration {
+
+        protected final ActionPathResolver resolver; // null allowed: before first resolution
+        protected final int hotdeployCount;
+        protected final ConcurrentHashMap<String, ResolvedActionPath> actionPathMap = new ConcurrentHashMap<String, ResolvedActionPath>();
+        protected final ConcurrentHashMap<String, String> jspActionPathMap = new ConcurrentHashMap<String, String>();
+
+        public CachedPathGeneration(ActionPathResolver resolver, int hotdeployCount) {
+            this.resolver = resolver;
+            this.hotdeployCount = hotdeployCount;
+        }
+    }
+
+    // ===================================================================================
+    //                                                                Resolved Action Path
+    //                                                                ====================
+    /**
+     * The result of action path resolution, which is immutable.
+     * @author jflute
+     */
+    public static class ResolvedActionPath {
+
+        protected final boolean handled;
+        protected final String actionName; // null allowed: when not handled
+        protected final RoutingParamPath paramPath; // null allowed: when not handled
+        protected final ActionExecute execute; // null allowed: when not handled or no execute by param
+
+        public ResolvedActionPath(boolean handled, String actionName, RoutingParamPath paramPath, ActionExecute execute) {
+            this.handled = handled;
+            this.actionName = actionName;
+            this.paramPath = paramPath;
+            this.execute = execute;
+        }
+
+        public boolean isHandled() {
+            return handled;
+        }
+
+        public String getActionName() {
+            return actionName;
+        }
+
+        public RoutingParamPath getParamPath() {
+            return paramPath;
+        }
+
+        public ActionExecute getExecute() {
+            return execute;
+        }
+
+        @Override
+        public String toString() {
+            return "resolvedActionPath:{" + handled + ", " + actionName + ", " + paramPath + "}";
+        }
+    }
+}
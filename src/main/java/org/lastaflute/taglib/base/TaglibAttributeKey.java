@@ -25,4 +25,8 @@ public interface TaglibAttributeKey {
     String BEAN_KEY = Package + ".Bean";
 
     String FORM_KEY = Package + ".Form";
+
+    String RENDER_CONTEXT_KEY = Package + ".RenderContext";
+
+    String ROW_CONTEXT_KEY = Package + ".RowContext";
 }
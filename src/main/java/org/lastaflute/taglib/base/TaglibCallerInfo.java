@@ -0,0 +1,30 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+/**
+ * The provider of caller identity for error message, implemented by tags themselves. <br>
+ * Tags pass themselves to the enhance logic so no object is created when no error.
+ * @author jflute
+ */
+public interface TaglibCallerInfo {
+
+    /**
+     * Build the identity of the caller, called only when an error is thrown.
+     * @return The display of caller for exception message, e.g. property=seaName tag=...HtmlTextTag (NotNull)
+     */
+    Object buildCallerIdentity();
+}
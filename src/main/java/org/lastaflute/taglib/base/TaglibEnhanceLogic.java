@@ -18,13 +18,17 @@ package org.lastaflute.taglib.base;
 import java.io.IOException;
 import java.lang.reflect.Array;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.Supplier;
+import java.util.concurrent.ConcurrentHashMap;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.servlet.jsp.JspException;
 import javax.servlet.jsp.JspWriter;
 import javax.servlet.jsp.PageContext;
@@ -36,7 +40,6 @@ import org.dbflute.jdbc.ClassificationMeta;
 import org.dbflute.optional.OptionalThing;
 import org.dbflute.optional.OptionalThingFunction;
 import org.dbflute.util.DfStringUtil;
-import org.dbflute.util.Srl;
 import org.lastaflute.core.direction.FwAssistantDirector;
 import org.lastaflute.core.message.MessageManager;
 import org.lastaflute.core.message.UserMessage;
@@ -45,9 +48,9 @@ import org.lastaflute.core.message.exception.MessageKeyNotFoundException;
 import org.lastaflute.core.util.ContainerUtil;
 import org.lastaflute.db.dbflute.classification.ListedClassificationProvider;
 import org.lastaflute.db.dbflute.exception.ProvidedClassificationNotFoundException;
-import org.lastaflute.di.helper.beans.BeanDesc;
-import org.lastaflute.di.helper.beans.PropertyDesc;
-import org.lastaflute.di.helper.beans.factory.BeanDescFactory;
+import org.lastaflute.taglib.base.TaglibActionPathCache.ResolvedActionPath;
+import org.lastaflute.taglib.base.TaglibPropertyAccessorCache.PropertyAccessor;
+import org.lastaflute.taglib.base.TaglibPropertyPath.PathSegment;
 import org.lastaflute.taglib.exception.TaglibAutocompleteInvalidValueException;
 import org.lastaflute.taglib.exception.TaglibBeanPropertyNotFoundException;
 import org.lastaflute.taglib.exception.TaglibClassificationNotFoundException;
@@ -55,7 +58,10 @@ import org.lastaflute.taglib.exception.TaglibFormBeanNotFoundException;
 import org.lastaflute.taglib.exception.TaglibLabelsResourceNotFoundException;
 import org.lastaflute.taglib.exception.TaglibMessagesResourceNotFoundException;
 import org.lastaflute.taglib.function.LaFunctions;
+import org.lastaflute.taglib.function.LaHtmlEscaper;
+import org.lastaflute.taglib.function.LaUrlBuilder;
 import org.lastaflute.web.exception.FormPropertyNotFoundException;
+import org.lastaflute.web.path.ActionPathResolver;
 import org.lastaflute.web.ruts.VirtualForm;
 import org.lastaflute.web.ruts.message.objective.ObjectiveMessageResources;
 import org.lastaflute.web.servlet.request.RequestManager;
@@ -84,9 +90,45 @@ public class TaglibEnhanceLogic {
     /** The key prefix for messages of message resources, which contains dot at last. */
     protected static final String MESSAGES_KEY_PREFIX = ObjectiveMessageResources.MESSAGES_KEY_PREFIX;
 
+    /** The begin mark of labels in property of user messages, e.g. {labels.memberName} */
+    protected static final String LABELS_BEGIN_MARK = "{" + LABELS_KEY_PREFIX;
+
+    /** The end mark of labels in property of user messages. */
+    protected static final String LABELS_END_MARK = "}";
+
+    /** The limit of cached property paths, over-limit path is parsed every time. */
+    protected static final int PROPERTY_PATH_CACHE_LIMIT = 1024;
+
     /** The empty string array for empty result. (NotNull) */
     protected static final String[] EMPTY_STRING_ARRAY = new String[] {};
 
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    /** The cache of compiled accessors for bean properties. (NotNull) */
+    protected final TaglibPropertyAccessorCache propertyAccessorCache = createPropertyAccessorCache();
+
+    /** The cache of parsed property paths, keyed by expression. (NotNull) */
+    protected final Map<String, TaglibPropertyPath> propertyPathCache = new ConcurrentHashMap<String, TaglibPropertyPath>();
+
+    /** The escaper of HTML special characters for tag values. (NotNull) */
+    protected final LaHtmlEscaper htmlEscaper = createHtmlEscaper();
+
+    /** The cache of resolved label resources keyed by raw (composite) key per locale. (NotNull) */
+    protected final TaglibResourceCache<String> labelResourceCache = createLabelResourceCache();
+
+    /** The cache of compiled message templates per locale. (NotNull) */
+    protected final TaglibResourceCache<TaglibMessageTemplate> messageTemplateCache = createMessageTemplateCache();
+
+    /** The cache of action path resolution for link and form tags. (NotNull) */
+    protected final TaglibActionPathCache actionPathCache = createActionPathCache();
+
+    /** The cache of rendered fragments for cache tag, shared in the application. (NotNull) */
+    protected final TaglibFragmentCache fragmentCache = createFragmentCache();
+
+    /** Is compact output of tag-emitted markup enabled? (opt-in, false as default) */
+    protected volatile boolean compactOutput;
+
     // ===================================================================================
     //                                                                         Constructor
     //                                                                         ===========
@@ -97,6 +139,30 @@ public class TaglibEnhanceLogic {
         return instance;
     }
 
+    protected TaglibPropertyAccessorCache createPropertyAccessorCache() {
+        return new TaglibPropertyAccessorCache();
+    }
+
+    protected LaHtmlEscaper createHtmlEscaper() {
+        return LaHtmlEscaper.TAGLIB;
+    }
+
+    protected TaglibResourceCache<String> createLabelResourceCache() {
+        return new TaglibResourceCache<String>();
+    }
+
+    protected TaglibResourceCache<TaglibMessageTemplate> createMessageTemplateCache() {
+        return new TaglibResourceCache<TaglibMessageTemplate>();
+    }
+
+    protected TaglibActionPathCache createActionPathCache() {
+        return new TaglibActionPathCache();
+    }
+
+    protected TaglibFragmentCache createFragmentCache() {
+        return new TaglibFragmentCache();
+    }
+
     // ===================================================================================
     //                                                                         Basic Logic
     //                                                                         ===========
@@ -105,40 +171,21 @@ public class TaglibEnhanceLogic {
     }
 
     public String filter(String value) {
-        if (value == null || value.length() == 0) {
-            return value;
-        }
-        StringBuilder sb = null;
-        String filtered = null;
-        for (int i = 0; i < value.length(); i++) {
-            filtered = null;
-            switch (value.charAt(i)) {
-            case '<':
-                filtered = "&lt;";
-                break;
-            case '>':
-                filtered = "&gt;";
-                break;
-            case '&':
-                filtered = "&amp;";
-                break;
-            case '"':
-                filtered = "&quot;";
-                break;
-            case '\'':
-                filtered = "&#39;";
-                break;
-            }
-            if (sb == null) {
-                if (filtered != null) {
-                    sb = new StringBuilder(value.length() + 50);
-                    sb.append(i > 0 ? value.substring(0, i) : "").append(filtered);
-                }
-            } else {
-                sb.append(filtered != null ? filtered : value.charAt(i));
-            }
+        return htmlEscaper.escape(value); // returns the value as it is if no special character
+    }
+
+    /**
+     * Escape the text as filter() does, writing directly into the destination without escaped string.
+     * @param out The destination of escaped text, e.g. JSP writer, string builder. (NotNull)
+     * @param text The text to be escaped. (NullAllowed: if null, writes nothing)
+     */
+    public void escapeTo(Appendable out, CharSequence text) {
+        try {
+            htmlEscaper.escapeTo(out, text);
+        } catch (IOException e) {
+            String msg = "Failed to write the escaped text by the writer: writer=" + out;
+            throw new IllegalStateException(msg, e);
         }
-        return sb != null ? sb.toString() : value;
     }
 
     // ===================================================================================
@@ -147,7 +194,7 @@ public class TaglibEnhanceLogic {
     // -----------------------------------------------------
     //                                  Lookup Bean/Property
     //                                  --------------------
-    public Object lookupBean(PageContext pageContext, String beanName, String scope, Supplier<Object> callerInfo) throws JspException {
+    public Object lookupBean(PageContext pageContext, String beanName, String scope, TaglibCallerInfo callerInfo) throws JspException {
         final Object bean = scope != null ? pageContext.getAttribute(beanName, getScope(scope)) : pageContext.findAttribute(beanName);
         if (bean == null) { // e.g. input tag is defined out of form tag
             throwTaglibFormTagNotFoundException(beanName, scope, callerInfo);
@@ -155,7 +202,7 @@ public class TaglibEnhanceLogic {
         return bean;
     }
 
-    protected void throwTaglibFormTagNotFoundException(String beanName, String scope, Supplier<Object> callerInfo) {
+    protected void throwTaglibFormTagNotFoundException(String beanName, String scope, TaglibCallerInfo callerInfo) {
         final ExceptionMessageBuilder br = new ExceptionMessageBuilder();
         br.addNotice("Not found the form tag for the tag.");
         br.addItem("Advice");
@@ -174,7 +221,7 @@ public class TaglibEnhanceLogic {
         br.addItem("Requested JSP Path");
         br.addElement(getRequestJspPath());
         br.addItem("Target Taglib");
-        br.addElement(callerInfo.get());
+        br.addElement(callerInfo.buildCallerIdentity());
         br.addItem("Bean Name");
         br.addElement(beanName);
         br.addItem("Scope");
@@ -183,7 +230,7 @@ public class TaglibEnhanceLogic {
         throw new TaglibFormBeanNotFoundException(msg);
     }
 
-    public Object lookupProperty(PageContext pageContext, String beanName, String property, String scope, Supplier<Object> callerInfo)
+    public Object lookupProperty(PageContext pageContext, String beanName, String property, String scope, TaglibCallerInfo callerInfo)
             throws JspException {
         return getProperty(lookupBean(pageContext, beanName, scope, callerInfo), property, callerInfo);
     }
@@ -201,22 +248,32 @@ public class TaglibEnhanceLogic {
     // -----------------------------------------------------
     //                                        Specified Bean
     //                                        --------------
-    public <VALUE> VALUE getProperty(Object bean, String property, Supplier<Object> callerInfo) {
+    /**
+     * Get the property value of the bean.
+     * @param <VALUE> The type of property value.
+     * @param bean The bean that has the property, might be virtual form. (NotNull)
+     * @param property The name of property, or property path e.g. member.address.zip, items[3].price (NotNull)
+     * @param callerInfo The supplier of caller type for exception message. (NotNull)
+     * @return The value of property. (NullAllowed: also when null in the middle of path)
+     */
+    public <VALUE> VALUE getProperty(Object bean, String property, TaglibCallerInfo callerInfo) {
+        if (TaglibPropertyPath.isPath(property)) {
+            return getPathPropertyValue(bean, property, callerInfo);
+        }
         if (bean instanceof VirtualForm) {
             return getFormPropertyValue((VirtualForm) bean, property, callerInfo);
         }
-        final BeanDesc beanDesc = BeanDescFactory.getBeanDesc(bean.getClass());
-        final PropertyDesc propertyDesc = beanDesc.getPropertyDesc(property);
-        if (propertyDesc == null) {
-            String msg = "Not found the property: property=" + property + " caller=" + callerInfo.get();
+        final PropertyAccessor accessor = propertyAccessorCache.findAccessor(bean.getClass(), property);
+        if (accessor == null) {
+            String msg = "Not found the property: property=" + property + " caller=" + callerInfo.buildCallerIdentity();
             throw new TaglibBeanPropertyNotFoundException(msg);
         }
         @SuppressWarnings("unchecked")
-        final VALUE found = (VALUE) propertyDesc.getValue(bean);
+        final VALUE found = (VALUE) accessor.getValue(bean);
         return found;
     }
 
-    public String[] getPropertyAsStringArray(Object bean, String property, Supplier<Object> callerInfo) {
+    public String[] getPropertyAsStringArray(Object bean, String property, TaglibCallerInfo callerInfo) {
         final Object propertyValue = getProperty(bean, property, callerInfo);
         if (propertyValue == null) {
             return (String[]) EMPTY_STRING_ARRAY;
@@ -246,13 +303,83 @@ public class TaglibEnhanceLogic {
         }
     }
 
-    protected <VALUE> VALUE getFormPropertyValue(VirtualForm form, String property, Supplier<Object> callerInfo) {
+    // -----------------------------------------------------
+    //                                         Property Path
+    //                                         -------------
+    protected <VALUE> VALUE getPathPropertyValue(Object bean, String property, TaglibCallerInfo callerInfo) {
+        if (bean instanceof VirtualForm && property.indexOf('[') < 0) { // also type failure value
+            return getFormPropertyValue((VirtualForm) bean, property, callerInfo); // chained by form
+        }
+        final TaglibPropertyPath path = findPropertyPath(property, callerInfo);
+        final List<PathSegment> segmentList = path.getSegmentList();
+        Object current = bean;
+        for (int i = 0; i < segmentList.size(); i++) { // not foreach for no iterator
+            final PathSegment segment = segmentList.get(i);
+            current = readSegmentValue(current, segment, callerInfo);
+            for (int nth = 0; nth < segment.getIndexCount() && current != null; nth++) {
+                current = readIndexedValue(current, segment.getIndex(nth), path, callerInfo);
+            }
+            if (current == null) { // null-safe navigation like EL
+                break;
+            }
+        }
+        @SuppressWarnings("unchecked")
+        final VALUE found = (VALUE) current;
+        return found;
+    }
+
+    protected TaglibPropertyPath findPropertyPath(String property, TaglibCallerInfo callerInfo) {
+        TaglibPropertyPath path = propertyPathCache.get(property);
+        if (path == null) {
+            try {
+                path = TaglibPropertyPath.parse(property);
+            } catch (IllegalArgumentException e) {
+                String msg = "Invalid property path: property=" + property + " caller=" + callerInfo.buildCallerIdentity();
+                throw new TaglibBeanPropertyNotFoundException(msg, e);
+            }
+            if (propertyPathCache.size() < PROPERTY_PATH_CACHE_LIMIT) { // for dynamic expressions
+                propertyPathCache.put(property, path);
+            }
+        }
+        return path;
+    }
+
+    protected Object readSegmentValue(Object current, PathSegment segment, TaglibCallerInfo callerInfo) {
+        if (current instanceof VirtualForm) {
+            return getFormPropertyValue((VirtualForm) current, segment.getName(), callerInfo);
+        }
+        return segment.findAccessor(propertyAccessorCache, current.getClass()).getValue(current);
+    }
+
+    protected Object readIndexedValue(Object current, int index, TaglibPropertyPath path, TaglibCallerInfo callerInfo) {
+        if (current instanceof List<?>) {
+            final List<?> list = (List<?>) current;
+            return index < list.size() ? list.get(index) : null;
+        } else if (current.getClass().isArray()) {
+            return index < Array.getLength(current) ? Array.get(current, index) : null;
+        } else if (current instanceof Iterable<?>) { // e.g. set, rare case
+            int count = 0;
+            for (Object element : (Iterable<?>) current) {
+                if (count == index) {
+                    return element;
+                }
+                ++count;
+            }
+            return null;
+        } else {
+            String msg = "Not indexable property in the path: path=" + path.getExpression() + " type=" + current.getClass().getName()
+                    + " caller=" + callerInfo.buildCallerIdentity();
+            throw new TaglibBeanPropertyNotFoundException(msg);
+        }
+    }
+
+    protected <VALUE> VALUE getFormPropertyValue(VirtualForm form, String property, TaglibCallerInfo callerInfo) {
         try {
             @SuppressWarnings("unchecked")
             final VALUE found = (VALUE) form.getPropertyValue(property);
             return found;
         } catch (FormPropertyNotFoundException e) {
-            String msg = "Not found the taglib bean property: caller=" + callerInfo.get();
+            String msg = "Not found the taglib bean property: caller=" + callerInfo.buildCallerIdentity();
             throw new TaglibBeanPropertyNotFoundException(msg, e);
         }
     }
@@ -265,27 +392,171 @@ public class TaglibEnhanceLogic {
         return messages != null ? messages : new UserMessages(); // if null, empty
     }
 
+    /**
+     * Does the property have errors? (for error styles of input tags) <br>
+     * The properties that have errors are extracted once per request and error key,
+     * because errors are fixed before rendering JSP.
+     * @param pageContext The context of page. (NotNull)
+     * @param errorKey The attribute key of user messages for errors. (NotNull)
+     * @param property The property name on HTML, e.g. memberName, memberList[0].memberName (NotNull)
+     * @return The determination, true or false.
+     * @throws JspException When it fails to find the user messages.
+     */
+    public boolean hasErrorsOf(PageContext pageContext, String errorKey, String property) throws JspException {
+        return hasErrorsOf(pageContext, getRenderContext(pageContext), errorKey, property);
+    }
+
+    /**
+     * Does the property have errors? (using the render context that the tag already has)
+     * @param pageContext The context of page. (NotNull)
+     * @param context The context of rendering in the current request. (NotNull)
+     * @param errorKey The attribute key of user messages for errors. (NotNull)
+     * @param property The property name on HTML, e.g. memberName, memberList[0].memberName (NotNull)
+     * @return The determination, true or false.
+     * @throws JspException When it fails to find the user messages.
+     */
+    public boolean hasErrorsOf(PageContext pageContext, TaglibRenderContext context, String errorKey, String property)
+            throws JspException {
+        Set<String> errorProperties = context.findErrorProperties(errorKey);
+        if (errorProperties == null) {
+            errorProperties = extractErrorProperties(findUserMessages(pageContext, errorKey));
+            context.registerErrorProperties(errorKey, errorProperties);
+        }
+        return containsErrorProperty(errorProperties, property);
+    }
+
+    protected Set<String> extractErrorProperties(UserMessages messages) {
+        if (messages.isEmpty()) { // basically here
+            return Collections.emptySet();
+        }
+        final Set<String> errorProperties = new HashSet<String>();
+        for (String property : messages.toPropertySet()) {
+            if (messages.size(property) > 0) { // just in case
+                errorProperties.add(normalizeErrorProperty(property)); // e.g. labels.memberName to memberName
+            }
+        }
+        return errorProperties;
+    }
+
+    protected boolean containsErrorProperty(Set<String> errorProperties, String property) {
+        if (errorProperties.isEmpty()) { // basically here
+            return false;
+        }
+        if (errorProperties.contains(property)) {
+            return true;
+        }
+        final String normalized = normalizeErrorProperty(property);
+        return normalized != property && errorProperties.contains(normalized);
+    }
+
+    /**
+     * Normalize the property of user messages as label property, same as lookup of user messages.
+     * @param property The property of user messages, e.g. memberName, labels.memberName, {labels.memberName} (NotNull)
+     * @return The property without labels prefix, e.g. memberName. (NotNull: same instance if no prefix)
+     */
+    protected String normalizeErrorProperty(String property) {
+        if (property.startsWith(LABELS_BEGIN_MARK) && property.endsWith(LABELS_END_MARK)) {
+            return property.substring(LABELS_BEGIN_MARK.length(), property.length() - LABELS_END_MARK.length());
+        }
+        if (property.startsWith(LABELS_KEY_PREFIX)) {
+            return property.substring(LABELS_KEY_PREFIX.length());
+        }
+        return property;
+    }
+
+    /**
+     * Resolve the action path to action mapping, which is cached per path.
+     * @param resolver The resolver of action path. (NotNull)
+     * @param path The action path without query string, e.g. /member/list/ (NotNull)
+     * @return The resolved action path, which may be not-handled. (NotNull)
+     * @throws Exception When the resolver fails.
+     */
+    public ResolvedActionPath resolveActionPath(ActionPathResolver resolver, String path) throws Exception {
+        return actionPathCache.resolveActionPath(resolver, path);
+    }
+
+    /**
+     * Calculate the action path by the JSP path, which is cached per JSP path.
+     * @param resolver The resolver of action path. (NotNull)
+     * @param jspPath The path of requested JSP. (NotNull)
+     * @return The calculated action path. (NullAllowed: depends on resolver)
+     */
+    public String calculateActionPathByJspPath(ActionPathResolver resolver, String jspPath) {
+        return actionPathCache.calculateActionPathByJspPath(resolver, jspPath);
+    }
+
     // ===================================================================================
     //                                                                             Message
     //                                                                             =======
     public boolean present(PageContext pageContext, String key) {
-        return getMessageManager().findMessage(getUserLocale(), key).isPresent();
+        final TaglibRenderContext context = getRenderContext(pageContext);
+        return context.getMessageManager().findMessage(context.getUserLocale(), key).isPresent();
     }
 
-    public String message(PageContext pageContext, String key, Supplier<Object> callerInfo) {
+    public String message(PageContext pageContext, String key, TaglibCallerInfo callerInfo) {
         return message(pageContext, key, null, callerInfo);
     }
 
-    public String message(PageContext pageContext, UserMessage report, Supplier<Object> callerInfo) { // args will be HTML-escaped
+    public String message(PageContext pageContext, UserMessage report, TaglibCallerInfo callerInfo) { // args will be HTML-escaped
         final String key = report.getMessageKey();
         return report.isResource() ? message(pageContext, key, report.getValues(), callerInfo) : key;
     }
 
-    public String message(PageContext pageContext, String key, Object[] args, Supplier<Object> callerInfo) { // args will be HTML-escaped
-        final Locale locale = getUserLocale();
+    public String message(PageContext pageContext, String key, Object[] args, TaglibCallerInfo callerInfo) { // args will be HTML-escaped
+        final TaglibMessageTemplate template = findMessageTemplate(pageContext, key, callerInfo);
+        return formatMessage(pageContext, template, args, callerInfo);
+    }
+
+    /**
+     * Find the template of message resource for the user locale, which is cached.
+     * @param pageContext The context of page. (NotNull)
+     * @param key The key of message resource. (NotNull)
+     * @param callerInfo The supplier of caller type for exception message. (NotNull)
+     * @return The template of the message. (NotNull: exception when not found)
+     * @throws TaglibMessagesResourceNotFoundException When the message is not found by the key.
+     */
+    public TaglibMessageTemplate findMessageTemplate(PageContext pageContext, String key, TaglibCallerInfo callerInfo) {
+        final TaglibRenderContext context = getRenderContext(pageContext);
+        final Locale locale = context.getUserLocale();
+        final TaglibMessageTemplate cached = messageTemplateCache.find(locale, key);
+        if (cached != null) {
+            return cached;
+        }
+        final int generation = messageTemplateCache.beginResolving();
+        final String message;
+        try {
+            message = findMessage(context.getMessageManager(), locale, key, null); // not null
+        } catch (MessageKeyNotFoundException e) {
+            throwMessagesResourceNotFoundException(key, locale, callerInfo, e);
+            return null; // unreachable
+        }
+        final TaglibMessageTemplate template = TaglibMessageTemplate.compile(locale, key, message);
+        messageTemplateCache.register(locale, key, template, generation);
+        return template;
+    }
+
+    /**
+     * Format the message of the template with the arguments. <br>
+     * No arguments handling for constant message, and simple message is formatted without message manager.
+     * @param pageContext The context of page. (NotNull)
+     * @param template The template of message found by findMessageTemplate(). (NotNull)
+     * @param args The array of message arguments, will be HTML-escaped. (NullAllowed: if null, message as it is)
+     * @param callerInfo The supplier of caller type for exception message. (NotNull)
+     * @return The formatted message. (NotNull)
+     */
+    public String formatMessage(PageContext pageContext, TaglibMessageTemplate template, Object[] args, TaglibCallerInfo callerInfo) {
+        if (args == null || template.isConstant()) {
+            return template.getMessage();
+        }
+        final String formatted = template.format(args); // null if not simple
+        if (formatted != null) {
+            return formatted;
+        }
+        final Locale locale = template.getLocale();
+        final String key = template.getKey();
         try {
             htmlEscapeMessageArgs(args);
-            return findMessage(locale, key, args); // not null
+            return findMessage(getRenderContext(pageContext).getMessageManager(), locale, key, args); // not null
         } catch (MessageKeyNotFoundException e) {
             throwMessagesResourceNotFoundException(key, locale, callerInfo, e);
             return null; // unreachable
@@ -300,19 +571,18 @@ public class TaglibEnhanceLogic {
         }
     }
 
-    protected String findMessage(Locale locale, String key, Object[] args) {
-        final MessageManager manager = getMessageManager();
+    protected String findMessage(MessageManager manager, Locale locale, String key, Object[] args) {
         return args != null ? manager.getMessage(locale, key, args) : manager.getMessage(locale, key);
     }
 
-    protected void throwMessagesResourceNotFoundException(String resourceKey, Locale locale, Supplier<Object> callerInfo,
+    protected void throwMessagesResourceNotFoundException(String resourceKey, Locale locale, TaglibCallerInfo callerInfo,
             MessageKeyNotFoundException cause) {
         final ExceptionMessageBuilder br = new ExceptionMessageBuilder();
         br.addNotice("Not found the resource for message by the key.");
         br.addItem("Requested JSP Path");
         br.addElement(getRequestJspPath());
         br.addItem("Target Taglib");
-        br.addElement(callerInfo.get());
+        br.addElement(callerInfo.buildCallerIdentity());
         br.addItem("Resource Key");
         br.addElement(resourceKey);
         br.addItem("User Locale");
@@ -334,6 +604,15 @@ public class TaglibEnhanceLogic {
         }
     }
 
+    /**
+     * Create the markup writer that streams into the current writer of the page context.
+     * @param pageContext The context of page. (NotNull)
+     * @return The new-created markup writer for the current writer. (NotNull)
+     */
+    public TagMarkupWriter createMarkupWriter(PageContext pageContext) {
+        return new TagMarkupWriter(pageContext.getOut());
+    }
+
     public void writePrevious(PageContext pageContext, String text) throws JspException {
         JspWriter writer = pageContext.getOut();
         if (writer instanceof BodyContent) {
@@ -357,7 +636,7 @@ public class TaglibEnhanceLogic {
      * @return The resolved value of autocomplete. (NullAllowed: when the autocomplete is null)
      * @throws BrTaglibLabelsResourceNotFoundException When the resource key is not found in the resource if the key is for label.
      */
-    public String resolveAutocompleteResource(PageContext pageContext, String value, Supplier<Object> callerInfo) {
+    public String resolveAutocompleteResource(PageContext pageContext, String value, TaglibCallerInfo callerInfo) {
         // no check because the value can be free word recently by jflute (2017/08/17)
         //  e.g. autocomplete="new-password"
         //if (value != null && !value.equals("on") && !value.equals("off")) {
@@ -366,13 +645,13 @@ public class TaglibEnhanceLogic {
         return value;
     }
 
-    protected void throwAutocompleteInvalidValueException(String value, Supplier<Object> callerInfo) {
+    protected void throwAutocompleteInvalidValueException(String value, TaglibCallerInfo callerInfo) {
         final ExceptionMessageBuilder br = new ExceptionMessageBuilder();
         br.addNotice("Invalid value for autocomplete attribute.");
         br.addItem("Requested JSP Path");
         br.addElement(getRequestJspPath());
         br.addItem("Target Taglib");
-        br.addElement(callerInfo.get());
+        br.addElement(callerInfo.buildCallerIdentity());
         br.addItem("Invalid Value");
         br.addElement(value);
         br.addItem("Expected Value");
@@ -392,7 +671,7 @@ public class TaglibEnhanceLogic {
      * @return The resolved value of label. (NullAllowed: when the label is null)
      * @throws TaglibLabelsResourceNotFoundException When the resource key is not found in the resource if the key is for label.
      */
-    public String resolveLabelResource(PageContext pageContext, String label, Supplier<Object> callerInfo) {
+    public String resolveLabelResource(PageContext pageContext, String label, TaglibCallerInfo callerInfo) {
         final String found = findLabelResourceIfNeeds(pageContext, label, callerInfo);
         return found != null ? found : label;
     }
@@ -405,25 +684,37 @@ public class TaglibEnhanceLogic {
      * @return The resolved value of label. (NullAllowed: when not found)
      * @throws TaglibLabelsResourceNotFoundException When the resource key is not found in the resource if the key is for label.
      */
-    public String findLabelResourceIfNeeds(PageContext pageContext, String resourceKey, Supplier<Object> callerInfo) {
+    public String findLabelResourceIfNeeds(PageContext pageContext, String resourceKey, TaglibCallerInfo callerInfo) {
         if (resourceKey == null) {
             return null;
         }
         if (isLabelsResource(resourceKey)) {
-            final List<String> keyList = DfStringUtil.splitListTrimmed(resourceKey, "|");
-            final StringBuilder sb = new StringBuilder();
-            for (String key : keyList) {
-                final String resolved = message(pageContext, key, null, callerInfo);
-                if (resolved == null) {
-                    throwLabelsResourceNotFoundException(key, callerInfo);
-                }
-                sb.append(resolved);
+            final Locale locale = getUserLocale(pageContext);
+            final String cached = labelResourceCache.find(locale, resourceKey);
+            if (cached != null) {
+                return cached;
             }
-            return sb.toString();
+            final int generation = labelResourceCache.beginResolving();
+            final String resolved = resolveLabelResourceKeys(pageContext, resourceKey, callerInfo);
+            labelResourceCache.register(locale, resourceKey, resolved, generation);
+            return resolved;
         }
         return null;
     }
 
+    protected String resolveLabelResourceKeys(PageContext pageContext, String resourceKey, TaglibCallerInfo callerInfo) {
+        final List<String> keyList = DfStringUtil.splitListTrimmed(resourceKey, "|");
+        final StringBuilder sb = new StringBuilder();
+        for (String key : keyList) {
+            final String resolved = message(pageContext, key, null, callerInfo);
+            if (resolved == null) {
+                throwLabelsResourceNotFoundException(key, callerInfo);
+            }
+            sb.append(resolved);
+        }
+        return sb.toString();
+    }
+
     /**
      * Is the resource for label?
      * @param resouce The value of resource. (NotNull)
@@ -441,7 +732,7 @@ public class TaglibEnhanceLogic {
      * @return The resolved value of label. (NotNull: exception when not found)
      * @throws TaglibLabelsResourceNotFoundException When the resource key is not for label or null.
      */
-    public String findLabelResourceChecked(PageContext pageContext, String resourceKey, Supplier<Object> callerInfo) {
+    public String findLabelResourceChecked(PageContext pageContext, String resourceKey, TaglibCallerInfo callerInfo) {
         final String resource = findLabelResourceIfNeeds(pageContext, resourceKey, callerInfo);
         if (resource == null) {
             throwLabelsResourceNotFoundException(resourceKey, callerInfo);
@@ -449,13 +740,13 @@ public class TaglibEnhanceLogic {
         return resource;
     }
 
-    protected void throwLabelsResourceNotFoundException(String resourceKey, Supplier<Object> callerInfo) {
+    protected void throwLabelsResourceNotFoundException(String resourceKey, TaglibCallerInfo callerInfo) {
         final ExceptionMessageBuilder br = new ExceptionMessageBuilder();
         br.addNotice("Not found the resource for label by the key.");
         br.addItem("Requested JSP Path");
         br.addElement(getRequestJspPath());
         br.addItem("Target Taglib");
-        br.addElement(callerInfo.get());
+        br.addElement(callerInfo.buildCallerIdentity());
         br.addItem("Resource Key");
         br.addElement(resourceKey);
         final String msg = br.buildExceptionMessage();
@@ -465,41 +756,38 @@ public class TaglibEnhanceLogic {
     // ===================================================================================
     //                                                                   Dynamic Attribute
     //                                                                   =================
-    public void addDynamicAttribute(Set<DynamicTagAttribute> dynamicAttributes, String key, Object value) {
+    public void addDynamicAttribute(DynamicTagAttributes dynamicAttributes, String key, Object value) {
         if (key != null && key.trim().length() > 0) {
-            dynamicAttributes.add(createDynamicTagAttribute(key, value));
+            dynamicAttributes.put(key, value != null ? value.toString() : null); // last wins
         }
     }
 
-    protected DynamicTagAttribute createDynamicTagAttribute(String key, Object value) {
-        return new DynamicTagAttribute(key, value != null ? value.toString() : null);
+    public String buildDynamicAttributeExp(DynamicTagAttributes dynamicAttributes) {
+        final StringBuilder sb = new StringBuilder();
+        writeDynamicAttributes(new TagMarkupWriter(sb), dynamicAttributes);
+        return sb.toString();
     }
 
-    public String buildDynamicAttributeExp(Set<DynamicTagAttribute> dynamicAttributes) {
-        final StringBuilder sb = new StringBuilder();
-        for (DynamicTagAttribute attribute : dynamicAttributes) {
-            final Object val = attribute.getValue();
-            if (val == null) {
-                sb.append(" " + attribute.getKey());
+    public void writeDynamicAttributes(TagMarkupWriter writer, DynamicTagAttributes dynamicAttributes) {
+        final int size = dynamicAttributes.size();
+        for (int i = 0; i < size; i++) {
+            final String key = dynamicAttributes.getKey(i);
+            final String value = dynamicAttributes.getValue(i);
+            if (value == null) {
+                writer.bareAttribute(key);
             } else {
-                sb.append(" " + attribute.getKey() + "=\"");
-                sb.append(escapeInnerDoubleQuote(attribute.getValue().toString()) + "\"");
+                // same specification as Thymeleaf
+                // o &quot; on JSP => real double quotation here => &quot; on HTML
+                // o real back-slash on HTML => real back-slash on HTML (no escape)
+                writer.attributeEscapingQuote(key, value);
             }
         }
-        return sb.toString();
-    }
-
-    protected String escapeInnerDoubleQuote(String str) {
-        // same specification as Thymeleaf
-        // o &quot; on JSP => real double quotation here => &quot; on HTML
-        // o real back-slash on HTML => real back-slash on HTML (no escape)
-        return str != null ? Srl.replace(str, "\"", "&quot;") : null;
     }
 
     // ===================================================================================
     //                                                                      Classification
     //                                                                      ==============
-    public Classification findClassification(String classificationName, String code, Supplier<Object> callerInfo) {
+    public Classification findClassification(String classificationName, String code, TaglibCallerInfo callerInfo) {
         final ClassificationMeta meta = findClassificationMeta(classificationName, callerInfo);
         final Classification cls = meta.codeOf(code);
         if (cls == null) {
@@ -508,17 +796,21 @@ public class TaglibEnhanceLogic {
         return cls;
     }
 
-    public ClassificationMeta findClassificationMeta(String classificationName, Supplier<Object> callerInfo) {
+    public ClassificationMeta findClassificationMeta(String classificationName, TaglibCallerInfo callerInfo) {
         return provideClassificationMeta(getListedClassificationProvider(), classificationName, callerInfo);
     }
 
-    protected void throwClassificationCodeNotFoundException(String classificationName, String code, Supplier<Object> callerInfo) {
+    public ClassificationMeta findClassificationMeta(PageContext pageContext, String classificationName, TaglibCallerInfo callerInfo) {
+        return provideClassificationMeta(getListedClassificationProvider(pageContext), classificationName, callerInfo);
+    }
+
+    protected void throwClassificationCodeNotFoundException(String classificationName, String code, TaglibCallerInfo callerInfo) {
         final ExceptionMessageBuilder br = new ExceptionMessageBuilder();
         br.addNotice("Not found the classification for the code.");
         br.addItem("Requested JSP Path");
         br.addElement(getRequestJspPath());
         br.addItem("Target Taglib");
-        br.addElement(callerInfo.get());
+        br.addElement(callerInfo.buildCallerIdentity());
         br.addItem("Classification Name");
         br.addElement(classificationName);
         br.addItem("Code");
@@ -527,12 +819,30 @@ public class TaglibEnhanceLogic {
         throw new TaglibClassificationNotFoundException(msg);
     }
 
-    public String findClassificationAlias(String classificationName, String code, Supplier<Object> callerInfo) {
+    public String findClassificationAlias(String classificationName, String code, TaglibCallerInfo callerInfo) {
         return findClassificationAlias(findClassification(classificationName, code, callerInfo));
     }
 
+    public String findClassificationAlias(PageContext pageContext, String classificationName, String code,
+            TaglibCallerInfo callerInfo) {
+        final ClassificationMeta meta = findClassificationMeta(pageContext, classificationName, callerInfo);
+        final Classification cls = meta.codeOf(code);
+        if (cls == null) {
+            throwClassificationCodeNotFoundException(classificationName, code, callerInfo);
+        }
+        return findClassificationAlias(pageContext, cls);
+    }
+
     public String findClassificationAlias(Classification cls) {
-        return determineClassificationAliasKey().map(new OptionalThingFunction<String, String>() {
+        return resolveClassificationAlias(cls, determineClassificationAliasKey());
+    }
+
+    public String findClassificationAlias(PageContext pageContext, Classification cls) {
+        return resolveClassificationAlias(cls, determineClassificationAliasKey(pageContext));
+    }
+
+    protected String resolveClassificationAlias(Classification cls, OptionalThing<String> aliasKey) {
+        return aliasKey.map(new OptionalThingFunction<String, String>() {
             @Override
             public String apply(String key) {
                 return (String) cls.subItemMap().get(key);
@@ -544,12 +854,20 @@ public class TaglibEnhanceLogic {
         return getListedClassificationProvider().determineAlias(getUserLocale());
     }
 
+    public OptionalThing<String> determineClassificationAliasKey(PageContext pageContext) {
+        return getRenderContext(pageContext).getClassificationAliasKey(); // determined once per request
+    }
+
     public ListedClassificationProvider getListedClassificationProvider() {
         return getAssistantDirector().assistDbDirection().assistListedClassificationProvider();
     }
 
+    public ListedClassificationProvider getListedClassificationProvider(PageContext pageContext) {
+        return getRenderContext(pageContext).getListedClassificationProvider();
+    }
+
     public ClassificationMeta provideClassificationMeta(ListedClassificationProvider provider, String classificationName,
-            Supplier<Object> callerInfo) {
+            TaglibCallerInfo callerInfo) {
         try {
             return provider.provide(classificationName);
         } catch (ProvidedClassificationNotFoundException e) {
@@ -558,13 +876,13 @@ public class TaglibEnhanceLogic {
         }
     }
 
-    protected void throwListedClassificationNotFoundException(String classificationName, Supplier<Object> callerInfo) {
+    protected void throwListedClassificationNotFoundException(String classificationName, TaglibCallerInfo callerInfo) {
         final ExceptionMessageBuilder br = new ExceptionMessageBuilder();
         br.addNotice("Not found the classification for the list.");
         br.addItem("Requested JSP Path");
         br.addElement(getRequestJspPath());
         br.addItem("Target Taglib");
-        br.addElement(callerInfo.get());
+        br.addElement(callerInfo.buildCallerIdentity());
         br.addItem("Classification Name");
         br.addElement(classificationName);
         final String msg = br.buildExceptionMessage();
@@ -578,6 +896,10 @@ public class TaglibEnhanceLogic {
         return getRequestManager().getUserLocale();
     }
 
+    public Locale getUserLocale(PageContext pageContext) {
+        return getRenderContext(pageContext).getUserLocale(); // resolved once per request
+    }
+
     // ===================================================================================
     //                                                                  Requested JSP Path
     //                                                                  ==================
@@ -585,6 +907,79 @@ public class TaglibEnhanceLogic {
         return getRequestManager().getRequestPath();
     }
 
+    // ===================================================================================
+    //                                                                      Render Context
+    //                                                                      ==============
+    /**
+     * Get the context of rendering in the current request, created at first call in the request.
+     * @param pageContext The context of page. (NotNull)
+     * @return The request-scoped context of rendering. (NotNull)
+     */
+    public TaglibRenderContext getRenderContext(PageContext pageContext) {
+        final String key = TaglibAttributeKey.RENDER_CONTEXT_KEY;
+        final Object existing = pageContext.getAttribute(key, PageContext.REQUEST_SCOPE);
+        if (existing != null) {
+            return (TaglibRenderContext) existing;
+        }
+        final TaglibRenderContext created = createRenderContext();
+        pageContext.setAttribute(key, created, PageContext.REQUEST_SCOPE);
+        return created;
+    }
+
+    protected TaglibRenderContext createRenderContext() {
+        return new TaglibRenderContext();
+    }
+
+    // ===================================================================================
+    //                                                                      Compact Output
+    //                                                                      ==============
+    /**
+     * Enable compact output of tag-emitted markup, e.g. no line separator between options, one-line focus script. <br>
+     * The markup is the same as the default in browsers, only formatting whitespace and legacy comments are omitted.
+     * Call this at application boot if you need, e.g. in your servlet context listener.
+     */
+    public void enableCompactOutput() {
+        compactOutput = true;
+    }
+
+    /**
+     * Disable compact output of tag-emitted markup, formatted as default after this.
+     */
+    public void disableCompactOutput() {
+        compactOutput = false;
+    }
+
+    /**
+     * @return Is compact output of tag-emitted markup enabled?
+     */
+    public boolean isCompactOutput() {
+        return compactOutput;
+    }
+
+    // ===================================================================================
+    //                                                                      Fragment Cache
+    //                                                                      ==============
+    /**
+     * Get the cache of rendered fragments for cache tag, e.g. to clear it when navigation menu is changed.
+     * @return The application-scoped cache of fragments. (NotNull)
+     */
+    public TaglibFragmentCache getFragmentCache() {
+        return fragmentCache;
+    }
+
+    // ===================================================================================
+    //                                                                         URL Builder
+    //                                                                         ===========
+    /**
+     * Get the builder of context-path-prefixed URL in the current request, shared with URL function.
+     * @param pageContext The context of page. (NotNull)
+     * @return The request-scoped builder of URL. (NotNull)
+     */
+    public LaUrlBuilder getUrlBuilder(PageContext pageContext) {
+        final HttpServletRequest request = (HttpServletRequest) pageContext.getRequest();
+        return LaUrlBuilder.findBuilder(request, (HttpServletResponse) pageContext.getResponse());
+    }
+
     // ===================================================================================
     //                                                                           Component
     //                                                                           =========
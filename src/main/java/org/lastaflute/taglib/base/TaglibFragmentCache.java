@@ -0,0 +1,274 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.lastaflute.core.smartdeploy.ManagedHotdeploy;
+
+/**
+ * The cache of rendered fragments for cache tag, e.g. navigation header. <br>
+ * It is bounded by total weight (length of fragments) and evicts least recently used fragments.
+ * Each fragment has TTL and optional stale period (stale-while-revalidate),
+ * and only one renderer per key is allowed by rendering lock (others wait or use stale fragment).
+ * <pre>
+ * CachedFragment fragment = cache.find(key);
+ * if (fragment != null &amp;&amp; fragment.isFresh(cache.currentTimeMillis())) { // write it
+ * } else if (cache.beginRendering(key)) { // render it and cache.store(), finally cache.endRendering()
+ * } else { // other renderer exists, use stale fragment or cache.awaitRendering()
+ * }
+ * </pre>
+ * The cache is cleared when hot deploy count is changed. (no check if not hot deploy, e.g. production)
+ * @author jflute
+ */
+public class TaglibFragmentCache {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    /** The default limit of total weight (characters) of cached fragments, about 8MB as UTF-16. */
+    public static final int DEFAULT_WEIGHT_LIMIT = 4 * 1024 * 1024;
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    /** The limit of total weight, least recently used fragments are evicted when over. */
+    protected final int weightLimit;
+
+    /** The map of cached fragments in access order for LRU. (NotNull, guarded by itself) */
+    protected final LinkedHashMap<String, CachedFragment> fragmentMap = new LinkedHashMap<String, CachedFragment>(64, 0.75f, true);
+
+    /** The total weight of cached fragments. (guarded by fragment map) */
+    protected int totalWeight;
+
+    /** The map of rendering locks keyed by cache key, to allow only one renderer per key. (NotNull) */
+    protected final ConcurrentHashMap<String, CountDownLatch> renderingMap = new ConcurrentHashMap<String, CountDownLatch>();
+
+    /** The hot deploy count when the fragments are cached, to detect reloading. */
+    protected volatile int cachedHotdeployCount;
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public TaglibFragmentCache() {
+        this(DEFAULT_WEIGHT_LIMIT);
+    }
+
+    public TaglibFragmentCache(int weightLimit) {
+        this.weightLimit = weightLimit;
+    }
+
+    // ===================================================================================
+    //                                                                          Find/Store
+    //                                                                          ==========
+    /**
+     * @param key The key of fragment including vary-by dimensions. (NotNull)
+     * @return The cached fragment, may be expired so check it. (NullAllowed: when not cached)
+     */
+    public CachedFragment find(String key) {
+        clearIfReloaded();
+        synchronized (fragmentMap) {
+            return fragmentMap.get(key); // also moved to most recently used
+        }
+    }
+
+    /**
+     * @param key The key of fragment including vary-by dimensions. (NotNull)
+     * @param content The rendered content of fragment. (NotNull)
+     * @param ttlMillis The time to live in milliseconds, fresh until it. (NotMinus)
+     * @param staleMillis The period after TTL in milliseconds, stale fragment is used while other renderer exists. (NotMinus)
+     */
+    public void store(String key, String content, long ttlMillis, long staleMillis) {
+        final int weight = calculateWeight(key, content);
+        if (weight > weightLimit) { // too large, not cached
+            return;
+        }
+        final long expireTime = currentTimeMillis() + ttlMillis;
+        final CachedFragment fragment = new CachedFragment(content, weight, expireTime, expireTime + staleMillis);
+        synchronized (fragmentMap) {
+            final CachedFragment previous = fragmentMap.put(key, fragment);
+            if (previous != null) {
+                totalWeight -= previous.getWeight();
+            }
+            totalWeight += weight;
+            evictIfOverLimit();
+        }
+    }
+
+    protected int calculateWeight(String key, String content) {
+        return key.length() + content.length();
+    }
+
+    protected void evictIfOverLimit() { // in lock
+        final Iterator<Entry<String, CachedFragment>> ite = fragmentMap.entrySet().iterator();
+        while (totalWeight > weightLimit && ite.hasNext()) { // from least recently used
+            totalWeight -= ite.next().getValue().getWeight();
+            ite.remove();
+        }
+    }
+
+    protected void clearIfReloaded() {
+        if (!ManagedHotdeploy.isHotdeploy()) { // JSP may be changed only in development
+            return;
+        }
+        final int currentCount = ManagedHotdeploy.getHotdeployCount();
+        if (cachedHotdeployCount != currentCount) {
+            clear();
+            cachedHotdeployCount = currentCount;
+        }
+    }
+
+    /**
+     * Clear all cached fragments, e.g. when navigation menu is changed.
+     */
+    public void clear() {
+        synchronized (fragmentMap) {
+            fragmentMap.clear();
+            totalWeight = 0;
+        }
+    }
+
+    // ===================================================================================
+    //                                                                           Rendering
+    //                                                                           =========
+    /**
+     * Begin rendering of the fragment if no other renderer for the key.
+     * @param key The key of fragment including vary-by dimensions. (NotNull)
+     * @return true if the caller is the renderer, should call {@link #endRendering(String)} finally.
+     */
+    public boolean beginRendering(String key) {
+        return renderingMap.putIfAbsent(key, new CountDownLatch(1)) == null;
+    }
+
+    /**
+     * End rendering of the fragment, waiting threads are released.
+     * @param key The key of fragment including vary-by dimensions. (NotNull)
+     */
+    public void endRendering(String key) {
+        final CountDownLatch latch = renderingMap.remove(key);
+        if (latch != null) {
+            latch.countDown();
+        }
+    }
+
+    /**
+     * Wait for the other renderer of the key.
+     * @param key The key of fragment including vary-by dimensions. (NotNull)
+     * @param timeoutMillis The max time to wait in milliseconds. (NotMinus)
+     * @return true if the rendering is ended (or no renderer), false if timeout or interrupted.
+     */
+    public boolean awaitRendering(String key, long timeoutMillis) {
+        final CountDownLatch latch = renderingMap.get(key);
+        if (latch == null) {
+            return true;
+        }
+        try {
+            return latch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // ===================================================================================
+    //                                                                        Current Time
+    //                                                                        ============
+    public long currentTimeMillis() { // overridden by test
+        return System.currentTimeMillis();
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        synchronized (fragmentMap) {
+            return "fragmentCache:{size=" + fragmentMap.size() + ", weight=" + totalWeight + "/" + weightLimit + "}";
+        }
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public int getTotalWeight() {
+        synchronized (fragmentMap) {
+            return totalWeight;
+        }
+    }
+
+    public Map<String, CachedFragment> getFragmentMap() { // for e.g. monitoring, copied
+        synchronized (fragmentMap) {
+            return new LinkedHashMap<String, CachedFragment>(fragmentMap);
+        }
+    }
+
+    // ===================================================================================
+    //                                                                     Cached Fragment
+    //                                                                     ===============
+    /**
+     * The rendered fragment with expiration, which is immutable.
+     * @author jflute
+     */
+    public static class CachedFragment {
+
+        protected final String content; // not null
+        protected final int weight;
+        protected final long expireTime; // fresh before it
+        protected final long staleLimitTime; // stale-while-revalidate before it
+
+        public CachedFragment(String content, int weight, long expireTime, long staleLimitTime) {
+            this.content = content;
+            this.weight = weight;
+            this.expireTime = expireTime;
+            this.staleLimitTime = staleLimitTime;
+        }
+
+        public boolean isFresh(long currentTime) {
+            return currentTime < expireTime;
+        }
+
+        public boolean isServableAsStale(long currentTime) {
+            return currentTime < staleLimitTime;
+        }
+
+        @Override
+        public String toString() {
+            return "cachedFragment:{weight=" + weight + ", expire=" + expireTime + "}";
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public long getExpireTime() {
+            return expireTime;
+        }
+
+        public long getStaleLimitTime() {
+            return staleLimitTime;
+        }
+    }
+}
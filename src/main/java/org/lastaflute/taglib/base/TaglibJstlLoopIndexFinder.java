@@ -0,0 +1,222 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import javax.servlet.jsp.tagext.Tag;
+import javax.servlet.jsp.tagext.TagSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The finder of loop index of JSTL loop tag (e.g. c:forEach) for indexed tags. <br>
+ * JSTL classes are discovered once per tag class from its defining class loader (shared by all tag instances)
+ * and the index is read by method handle. The discovered reader is bound to the tag class by class value,
+ * so it does not pin class loaders, e.g. discarded by hot deploy.
+ * If your application has JSTL on compile classpath, you can register direct (non-reflective) reader like this:
+ * <pre>
+ * TaglibJstlLoopIndexFinder.registerDirectReader(new LoopIndexReader() {
+ *     public Class&lt;?&gt; getLoopTagType() {
+ *         return LoopTagSupport.class;
+ *     }
+ *     public Integer readIndex(Tag loopTag) {
+ *         return ((LoopTagSupport) loopTag).getLoopStatus().getIndex();
+ *     }
+ * });
+ * </pre>
+ * @author modified by jflute (originated in Struts)
+ */
+public class TaglibJstlLoopIndexFinder {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    private static final Logger logger = LoggerFactory.getLogger(TaglibJstlLoopIndexFinder.class);
+
+    public static final String LOOP_TAG_SUPPORT_NAME = "javax.servlet.jsp.jstl.core.LoopTagSupport";
+    public static final String LOOP_TAG_STATUS_NAME = "javax.servlet.jsp.jstl.core.LoopTagStatus";
+
+    /** The mark of no JSTL in the class loader, to avoid discovery again. */
+    protected static final LoopIndexReader NO_JSTL = new NoJstlLoopIndexReader();
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    /** The reader per tag class, discovered from the defining class loader of the tag class. (NotNull) */
+    protected static final ClassValue<LoopIndexReader> readerValue = new ClassValue<LoopIndexReader>() {
+        @Override
+        protected LoopIndexReader computeValue(Class<?> tagType) {
+            return discoverReader(tagType);
+        }
+    };
+
+    /** The reader registered by application, used instead of discovery if exists. (NullAllowed) */
+    protected static volatile LoopIndexReader directReader;
+
+    // ===================================================================================
+    //                                                                       Direct Reader
+    //                                                                       =============
+    /**
+     * Register the reader that reads the index directly, which is used for all class loaders.
+     * @param reader The reader of loop index e.g. by compiled JSTL classes. (NullAllowed: if null, back to discovery)
+     */
+    public static void registerDirectReader(LoopIndexReader reader) {
+        directReader = reader;
+    }
+
+    // ===================================================================================
+    //                                                                     Find Loop Index
+    //                                                                     ===============
+    /**
+     * Find the index of the nearest JSTL loop tag for the tag.
+     * @param tag The tag that may be nested in JSTL loop. (NotNull)
+     * @return The index of current loop. (NullAllowed: when JSTL not found or not nested in loop)
+     */
+    public static Integer findLoopIndex(Tag tag) {
+        final LoopIndexReader reader = findReader(tag);
+        if (reader == NO_JSTL) {
+            return null;
+        }
+        final Tag loopTag = TagSupport.findAncestorWithClass(tag, reader.getLoopTagType());
+        if (loopTag == null) {
+            return null;
+        }
+        try {
+            return reader.readIndex(loopTag);
+        } catch (RuntimeException e) { // e.g. null status
+            logger.error(e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * @param tag The tag to be determined. (NotNull)
+     * @return The determination, true if the tag is JSTL loop tag.
+     */
+    public static boolean isLoopTag(Tag tag) {
+        final LoopIndexReader reader = findReader(tag);
+        return reader != NO_JSTL && reader.getLoopTagType().isInstance(tag);
+    }
+
+    protected static LoopIndexReader findReader(Tag tag) {
+        final LoopIndexReader direct = directReader;
+        if (direct != null) {
+            return direct;
+        }
+        return readerValue.get(tag.getClass()); // the loop tag is visible from the loader of the nested tag
+    }
+
+    // ===================================================================================
+    //                                                                           Discovery
+    //                                                                           =========
+    protected static LoopIndexReader discoverReader(Class<?> tagType) {
+        ClassLoader classLoader = tagType.getClassLoader();
+        if (classLoader == null) { // bootstrap, basically no way
+            classLoader = ClassLoader.getSystemClassLoader();
+        }
+        try {
+            final Class<?> loopTagSupportClass = classLoader.loadClass(LOOP_TAG_SUPPORT_NAME);
+            final Class<?> loopTagStatusClass = classLoader.loadClass(LOOP_TAG_STATUS_NAME);
+            return createHandleReader(loopTagSupportClass, loopTagStatusClass);
+        } catch (ClassNotFoundException ignored) { // means JSTL not loaded
+            return NO_JSTL;
+        } catch (NoSuchMethodException ignored) {
+            return NO_JSTL;
+        } catch (IllegalAccessException e) {
+            logger.error(e.getMessage(), e);
+            return NO_JSTL;
+        }
+    }
+
+    protected static LoopIndexReader createHandleReader(Class<?> loopTagSupportClass, Class<?> loopTagStatusClass)
+            throws NoSuchMethodException, IllegalAccessException {
+        final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        final MethodType statusType = MethodType.methodType(loopTagStatusClass);
+        final MethodHandle getLoopStatus = lookup.findVirtual(loopTagSupportClass, "getLoopStatus", statusType);
+        final MethodHandle getIndex = lookup.findVirtual(loopTagStatusClass, "getIndex", MethodType.methodType(int.class));
+        final MethodHandle indexHandle = MethodHandles.filterReturnValue(getLoopStatus, getIndex); // loopTag => index
+        return new HandleLoopIndexReader(loopTagSupportClass, indexHandle.asType(MethodType.methodType(Object.class, Tag.class)));
+    }
+
+    // ===================================================================================
+    //                                                                   Loop Index Reader
+    //                                                                   =================
+    /**
+     * The reader of loop index from the JSTL loop tag.
+     * @author jflute
+     */
+    public static interface LoopIndexReader {
+
+        /**
+         * @return The type of loop tag searched from ancestors, e.g. LoopTagSupport. (NotNull)
+         */
+        Class<?> getLoopTagType();
+
+        /**
+         * @param loopTag The loop tag that is instance of the loop tag type. (NotNull)
+         * @return The index of current loop. (NullAllowed)
+         */
+        Integer readIndex(Tag loopTag);
+    }
+
+    /**
+     * The reader by method handle combined from getLoopStatus() and getIndex().
+     * @author jflute
+     */
+    public static class HandleLoopIndexReader implements LoopIndexReader {
+
+        protected final Class<?> loopTagType;
+        protected final MethodHandle indexHandle; // (Tag)Object
+
+        public HandleLoopIndexReader(Class<?> loopTagType, MethodHandle indexHandle) {
+            this.loopTagType = loopTagType;
+            this.indexHandle = indexHandle;
+        }
+
+        public Class<?> getLoopTagType() {
+            return loopTagType;
+        }
+
+        public Integer readIndex(Tag loopTag) {
+            final Object index;
+            try {
+                index = (Object) indexHandle.invokeExact(loopTag);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) { // no checked exception in the methods, just in case
+                throw new IllegalStateException("Failed to read the loop index: " + loopTag, e);
+            }
+            return (Integer) index;
+        }
+    }
+
+    protected static class NoJstlLoopIndexReader implements LoopIndexReader {
+
+        public Class<?> getLoopTagType() {
+            throw new IllegalStateException("JSTL is not loaded.");
+        }
+
+        public Integer readIndex(Tag loopTag) {
+            throw new IllegalStateException("JSTL is not loaded.");
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.lastaflute.taglib.function.LaFunctions;
+
+/**
+ * The parsed template of message resource per (locale, key), which is immutable. <br>
+ * Constant message (no placeholder) is returned without arguments handling,
+ * and simple message (only index placeholders e.g. {0}) is formatted here
+ * touching only the referenced arguments, others are formatted by message manager.
+ * @author jflute
+ */
+public class TaglibMessageTemplate {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    /** The prefix of argument that is resolved as label by message resources. */
+    protected static final String LABELS_ARG_PREFIX = "labels.";
+
+    /** The mark of label variable resolved after formatting by message resources. */
+    protected static final String LABEL_VARIABLE_MARK = "@[";
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final Locale locale; // not null
+    protected final String key; // not null
+    protected final String message; // not null, resolved without arguments
+    protected final boolean constant; // no placeholder and quote
+    protected final String[] fragments; // null if not simple, literal parts around placeholders
+    protected final int[] argIndexes; // null if not simple, referenced index per placeholder
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    protected TaglibMessageTemplate(Locale locale, String key, String message, boolean constant, String[] fragments,
+            int[] argIndexes) {
+        this.locale = locale;
+        this.key = key;
+        this.message = message;
+        this.constant = constant;
+        this.fragments = fragments;
+        this.argIndexes = argIndexes;
+    }
+
+    // ===================================================================================
+    //                                                                             Compile
+    //                                                                             =======
+    /**
+     * Compile the message resolved without arguments to template.
+     * @param locale The locale of the message. (NotNull)
+     * @param key The key of the message. (NotNull)
+     * @param message The message resolved without arguments, e.g. {0} is required (NotNull)
+     * @return The new-created template. (NotNull)
+     */
+    public static TaglibMessageTemplate compile(Locale locale, String key, String message) {
+        if (message.indexOf('\'') >= 0) { // quote handling depends on message resources
+            return new TaglibMessageTemplate(locale, key, message, false, null, null);
+        }
+        if (message.indexOf('{') < 0) {
+            return new TaglibMessageTemplate(locale, key, message, true, null, null);
+        }
+        final List<String> fragmentList = new ArrayList<String>(4);
+        final List<Integer> indexList = new ArrayList<Integer>(3);
+        final int length = message.length();
+        int start = 0;
+        int pos;
+        while ((pos = message.indexOf('{', start)) >= 0) {
+            final int end = message.indexOf('}', pos);
+            final int index = end > pos + 1 ? parseArgIndex(message, pos + 1, end) : -1;
+            if (index < 0) { // e.g. {0,number}, named variable, not closed
+                return new TaglibMessageTemplate(locale, key, message, false, null, null);
+            }
+            final String fragment = message.substring(start, pos);
+            if (fragment.endsWith("@")) { // argument may make label variable
+                return new TaglibMessageTemplate(locale, key, message, false, null, null);
+            }
+            fragmentList.add(fragment);
+            indexList.add(index);
+            start = end + 1;
+        }
+        if (message.indexOf('}', start) >= 0) { // unbalanced brace
+            return new TaglibMessageTemplate(locale, key, message, false, null, null);
+        }
+        fragmentList.add(message.substring(start, length));
+        final int[] argIndexes = new int[indexList.size()];
+        for (int i = 0; i < argIndexes.length; i++) {
+            argIndexes[i] = indexList.get(i);
+        }
+        return new TaglibMessageTemplate(locale, key, message, false, fragmentList.toArray(new String[fragmentList.size()]), argIndexes);
+    }
+
+    protected static int parseArgIndex(String message, int begin, int end) {
+        if (end - begin > 2) { // not index (99 is enough)
+            return -1;
+        }
+        int index = 0;
+        for (int i = begin; i < end; i++) {
+            final char ch = message.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return -1;
+            }
+            index = index * 10 + (ch - '0');
+        }
+        return index;
+    }
+
+    // ===================================================================================
+    //                                                                              Format
+    //                                                                              ======
+    /**
+     * Format the simple template with the arguments, escaping only the referenced arguments. <br>
+     * The arguments are not changed, null argument is treated as empty string (escaped as before).
+     * @param args The array of message arguments, not escaped yet. (NotNull)
+     * @return The formatted message. (NullAllowed: when the arguments need message resources, e.g. label key)
+     */
+    public String format(Object[] args) {
+        if (fragments == null) {
+            return null;
+        }
+        final String[] escapedArgs = new String[argIndexes.length];
+        for (int i = 0; i < argIndexes.length; i++) {
+            final int index = argIndexes[i];
+            if (index >= args.length) { // same as message format
+                escapedArgs[i] = "{" + index + "}";
+                continue;
+            }
+            final String escaped = LaFunctions.h(args[index]); // null as empty
+            if (escaped.startsWith(LABELS_ARG_PREFIX) || escaped.contains(LABEL_VARIABLE_MARK)) {
+                return null; // resolved by message resources
+            }
+            escapedArgs[i] = escaped;
+        }
+        int capacity = message.length();
+        for (String escaped : escapedArgs) {
+            capacity += escaped.length();
+        }
+        final StringBuilder sb = new StringBuilder(capacity);
+        for (int i = 0; i < escapedArgs.length; i++) {
+            sb.append(fragments[i]).append(escapedArgs[i]);
+        }
+        sb.append(fragments[escapedArgs.length]);
+        return sb.toString();
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "messageTemplate:{" + locale + ", " + key + ", constant=" + constant + ", simple=" + isSimple() + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public Locale getLocale() {
+        return locale;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isConstant() {
+        return constant;
+    }
+
+    public boolean isSimple() {
+        return fragments != null;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.lastaflute.di.helper.beans.BeanDesc;
+import org.lastaflute.di.helper.beans.PropertyDesc;
+import org.lastaflute.di.helper.beans.exception.BeanIllegalPropertyException;
+import org.lastaflute.di.helper.beans.factory.BeanDescFactory;
+
+/**
+ * The cache of property accessors for bean properties referred by tags. <br>
+ * Accessors are compiled to method handles once per (bean class, property),
+ * and they are attached to the bean class by class value,
+ * so they are released together with the class loader at hot deploy.
+ * @author jflute
+ */
+public class TaglibPropertyAccessorCache {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    /** The default limit of cached properties per bean class. */
+    public static final int DEFAULT_PROPERTY_LIMIT = 256;
+
+    protected static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    /** The limit of cached properties per bean class, over-limit property is resolved every time. */
+    protected final int propertyLimit;
+
+    /** The map of accessors per bean class, which lives with the class. (NotNull) */
+    protected final ClassValue<ConcurrentHashMap<String, PropertyAccessor>> classAccessorMap =
+            new ClassValue<ConcurrentHashMap<String, PropertyAccessor>>() {
+        @Override
+        protected ConcurrentHashMap<String, PropertyAccessor> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<String, PropertyAccessor>(16);
+        }
+    }; // not lambda for Jetty6
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public TaglibPropertyAccessorCache() {
+        this(DEFAULT_PROPERTY_LIMIT);
+    }
+
+    public TaglibPropertyAccessorCache(int propertyLimit) {
+        this.propertyLimit = propertyLimit;
+    }
+
+    // ===================================================================================
+    //                                                                       Find Accessor
+    //                                                                       =============
+    /**
+     * Find the accessor of the property, compiling it at first time.
+     * @param beanType The type of bean that has the property. (NotNull)
+     * @param property The name of property. (NotNull)
+     * @return The accessor of the property. (NotNull)
+     * @throws org.lastaflute.di.helper.beans.exception.BeanPropertyNotFoundException When the property is not found.
+     */
+    public PropertyAccessor findAccessor(Class<?> beanType, String property) {
+        final ConcurrentHashMap<String, PropertyAccessor> accessorMap = classAccessorMap.get(beanType);
+        PropertyAccessor accessor = accessorMap.get(property);
+        if (accessor == null) {
+            accessor = createAccessor(beanType, property);
+            if (accessorMap.size() < propertyLimit) {
+                final PropertyAccessor existing = accessorMap.putIfAbsent(property, accessor);
+                if (existing != null) {
+                    accessor = existing;
+                }
+            }
+        }
+        return accessor;
+    }
+
+    protected PropertyAccessor createAccessor(Class<?> beanType, String property) {
+        final BeanDesc beanDesc = BeanDescFactory.getBeanDesc(beanType);
+        final PropertyDesc propertyDesc = beanDesc.getPropertyDesc(property); // exception if not found
+        final MethodHandle handle = compileGetter(propertyDesc);
+        return new PropertyAccessor(beanType, propertyDesc, handle);
+    }
+
+    protected MethodHandle compileGetter(PropertyDesc propertyDesc) {
+        if (!propertyDesc.isReadable()) {
+            return null; // property description throws the exception
+        }
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            if (propertyDesc.hasReadMethod()) {
+                final Method readMethod = propertyDesc.getReadMethod(); // already accessible
+                return lookup.unreflect(readMethod).asType(GETTER_TYPE);
+            }
+            final Field field = propertyDesc.getField();
+            if (field != null) { // public field
+                return lookup.unreflectGetter(field).asType(GETTER_TYPE);
+            }
+        } catch (IllegalAccessException ignored) { // e.g. Java9 module, so reflection instead
+        }
+        return null;
+    }
+
+    // ===================================================================================
+    //                                                                   Property Accessor
+    //                                                                   =================
+    /**
+     * The accessor of one property, which is immutable and thread-safe.
+     * @author jflute
+     */
+    public static class PropertyAccessor {
+
+        protected final Class<?> beanType;
+        protected final PropertyDesc propertyDesc;
+        protected final MethodHandle getter; // null allowed: reflection by property description
+
+        public PropertyAccessor(Class<?> beanType, PropertyDesc propertyDesc, MethodHandle getter) {
+            this.beanType = beanType;
+            this.propertyDesc = propertyDesc;
+            this.getter = getter;
+        }
+
+        /**
+         * @param bean The instance of bean. (NotNull)
+         * @return The value of the property. (NullAllowed)
+         */
+        public Object getValue(Object bean) {
+            if (getter == null) {
+                return propertyDesc.getValue(bean);
+            }
+            try {
+                return (Object) getter.invokeExact(bean);
+            } catch (Throwable t) { // same exception as property description
+                throw new BeanIllegalPropertyException(beanType, propertyDesc.getPropertyName(), t);
+            }
+        }
+
+        public boolean isCompiled() {
+            return getter != null;
+        }
+
+        public Class<?> getBeanType() {
+            return beanType;
+        }
+
+        public PropertyDesc getPropertyDesc() {
+            return propertyDesc;
+        }
+
+        @Override
+        public String toString() {
+            return "propertyAccessor:{" + beanType.getName() + "@" + propertyDesc.getPropertyName() + ", compiled=" + isCompiled() + "}";
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.lastaflute.taglib.base.TaglibPropertyAccessorCache.PropertyAccessor;
+
+/**
+ * The parsed property path for tags, e.g. member.address.zip, items[3].price. <br>
+ * It is parsed once and reused as evaluator chain, each segment remembers the accessor
+ * for the last bean type so rows of the same type are read without lookup.
+ * @author jflute
+ */
+public class TaglibPropertyPath {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    protected static final int[] EMPTY_INDEXES = new int[0];
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final String expression; // not null
+    protected final List<PathSegment> segmentList; // not null, read-only
+    protected final boolean indexed; // has at least one index
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    protected TaglibPropertyPath(String expression, List<PathSegment> segmentList) {
+        this.expression = expression;
+        this.segmentList = Collections.unmodifiableList(segmentList);
+        boolean indexed = false;
+        for (PathSegment segment : segmentList) {
+            if (segment.hasIndex()) {
+                indexed = true;
+                break;
+            }
+        }
+        this.indexed = indexed;
+    }
+
+    // ===================================================================================
+    //                                                                               Parse
+    //                                                                               =====
+    /**
+     * Is the property expression path? (nested or indexed)
+     * @param property The expression of property. (NotNull)
+     * @return The determination, true or false.
+     */
+    public static boolean isPath(String property) {
+        return property.indexOf('.') >= 0 || property.indexOf('[') >= 0;
+    }
+
+    /**
+     * Parse the expression to property path.
+     * @param expression The expression of property path, e.g. member.address.zip, items[3].price (NotNull)
+     * @return The new-created property path. (NotNull)
+     * @throws IllegalArgumentException When the expression is invalid as property path.
+     */
+    public static TaglibPropertyPath parse(String expression) {
+        final List<PathSegment> segmentList = new ArrayList<PathSegment>(4);
+        final int length = expression.length();
+        int pos = 0;
+        while (true) {
+            final int nameStart = pos;
+            while (pos < length && expression.charAt(pos) != '.' && expression.charAt(pos) != '[') {
+                ++pos;
+            }
+            final String name = expression.substring(nameStart, pos);
+            if (name.trim().isEmpty()) {
+                throwInvalidPathException(expression, "empty property name at " + nameStart);
+            }
+            int[] indexes = EMPTY_INDEXES;
+            while (pos < length && expression.charAt(pos) == '[') {
+                final int indexEnd = expression.indexOf(']', pos);
+                if (indexEnd < 0) {
+                    throwInvalidPathException(expression, "not closed bracket at " + pos);
+                }
+                final int index = parseIndex(expression, expression.substring(pos + 1, indexEnd));
+                final int[] added = new int[indexes.length + 1];
+                System.arraycopy(indexes, 0, added, 0, indexes.length);
+                added[indexes.length] = index;
+                indexes = added;
+                pos = indexEnd + 1;
+            }
+            segmentList.add(new PathSegment(name, indexes));
+            if (pos >= length) {
+                break;
+            }
+            if (expression.charAt(pos) != '.') {
+                throwInvalidPathException(expression, "unexpected character at " + pos);
+            }
+            ++pos; // skip dot
+        }
+        return new TaglibPropertyPath(expression, segmentList);
+    }
+
+    protected static int parseIndex(String expression, String indexExp) {
+        try {
+            final int index = Integer.parseInt(indexExp.trim());
+            if (index < 0) {
+                throwInvalidPathException(expression, "minus index: " + indexExp);
+            }
+            return index;
+        } catch (NumberFormatException e) {
+            throwInvalidPathException(expression, "non-number index: " + indexExp);
+            return -1; // unreachable
+        }
+    }
+
+    protected static void throwInvalidPathException(String expression, String reason) {
+        String msg = "Invalid property path: " + reason + ", path=" + expression;
+        throw new IllegalArgumentException(msg);
+    }
+
+    // ===================================================================================
+    //                                                                        Path Segment
+    //                                                                        ============
+    /**
+     * The segment of property path, which is one property name with its indexes.
+     * @author jflute
+     */
+    public static class PathSegment {
+
+        protected final String name; // not null
+        protected final int[] indexes; // not null, empty allowed
+        // no accessor is held here, the path is cached long and must not pin hot-deployed bean classes
+
+        public PathSegment(String name, int[] indexes) {
+            this.name = name;
+            this.indexes = indexes;
+        }
+
+        /**
+         * Find the accessor of the segment property for the bean type.
+         * @param accessorCache The cache of property accessors, bound to bean class by class value. (NotNull)
+         * @param beanType The type of bean that has the property. (NotNull)
+         * @return The accessor of the property. (NotNull)
+         */
+        public PropertyAccessor findAccessor(TaglibPropertyAccessorCache accessorCache, Class<?> beanType) {
+            return accessorCache.findAccessor(beanType, name);
+        }
+
+        public boolean hasIndex() {
+            return indexes.length > 0;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getIndexCount() {
+            return indexes.length;
+        }
+
+        public int getIndex(int nth) {
+            return indexes[nth];
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder(name);
+            for (int index : indexes) {
+                sb.append('[').append(index).append(']');
+            }
+            return sb.toString();
+        }
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "propertyPath:{" + expression + ", segments=" + segmentList + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public String getExpression() {
+        return expression;
+    }
+
+    public List<PathSegment> getSegmentList() {
+        return segmentList;
+    }
+
+    public boolean isIndexed() {
+        return indexed;
+    }
+}
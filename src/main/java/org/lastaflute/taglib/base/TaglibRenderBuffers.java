@@ -0,0 +1,119 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+/**
+ * The arena of string builders for tag rendering in one request, held by render context. <br>
+ * Tags borrow a buffer and give it back after use, so buffers are reused by all tags in the request.
+ * <pre>
+ * final StringBuilder sb = buffers.borrow();
+ * try {
+ *     ...
+ *     return sb.toString();
+ * } finally {
+ *     buffers.giveBack(sb);
+ * }
+ * </pre>
+ * Large buffers are not kept (dropped when given back) so a pathological page cannot pin huge memory,
+ * and all buffers are released at the end of request by {@link TaglibRequestListener}.
+ * (not thread-safe, request-confined)
+ * @author jflute
+ */
+public class TaglibRenderBuffers {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    /** The max count of kept buffers, nested borrowing is not so deep in tags. */
+    protected static final int KEPT_BUFFER_LIMIT = 4;
+
+    /** The max capacity of kept buffer, larger buffer is dropped to avoid pinning memory. */
+    protected static final int KEPT_CAPACITY_LIMIT = 8 * 1024;
+
+    /** The initial capacity of new buffer, e.g. for indexed name, error messages. */
+    protected static final int INITIAL_CAPACITY = 128;
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final StringBuilder[] keptBuffers = new StringBuilder[KEPT_BUFFER_LIMIT]; // stack of available buffers
+    protected int keptCount; // count of available buffers
+    protected int createdCount; // count of created buffers in the request, for statistics
+
+    // ===================================================================================
+    //                                                                              Borrow
+    //                                                                              ======
+    /**
+     * Borrow the empty buffer, which should be given back after use.
+     * @return The empty string builder. (NotNull)
+     */
+    public StringBuilder borrow() {
+        if (keptCount > 0) {
+            final StringBuilder kept = keptBuffers[--keptCount];
+            keptBuffers[keptCount] = null;
+            return kept;
+        }
+        ++createdCount;
+        return new StringBuilder(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Give back the borrowed buffer, which should not be used after this.
+     * @param buffer The borrowed string builder. (NullAllowed: if null, do nothing)
+     */
+    public void giveBack(StringBuilder buffer) {
+        if (buffer == null) {
+            return;
+        }
+        if (keptCount >= KEPT_BUFFER_LIMIT || buffer.capacity() > KEPT_CAPACITY_LIMIT) { // dropped
+            return;
+        }
+        buffer.setLength(0);
+        keptBuffers[keptCount++] = buffer;
+    }
+
+    // ===================================================================================
+    //                                                                             Release
+    //                                                                             =======
+    /**
+     * Release all kept buffers, called at the end of request.
+     */
+    public void release() {
+        for (int i = 0; i < keptCount; i++) {
+            keptBuffers[i] = null;
+        }
+        keptCount = 0;
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "renderBuffers:{kept=" + keptCount + ", created=" + createdCount + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public int getKeptCount() {
+        return keptCount;
+    }
+
+    public int getCreatedCount() {
+        return createdCount;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.dbflute.optional.OptionalThing;
+import org.lastaflute.core.direction.FwAssistantDirector;
+import org.lastaflute.core.message.MessageManager;
+import org.lastaflute.core.util.ContainerUtil;
+import org.lastaflute.db.dbflute.classification.ListedClassificationProvider;
+import org.lastaflute.taglib.html.HtmlFormTag;
+import org.lastaflute.web.path.ActionPathResolver;
+import org.lastaflute.web.servlet.request.RequestManager;
+
+/**
+ * The context of JSP rendering in one request, which is stored in request scope. <br>
+ * Components and user locale are resolved at first use and shared by all tags in the request,
+ * so DI container is not looked up per tag. (not thread-safe, request-confined)
+ * @author jflute
+ */
+public class TaglibRenderContext {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected RequestManager requestManager; // null allowed: lazy loaded
+    protected MessageManager messageManager; // null allowed: lazy loaded
+    protected ActionPathResolver actionPathResolver; // null allowed: lazy loaded
+    protected FwAssistantDirector assistantDirector; // null allowed: lazy loaded
+    protected ListedClassificationProvider listedClassificationProvider; // null allowed: lazy loaded
+    protected Locale userLocale; // null allowed: lazy loaded
+    protected OptionalThing<String> classificationAliasKey; // null allowed: lazy loaded
+    protected Map<String, Set<String>> errorPropertiesMap; // null allowed: lazy loaded, keyed by error key
+    protected HtmlFormTag[] formStack; // null allowed: lazy loaded, current form is at depth - 1
+    protected int formDepth; // count of forms in rendering
+    protected TaglibRenderBuffers renderBuffers; // null allowed: lazy loaded
+
+    // ===================================================================================
+    //                                                                           Component
+    //                                                                           =========
+    public RequestManager getRequestManager() {
+        if (requestManager == null) {
+            requestManager = getComponent(RequestManager.class);
+        }
+        return requestManager;
+    }
+
+    public MessageManager getMessageManager() {
+        if (messageManager == null) {
+            messageManager = getComponent(MessageManager.class);
+        }
+        return messageManager;
+    }
+
+    public ActionPathResolver getActionPathResolver() {
+        if (actionPathResolver == null) {
+            actionPathResolver = getComponent(ActionPathResolver.class);
+        }
+        return actionPathResolver;
+    }
+
+    public FwAssistantDirector getAssistantDirector() {
+        if (assistantDirector == null) {
+            assistantDirector = getComponent(FwAssistantDirector.class);
+        }
+        return assistantDirector;
+    }
+
+    protected <COMPONENT> COMPONENT getComponent(Class<COMPONENT> type) {
+        return ContainerUtil.getComponent(type);
+    }
+
+    // ===================================================================================
+    //                                                                      Classification
+    //                                                                      ==============
+    public ListedClassificationProvider getListedClassificationProvider() {
+        if (listedClassificationProvider == null) {
+            listedClassificationProvider = getAssistantDirector().assistDbDirection().assistListedClassificationProvider();
+        }
+        return listedClassificationProvider;
+    }
+
+    /**
+     * @return The optional key of classification alias for the user locale. (NotNull, EmptyAllowed: default alias)
+     */
+    public OptionalThing<String> getClassificationAliasKey() {
+        if (classificationAliasKey == null) {
+            classificationAliasKey = getListedClassificationProvider().determineAlias(getUserLocale());
+        }
+        return classificationAliasKey;
+    }
+
+    // ===================================================================================
+    //                                                                         User Locale
+    //                                                                         ===========
+    public Locale getUserLocale() {
+        if (userLocale == null) {
+            userLocale = getRequestManager().getUserLocale();
+        }
+        return userLocale;
+    }
+
+    // ===================================================================================
+    //                                                                          Form Stack
+    //                                                                          ==========
+    /**
+     * Push the form tag when it starts, which is current form until it ends.
+     * @param formTag The form tag starting now. (NotNull)
+     */
+    public void pushForm(HtmlFormTag formTag) {
+        if (formStack == null) {
+            formStack = new HtmlFormTag[2];
+        } else if (formDepth == formStack.length) {
+            final HtmlFormTag[] extended = new HtmlFormTag[formStack.length * 2];
+            System.arraycopy(formStack, 0, extended, 0, formDepth);
+            formStack = extended;
+        }
+        formStack[formDepth++] = formTag;
+    }
+
+    /**
+     * Pop the current form tag when it ends, and the outer form (if nested) becomes current.
+     */
+    public void popForm() {
+        if (formDepth > 0) {
+            formStack[--formDepth] = null;
+        }
+    }
+
+    /**
+     * @return The form tag in rendering, e.g. for disabled and readonly of fields. (NullAllowed: when out of form)
+     */
+    public HtmlFormTag getCurrentForm() {
+        return formDepth > 0 ? formStack[formDepth - 1] : null;
+    }
+
+    // ===================================================================================
+    //                                                                      Render Buffers
+    //                                                                      ==============
+    /**
+     * @return The arena of string builders shared by tags in the request. (NotNull)
+     */
+    public TaglibRenderBuffers getRenderBuffers() {
+        if (renderBuffers == null) {
+            renderBuffers = new TaglibRenderBuffers();
+        }
+        return renderBuffers;
+    }
+
+    // ===================================================================================
+    //                                                                    Error Properties
+    //                                                                    ================
+    /**
+     * @param errorKey The attribute key of user messages for errors. (NotNull)
+     * @return The read-only set of properties that have errors. (NullAllowed: when not registered yet)
+     */
+    public Set<String> findErrorProperties(String errorKey) {
+        return errorPropertiesMap != null ? errorPropertiesMap.get(errorKey) : null;
+    }
+
+    /**
+     * @param errorKey The attribute key of user messages for errors. (NotNull)
+     * @param errorProperties The set of properties that have errors. (NotNull, EmptyAllowed)
+     */
+    public void registerErrorProperties(String errorKey, Set<String> errorProperties) {
+        if (errorPropertiesMap == null) {
+            errorPropertiesMap = new HashMap<String, Set<String>>(4);
+        }
+        errorPropertiesMap.put(errorKey, errorProperties);
+    }
+
+    // ===================================================================================
+    //                                                                             Release
+    //                                                                             =======
+    /**
+     * Release the request-scoped resources, e.g. render buffers, called at the end of request.
+     */
+    public void release() {
+        if (renderBuffers != null) {
+            renderBuffers.release();
+            renderBuffers = null;
+        }
+        errorPropertiesMap = null;
+        formStack = null;
+        formDepth = 0;
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "renderContext:{" + userLocale + ", " + classificationAliasKey + "}";
+    }
+}
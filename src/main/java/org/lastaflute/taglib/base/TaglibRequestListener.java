@@ -0,0 +1,44 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletRequestEvent;
+import javax.servlet.ServletRequestListener;
+
+/**
+ * The listener of request for tag rendering, registered by TLD of la tags automatically. <br>
+ * It releases the render context (e.g. render buffers) at the end of request,
+ * so request objects kept by container (e.g. recycled or async) do not pin the buffers.
+ * @author jflute
+ */
+public class TaglibRequestListener implements ServletRequestListener {
+
+    @Override
+    public void requestInitialized(ServletRequestEvent event) {
+        // render context is lazily created by first tag
+    }
+
+    @Override
+    public void requestDestroyed(ServletRequestEvent event) {
+        final ServletRequest request = event.getServletRequest();
+        final Object context = request.getAttribute(TaglibAttributeKey.RENDER_CONTEXT_KEY);
+        if (context instanceof TaglibRenderContext) { // rendered by tags
+            ((TaglibRenderContext) context).release();
+            request.removeAttribute(TaglibAttributeKey.RENDER_CONTEXT_KEY);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.lastaflute.core.smartdeploy.ManagedHotdeploy;
+
+/**
+ * The cache of values derived from message resources per (locale, key), e.g. resolved labels. <br>
+ * Message resources are reloaded only by hot deploy, so the cache is cleared
+ * when hot deploy count is changed. (no check if not hot deploy, e.g. production)
+ * <pre>
+ * VALUE cached = cache.find(locale, key);
+ * if (cached == null) {
+ *     final int generation = cache.beginResolving(); // before resolving
+ *     ... // resolve the value from message resources
+ *     cache.register(locale, key, resolved, generation); // not cached if reloaded while resolving
+ * }
+ * </pre>
+ * @param <VALUE> The type of cached value.
+ * @author jflute
+ */
+public class TaglibResourceCache<VALUE> {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    /** The default limit of cached keys per locale. */
+    public static final int DEFAULT_KEY_LIMIT = 2048;
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    /** The limit of cached keys per locale, over-limit key is resolved every time. */
+    protected final int keyLimit;
+
+    /** The map of cached values per locale. (NotNull) */
+    protected final ConcurrentHashMap<Locale, ConcurrentHashMap<String, VALUE>> localeValueMap =
+            new ConcurrentHashMap<Locale, ConcurrentHashMap<String, VALUE>>(4);
+
+    /** The hot deploy count when the cached values are resolved, to detect reloading. */
+    protected volatile int cachedHotdeployCount;
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public TaglibResourceCache() {
+        this(DEFAULT_KEY_LIMIT);
+    }
+
+    public TaglibResourceCache(int keyLimit) {
+        this.keyLimit = keyLimit;
+    }
+
+    // ===================================================================================
+    //                                                                       Find/Register
+    //                                                                       =============
+    /**
+     * @param locale The locale of the resource. (NullAllowed: if null, returns null)
+     * @param key The key of the value, e.g. labels.memberName|labels.list (NotNull)
+     * @return The cached value. (NullAllowed: when not cached yet)
+     */
+    public VALUE find(Locale locale, String key) {
+        if (locale == null) {
+            return null;
+        }
+        clearIfReloaded();
+        final ConcurrentHashMap<String, VALUE> valueMap = localeValueMap.get(locale);
+        return valueMap != null ? valueMap.get(key) : null;
+    }
+
+    /**
+     * Begin resolving the value from message resources, called before resolving.
+     * @return The generation (hot deploy count) of message resources used by the resolving.
+     */
+    public int beginResolving() {
+        clearIfReloaded();
+        return cachedHotdeployCount;
+    }
+
+    /**
+     * @param locale The locale of the resource. (NullAllowed: if null, not cached)
+     * @param key The key of the value, e.g. labels.memberName|labels.list (NotNull)
+     * @param value The value resolved from message resources. (NotNull)
+     * @param generation The generation returned by {@link #beginResolving()} before the resolving.
+     */
+    public void register(Locale locale, String key, VALUE value, int generation) {
+        if (locale == null) {
+            return;
+        }
+        clearIfReloaded();
+        if (generation != cachedHotdeployCount) { // reloaded while resolving, the value may be by old resources
+            return;
+        }
+        ConcurrentHashMap<String, VALUE> valueMap = localeValueMap.get(locale);
+        if (valueMap == null) {
+            final ConcurrentHashMap<String, VALUE> created = new ConcurrentHashMap<String, VALUE>(64);
+            valueMap = localeValueMap.putIfAbsent(locale, created);
+            if (valueMap == null) {
+                valueMap = created;
+            }
+        }
+        if (valueMap.size() < keyLimit) {
+            valueMap.put(key, value);
+            if (generation != cachedHotdeployCount) { // reloaded just now, might be after clearing
+                valueMap.remove(key, value);
+            }
+        }
+    }
+
+    protected void clearIfReloaded() {
+        if (!ManagedHotdeploy.isHotdeploy()) { // resources are never reloaded
+            return;
+        }
+        final int currentCount = ManagedHotdeploy.getHotdeployCount();
+        if (cachedHotdeployCount != currentCount) {
+            cachedHotdeployCount = currentCount; // before clearing, old-generation values are rejected after this
+            localeValueMap.clear();
+        }
+    }
+
+    /**
+     * Clear all cached values, e.g. when message resources are switched.
+     */
+    public void clear() {
+        localeValueMap.clear();
+    }
+}
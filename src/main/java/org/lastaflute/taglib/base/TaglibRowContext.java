@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+import javax.servlet.jsp.tagext.Tag;
+
+/**
+ * The context of current row pushed by rows tag, which has the loop index and row bean of the iteration. <br>
+ * Indexed tags in the rows use them instead of JSTL loop discovery and bean lookup per tag.
+ * It is updated per iteration by the rows tag (so not thread-safe, same as page context).
+ * @author jflute
+ */
+public class TaglibRowContext {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final Tag rowsTag; // not null, owner of this context
+    protected final String rowName; // not null, page attribute name of row bean
+    protected Object row; // null allowed, current row bean
+    protected int index = -1; // index of current row
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param rowsTag The rows tag that owns the context. (NotNull)
+     * @param rowName The page attribute name of row bean, used as bean name of indexed tags. (NotNull)
+     */
+    public TaglibRowContext(Tag rowsTag, String rowName) {
+        this.rowsTag = rowsTag;
+        this.rowName = rowName;
+    }
+
+    // ===================================================================================
+    //                                                                            Next Row
+    //                                                                            ========
+    /**
+     * @param row The bean of next row. (NullAllowed)
+     */
+    public void nextRow(Object row) {
+        this.row = row;
+        ++index;
+    }
+
+    // ===================================================================================
+    //                                                                        Nearest Loop
+    //                                                                        ============
+    /**
+     * Is the rows tag the nearest loop of the tag? (not JSTL loop between them)
+     * @param tag The tag nested in the rows tag, e.g. indexed text tag. (NotNull)
+     * @return The determination, true or false.
+     */
+    public boolean isNearestLoopOf(Tag tag) {
+        Tag current = tag.getParent();
+        if (current == rowsTag) { // basically here, directly nested in rows
+            return true;
+        }
+        while (current != null) {
+            if (current == rowsTag) {
+                return true;
+            }
+            if (TaglibJstlLoopIndexFinder.isLoopTag(current)) { // e.g. c:forEach in rows
+                return false;
+            }
+            current = current.getParent();
+        }
+        return false;
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "rowContext:{" + rowName + ", " + index + ", " + row + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public Tag getRowsTag() {
+        return rowsTag;
+    }
+
+    public String getRowName() {
+        return rowName;
+    }
+
+    public Object getRow() {
+        return row;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/**
+ * The writer wrapper that collapses whitespace runs of HTML markup while streaming. <br>
+ * A whitespace run is written as one line separator if it contains it, otherwise as one space,
+ * so words are not joined and line-sensitive script (e.g. semicolon-less) is kept.
+ * The content of pre, textarea, script and style elements and quoted attribute values
+ * (e.g. value="a  b" echoed from user input) are written as it is.
+ * <pre>
+ * final TaglibWhitespaceCollapsingWriter writer = new TaglibWhitespaceCollapsingWriter(out);
+ * bodyContent.writeOut(writer); // streamed, no intermediate string
+ * writer.finish(); // pending whitespace is written
+ * </pre>
+ * (not thread-safe, same as writer of page)
+ * @author jflute
+ */
+public class TaglibWhitespaceCollapsingWriter extends Writer {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    /** The elements whose content is not collapsed, lower case. */
+    protected static final String[] RAW_ELEMENT_NAMES = { "pre", "textarea", "script", "style" };
+
+    /** The max length of scanned element name, longer name is not raw element. */
+    protected static final int ELEMENT_NAME_MAX = 8;
+
+    protected static final int NO_WHITESPACE = 0;
+    protected static final int PENDING_SPACE = 1;
+    protected static final int PENDING_LINE = 2;
+
+    protected static final int SCAN_TEXT = 0; // out of tag name
+    protected static final int SCAN_OPEN = 1; // after '<'
+    protected static final int SCAN_NAME = 2; // in element name after '<' or '</'
+    protected static final int SCAN_TAG = 3; // in tag after element name, e.g. attributes
+    protected static final int SCAN_QUOTED = 4; // in quoted attribute value
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final Writer out; // not null
+    protected int pendingWhitespace = NO_WHITESPACE;
+    protected String rawElementName; // null allowed: not in raw element
+    protected int scanState = SCAN_TEXT;
+    protected boolean scanClosing; // true if the scanned element is closing tag e.g. &lt;/pre&gt;
+    protected char quoteChar; // quotation of current attribute value, double or single
+    protected final char[] scannedName = new char[ELEMENT_NAME_MAX];
+    protected int scannedLength; // over max if long name
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param out The destination writer, e.g. enclosing writer of body content. (NotNull)
+     */
+    public TaglibWhitespaceCollapsingWriter(Writer out) {
+        if (out == null) {
+            throw new IllegalArgumentException("The argument 'out' should not be null.");
+        }
+        this.out = out;
+    }
+
+    /**
+     * Collapse whitespace runs of the markup as string, e.g. for cached fragment.
+     * @param markup The markup to be collapsed. (NotNull)
+     * @return The collapsed markup. (NotNull)
+     */
+    public static String collapse(String markup) {
+        final StringWriter sw = new StringWriter(markup.length());
+        final TaglibWhitespaceCollapsingWriter writer = new TaglibWhitespaceCollapsingWriter(sw);
+        try {
+            writer.write(markup);
+            writer.finish();
+        } catch (IOException e) { // no way, string writer
+            throw new IllegalStateException("Failed to collapse the markup: " + markup, e);
+        }
+        return sw.toString();
+    }
+
+    // ===================================================================================
+    //                                                                               Write
+    //                                                                               =====
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        final int end = off + len;
+        int segmentStart = off; // written in bulk until whitespace
+        for (int i = off; i < end; i++) {
+            final char ch = cbuf[i];
+            scan(ch);
+            if (rawElementName == null && scanState != SCAN_QUOTED && isWhitespace(ch)) {
+                if (segmentStart < i) {
+                    out.write(cbuf, segmentStart, i - segmentStart);
+                }
+                segmentStart = i + 1;
+                if (ch == '\n' || ch == '\r') {
+                    pendingWhitespace = PENDING_LINE;
+                } else if (pendingWhitespace == NO_WHITESPACE) {
+                    pendingWhitespace = PENDING_SPACE;
+                }
+            } else if (pendingWhitespace != NO_WHITESPACE) { // first character after whitespace run
+                writePendingWhitespace();
+            }
+        }
+        if (segmentStart < end) {
+            out.write(cbuf, segmentStart, end - segmentStart);
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException { // avoid char array copy of super
+        final char[] cbuf = new char[Math.min(len, 1024)];
+        int current = off;
+        final int end = off + len;
+        while (current < end) {
+            final int chunk = Math.min(cbuf.length, end - current);
+            str.getChars(current, current + chunk, cbuf, 0);
+            write(cbuf, 0, chunk);
+            current += chunk;
+        }
+    }
+
+    protected boolean isWhitespace(char ch) {
+        return ch == ' ' || ch == '\n' || ch == '\r' || ch == '\t' || ch == '\f';
+    }
+
+    protected void writePendingWhitespace() throws IOException {
+        out.write(pendingWhitespace == PENDING_LINE ? '\n' : ' ');
+        pendingWhitespace = NO_WHITESPACE;
+    }
+
+    // ===================================================================================
+    //                                                                        Element Scan
+    //                                                                        ============
+    protected void scan(char ch) { // to find start and end of raw elements and quoted attribute values
+        if (scanState == SCAN_TEXT) {
+            if (ch == '<') {
+                scanState = SCAN_OPEN;
+            }
+        } else if (scanState == SCAN_OPEN) {
+            if (ch == '/') {
+                beginName(true);
+            } else if (Character.isLetter(ch)) {
+                beginName(false);
+                appendName(ch);
+            } else {
+                scanState = ch == '<' ? SCAN_OPEN : SCAN_TEXT;
+            }
+        } else if (scanState == SCAN_NAME) {
+            if (Character.isLetterOrDigit(ch)) {
+                appendName(ch);
+            } else {
+                endName();
+                if (rawElementName != null || ch == '>') { // raw content (or its start tag) is written as it is
+                    scanState = SCAN_TEXT;
+                } else {
+                    scanState = SCAN_TAG;
+                    scanInTag(ch);
+                }
+            }
+        } else if (scanState == SCAN_TAG) {
+            scanInTag(ch);
+        } else { // quoted
+            if (ch == quoteChar) {
+                scanState = SCAN_TAG;
+            }
+        }
+    }
+
+    protected void scanInTag(char ch) {
+        if (ch == '>') {
+            scanState = SCAN_TEXT;
+        } else if (ch == '"' || ch == '\'') {
+            quoteChar = ch;
+            scanState = SCAN_QUOTED;
+        }
+    }
+
+    protected void beginName(boolean closing) {
+        scanState = SCAN_NAME;
+        scanClosing = closing;
+        scannedLength = 0;
+    }
+
+    protected void appendName(char ch) {
+        if (scannedLength < ELEMENT_NAME_MAX) {
+            scannedName[scannedLength] = Character.toLowerCase(ch);
+        }
+        ++scannedLength; // over max means long name
+    }
+
+    protected void endName() {
+        if (scannedLength == 0 || scannedLength > ELEMENT_NAME_MAX) {
+            return;
+        }
+        if (rawElementName == null) {
+            if (!scanClosing) {
+                rawElementName = findRawElementName();
+            }
+        } else if (scanClosing && rawElementName.equals(findRawElementName())) {
+            rawElementName = null; // written as it is until end of the closing tag
+        }
+    }
+
+    protected String findRawElementName() {
+        for (String name : RAW_ELEMENT_NAMES) {
+            if (name.length() == scannedLength && matchesScannedName(name)) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    protected boolean matchesScannedName(String name) { // without string instance
+        for (int i = 0; i < scannedLength; i++) {
+            if (name.charAt(i) != scannedName[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ===================================================================================
+    //                                                                        Flush/Finish
+    //                                                                        ============
+    /**
+     * Write the pending whitespace (collapsed), called at the end of the region.
+     * @throws IOException When it fails to write.
+     */
+    public void finish() throws IOException {
+        if (pendingWhitespace != NO_WHITESPACE) {
+            writePendingWhitespace();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish(); // the destination is not closed, e.g. enclosing writer
+    }
+}
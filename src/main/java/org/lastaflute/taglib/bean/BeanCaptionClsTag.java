@@ -15,8 +15,6 @@
  */
 package org.lastaflute.taglib.bean;
 
-import java.util.function.Supplier;
-
 import javax.servlet.jsp.JspException;
 
 import org.lastaflute.taglib.base.BaseNonBodyTag;
@@ -46,11 +44,7 @@ public class BeanCaptionClsTag extends BaseNonBodyTag {
     @Override
     public int doStartTag() throws JspException {
         final TaglibEnhanceLogic logic = getEnhanceLogic();
-        final String alias = logic.findClassificationAlias(name, value, new Supplier<Object>() {
-            public Object get() {
-                return buildErrorIdentity();
-            }
-        }); // not lambda for Jetty6
+        final String alias = logic.findClassificationAlias(pageContext, name, value, prepareCallerInfo());
         getEnhanceLogic().write(pageContext, alias);
         return SKIP_BODY;
     }
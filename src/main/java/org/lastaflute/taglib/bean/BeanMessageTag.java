@@ -18,6 +18,9 @@ package org.lastaflute.taglib.bean;
 import javax.servlet.jsp.JspException;
 
 import org.lastaflute.taglib.base.BaseNonBodyTag;
+import org.lastaflute.taglib.base.TaglibCallerInfo;
+import org.lastaflute.taglib.base.TaglibEnhanceLogic;
+import org.lastaflute.taglib.base.TaglibMessageTemplate;
 
 /**
  * @author modified by jflute (originated in Struts)
@@ -41,7 +44,14 @@ public class BeanMessageTag extends BaseNonBodyTag {
     //                                                                           =========
     @Override
     public int doStartTag() throws JspException {
-        write(message(key, new Object[] { arg0, arg1, arg2, arg3, arg4 }));
+        final TaglibEnhanceLogic logic = getEnhanceLogic();
+        final TaglibCallerInfo callerInfo = prepareCallerInfo();
+        final TaglibMessageTemplate template = logic.findMessageTemplate(pageContext, key, callerInfo);
+        if (template.isConstant()) { // mostly labels, headers, no need to handle arguments
+            write(template.getMessage());
+        } else {
+            write(logic.formatMessage(pageContext, template, new Object[] { arg0, arg1, arg2, arg3, arg4 }, callerInfo));
+        }
         return SKIP_BODY;
     }
 
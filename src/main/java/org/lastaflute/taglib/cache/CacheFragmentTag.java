@@ -0,0 +1,267 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.cache;
+
+import java.util.Locale;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.jsp.JspException;
+import javax.servlet.jsp.tagext.TryCatchFinally;
+
+import org.lastaflute.taglib.base.BaseBodyTag;
+import org.lastaflute.taglib.base.TaglibFragmentCache;
+import org.lastaflute.taglib.base.TaglibFragmentCache.CachedFragment;
+
+/**
+ * The tag to cache rendered output of the body, e.g. navigation header and footer. <br>
+ * The body is rendered once per key (and vary-by dimensions) and served from the fragment cache until TTL.
+ * <pre>
+ * &lt;la:cache key="header" ttl="600" varyByRole="admin,staff"&gt;
+ *     ... // rendered once per (key, user locale, roles) in 10 minutes
+ * &lt;/la:cache&gt;
+ * </pre>
+ * Only one request renders the body per key at a time, others wait for it (or use stale fragment if allowed). <br>
+ * The fragment is shared by all users of the key, so per-session output must not be inside this tag,
+ * e.g. la:form (transaction token) and la:token. When URL rewriting is used in the request (jsessionid in URLs),
+ * the body is rendered every time without the cache.
+ * @author jflute
+ */
+public class CacheFragmentTag extends BaseBodyTag implements TryCatchFinally {
+
+    private static final long serialVersionUID = 1L;
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    /** The default time to live of fragment in seconds. */
+    protected static final int DEFAULT_TTL = 300;
+
+    /** The max time to wait for other renderer in milliseconds, rendered by itself (not cached) if timeout. */
+    protected static final long RENDERING_WAIT_MILLIS = 3000L;
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected String key; // required
+    protected int ttl = DEFAULT_TTL; // seconds
+    protected int staleWhileRevalidate; // seconds after TTL, stale fragment is used while other renderer exists
+    protected boolean varyByLocale = true; // user locale
+    protected String varyByRole; // comma-separated roles, e.g. admin,staff
+    protected String varyByAttribute; // attribute name found in scopes, e.g. loginMemberType
+
+    // -----------------------------------------------------
+    //                                     Internal Handling
+    //                                     -----------------
+    protected String cacheKey; // null allowed: built in start tag
+    protected boolean renderer; // true if this tag has rendering lock of the key
+    protected boolean bodyRendering; // true if the body is rendered in this tag use (not served from cache)
+
+    // ===================================================================================
+    //                                                                           Start Tag
+    //                                                                           =========
+    @Override
+    public int doStartTag() throws JspException {
+        if (isUrlRewriting()) { // URLs contain session ID of the user, not shared (and not served others)
+            return renderBody();
+        }
+        cacheKey = buildCacheKey();
+        final TaglibFragmentCache cache = getFragmentCache();
+        final CachedFragment cached = cache.find(cacheKey);
+        final long currentTime = cache.currentTimeMillis();
+        if (cached != null && cached.isFresh(currentTime)) { // mostly here
+            write(cached.getContent());
+            return SKIP_BODY;
+        }
+        if (cache.beginRendering(cacheKey)) { // first request after expiration
+            renderer = true;
+            return renderBody();
+        }
+        if (cached != null && cached.isServableAsStale(currentTime)) { // other renderer is revalidating
+            write(cached.getContent());
+            return SKIP_BODY;
+        }
+        if (cache.awaitRendering(cacheKey, RENDERING_WAIT_MILLIS)) { // no stampede
+            final CachedFragment rendered = cache.find(cacheKey);
+            if (rendered != null && rendered.isFresh(cache.currentTimeMillis())) {
+                write(rendered.getContent());
+                return SKIP_BODY;
+            }
+        }
+        return renderBody(); // e.g. timeout or failure of other renderer, rendered but not cached
+    }
+
+    protected int renderBody() {
+        bodyRendering = true;
+        return EVAL_BODY_BUFFERED;
+    }
+
+    protected boolean isUrlRewriting() {
+        return getEnhanceLogic().getUrlBuilder(pageContext).isUrlRewriting();
+    }
+
+    protected String buildCacheKey() throws JspException {
+        if (key == null) {
+            throw new JspException("The attribute 'key' is required: " + buildErrorIdentity());
+        }
+        final StringBuilder sb = new StringBuilder(key.length() + 32);
+        sb.append(key);
+        if (varyByLocale) {
+            final Locale locale = getEnhanceLogic().getUserLocale(pageContext);
+            sb.append("|locale=").append(locale);
+        }
+        if (varyByRole != null) {
+            sb.append("|role=");
+            appendUserRoles(sb, (HttpServletRequest) pageContext.getRequest());
+        }
+        if (varyByAttribute != null) {
+            sb.append("|").append(varyByAttribute).append("=").append(pageContext.findAttribute(varyByAttribute));
+        }
+        return sb.toString();
+    }
+
+    protected void appendUserRoles(StringBuilder sb, HttpServletRequest request) {
+        int start = 0;
+        final int length = varyByRole.length();
+        while (start <= length) {
+            int end = varyByRole.indexOf(',', start);
+            if (end < 0) {
+                end = length;
+            }
+            final String role = varyByRole.substring(start, end).trim();
+            if (!role.isEmpty() && request.isUserInRole(role)) {
+                sb.append(role).append(',');
+            }
+            start = end + 1;
+        }
+    }
+
+    // ===================================================================================
+    //                                                                             End Tag
+    //                                                                             =======
+    @Override
+    public int doEndTag() throws JspException {
+        if (bodyRendering) { // not served from cache
+            final String content = extractBodyContent();
+            if (renderer) { // not if e.g. URL rewriting, timeout
+                getFragmentCache().store(cacheKey, content, ttl * 1000L, staleWhileRevalidate * 1000L);
+            }
+            write(content);
+        }
+        return EVAL_PAGE;
+    }
+
+    protected String extractBodyContent() {
+        return bodyContent != null ? bodyContent.getString() : ""; // null if empty body
+    }
+
+    // ===================================================================================
+    //                                                                       Catch/Finally
+    //                                                                       =============
+    @Override
+    public void doCatch(Throwable cause) throws Throwable {
+        throw cause; // not cached if failure
+    }
+
+    @Override
+    public void doFinally() {
+        if (renderer) { // also when exception, waiting requests are released
+            getFragmentCache().endRendering(cacheKey);
+        }
+        cacheKey = null;
+        renderer = false;
+        bodyRendering = false;
+    }
+
+    protected TaglibFragmentCache getFragmentCache() {
+        return getEnhanceLogic().getFragmentCache();
+    }
+
+    // ===================================================================================
+    //                                                                      Error Identity
+    //                                                                      ==============
+    @Override
+    protected String buildErrorIdentity() {
+        return "key=" + key + " tag=" + getClass().getName();
+    }
+
+    // ===================================================================================
+    //                                                                             Release
+    //                                                                             =======
+    @Override
+    public void release() {
+        super.release();
+        key = null;
+        ttl = DEFAULT_TTL;
+        staleWhileRevalidate = 0;
+        varyByLocale = true;
+        varyByRole = null;
+        varyByAttribute = null;
+        cacheKey = null;
+        renderer = false;
+        bodyRendering = false;
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public int getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(int ttl) {
+        this.ttl = ttl;
+    }
+
+    public int getStaleWhileRevalidate() {
+        return staleWhileRevalidate;
+    }
+
+    public void setStaleWhileRevalidate(int staleWhileRevalidate) {
+        this.staleWhileRevalidate = staleWhileRevalidate;
+    }
+
+    public boolean getVaryByLocale() {
+        return varyByLocale;
+    }
+
+    public void setVaryByLocale(boolean varyByLocale) {
+        this.varyByLocale = varyByLocale;
+    }
+
+    public String getVaryByRole() {
+        return varyByRole;
+    }
+
+    public void setVaryByRole(String varyByRole) {
+        this.varyByRole = varyByRole;
+    }
+
+    public String getVaryByAttribute() {
+        return varyByAttribute;
+    }
+
+    public void setVaryByAttribute(String varyByAttribute) {
+        this.varyByAttribute = varyByAttribute;
+    }
+}
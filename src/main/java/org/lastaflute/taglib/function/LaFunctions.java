@@ -38,18 +38,8 @@ public class LaFunctions {
     // ===================================================================================
     //                                                                          Definition
     //                                                                          ==========
-    private static final int HIGHEST_SPECIAL = '>';
     private static String BR = "<br />";
     private static String NBSP = "&nbsp;";
-    private static char[][] specialCharactersRepresentation = new char[HIGHEST_SPECIAL + 1][];
-
-    static {
-        specialCharactersRepresentation['&'] = "&amp;".toCharArray();
-        specialCharactersRepresentation['<'] = "&lt;".toCharArray();
-        specialCharactersRepresentation['>'] = "&gt;".toCharArray();
-        specialCharactersRepresentation['"'] = "&#034;".toCharArray();
-        specialCharactersRepresentation['\''] = "&#039;".toCharArray();
-    }
 
     private static final String VERSION = String.valueOf(System.currentTimeMillis());
 
@@ -96,34 +86,7 @@ public class LaFunctions {
     }
 
     protected static String escape(String buffer) {
-        int start = 0;
-        int length = buffer.length();
-        char[] arrayBuffer = buffer.toCharArray();
-        StringBuilder escapedBuffer = null;
-
-        for (int i = 0; i < length; i++) {
-            char c = arrayBuffer[i];
-            if (c <= HIGHEST_SPECIAL) {
-                char[] escaped = specialCharactersRepresentation[c];
-                if (escaped != null) {
-                    if (start == 0) {
-                        escapedBuffer = new StringBuilder(length + 5);
-                    }
-                    if (start < i) {
-                        escapedBuffer.append(arrayBuffer, start, i - start);
-                    }
-                    start = i + 1;
-                    escapedBuffer.append(escaped);
-                }
-            }
-        }
-        if (start == 0) {
-            return buffer;
-        }
-        if (start < length) {
-            escapedBuffer.append(arrayBuffer, start, length - start);
-        }
-        return escapedBuffer.toString();
+        return LaHtmlEscaper.JSTL.escape(buffer);
     }
 
     // ===================================================================================
@@ -154,13 +117,7 @@ public class LaFunctions {
             String msg = "The argument 'input' should start with slash '/': " + input;
             throw new IllegalArgumentException(msg);
         }
-        final String contextPath = LaRequestUtil.getRequest().getContextPath();
-        final StringBuilder sb = new StringBuilder();
-        if (contextPath.length() > 1) {
-            sb.append(contextPath);
-        }
-        sb.append(input);
-        return LaResponseUtil.getResponse().encodeURL(sb.toString());
+        return LaUrlBuilder.findBuilder(LaRequestUtil.getRequest(), LaResponseUtil.getResponse()).buildUrl(input);
     }
 
     // ===================================================================================
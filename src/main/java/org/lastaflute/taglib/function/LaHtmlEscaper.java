@@ -0,0 +1,157 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.function;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The escaper of HTML special characters (&amp;, &lt;, &gt;, &quot;, &#39;), shared by tags and functions. <br>
+ * It scans for the first special character by bit mask and returns the input as it is if clean,
+ * and it can escape directly into writer without creating escaped string.
+ * @author jflute
+ */
+public class LaHtmlEscaper {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    /** The escaper for tag values, e.g. filter() of enhance logic. (quote: &amp;quot;, apostrophe: &amp;#39;) */
+    public static final LaHtmlEscaper TAGLIB = new LaHtmlEscaper("&quot;", "&#39;");
+
+    /** The escaper for JSP functions, same as JSTL escapeXml. (quote: &amp;#034;, apostrophe: &amp;#039;) */
+    public static final LaHtmlEscaper JSTL = new LaHtmlEscaper("&#034;", "&#039;");
+
+    protected static final char HIGHEST_SPECIAL = '>'; // under 64 so mask can be long
+
+    /** The bit mask of special characters, which are all under 64. */
+    protected static final long SPECIAL_MASK = (1L << '&') | (1L << '<') | (1L << '>') | (1L << '"') | (1L << '\'');
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    /** The array of references indexed by special character. (NotNull, element NullAllowed) */
+    protected final String[] references = new String[HIGHEST_SPECIAL + 1];
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param quotReference The reference of double quotation, e.g. &amp;quot; (NotNull)
+     * @param aposReference The reference of single quotation, e.g. &amp;#39; (NotNull)
+     */
+    public LaHtmlEscaper(String quotReference, String aposReference) {
+        references['&'] = "&amp;";
+        references['<'] = "&lt;";
+        references['>'] = "&gt;";
+        references['"'] = quotReference;
+        references['\''] = aposReference;
+    }
+
+    // ===================================================================================
+    //                                                                        Find Special
+    //                                                                        ============
+    /**
+     * @param ch The character to be determined.
+     * @return The determination, true or false.
+     */
+    public static boolean isSpecial(char ch) {
+        return ch <= HIGHEST_SPECIAL && ((SPECIAL_MASK >>> ch) & 1L) != 0;
+    }
+
+    /**
+     * @param text The text to be scanned. (NotNull)
+     * @param fromIndex The index to start scanning.
+     * @return The index of first special character. (minus one if not found)
+     */
+    public static int indexOfSpecial(CharSequence text, int fromIndex) {
+        final int length = text.length();
+        for (int i = fromIndex; i < length; i++) {
+            if (isSpecial(text.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // ===================================================================================
+    //                                                                              Escape
+    //                                                                              ======
+    /**
+     * Escape the HTML special characters in the text.
+     * @param text The text to be escaped. (NullAllowed: if null, returns null)
+     * @return The escaped text, or the same instance as argument if no special character. (NullAllowed: when null text)
+     */
+    public String escape(String text) {
+        if (text == null) {
+            return null;
+        }
+        final int first = indexOfSpecial(text, 0);
+        if (first < 0) { // mostly here
+            return text;
+        }
+        final StringBuilder sb = new StringBuilder(text.length() + 16);
+        try {
+            doEscapeTo(sb, text, first);
+        } catch (IOException e) { // no way for string builder
+            throw new IllegalStateException("Failed to escape the text: " + text, e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Escape the HTML special characters in the text directly into the destination.
+     * @param out The destination of escaped text, e.g. JSP writer, string builder. (NotNull)
+     * @param text The text to be escaped. (NullAllowed: if null, writes nothing)
+     * @throws IOException When it fails to write to the destination.
+     */
+    public void escapeTo(Appendable out, CharSequence text) throws IOException {
+        if (text == null) {
+            return;
+        }
+        final int first = indexOfSpecial(text, 0);
+        if (first < 0) {
+            writeRun(out, text, 0, text.length());
+            return;
+        }
+        doEscapeTo(out, text, first);
+    }
+
+    protected void doEscapeTo(Appendable out, CharSequence text, int first) throws IOException {
+        final int length = text.length();
+        int start = 0;
+        for (int i = first; i < length; i++) {
+            final char ch = text.charAt(i);
+            if (isSpecial(ch)) {
+                writeRun(out, text, start, i);
+                out.append(references[ch]);
+                start = i + 1;
+            }
+        }
+        writeRun(out, text, start, length);
+    }
+
+    protected void writeRun(Appendable out, CharSequence text, int start, int end) throws IOException {
+        if (start >= end) {
+            return;
+        }
+        if (out instanceof Writer && text instanceof String) { // avoid sub-sequence of writer's append()
+            ((Writer) out).write((String) text, start, end - start);
+        } else {
+            out.append(text, start, end);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.function;
+
+import java.util.Set;
+
+import javax.servlet.ServletContext;
+import javax.servlet.SessionTrackingMode;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * The builder of context-path-prefixed URL, shared by link and form tags and functions. <br>
+ * One instance is saved in request attribute so the prefix and URL rewriting determination are resolved once per request,
+ * and it builds URL in reusable buffer (so not thread-safe and not reentrant, same as request).
+ * @author jflute
+ */
+public class LaUrlBuilder {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    /** The key of request attribute for the builder of current request. */
+    public static final String URL_BUILDER_KEY = LaUrlBuilder.class.getName();
+
+    protected static final int DEFAULT_BUFFER_CAPACITY = 128;
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final HttpServletResponse response; // not null
+    protected final String contextPrefix; // not null, empty if root context
+    protected final boolean urlRewriting; // true if encodeURL() may change URL
+    protected final StringBuilder buffer = new StringBuilder(DEFAULT_BUFFER_CAPACITY); // reused in request
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param request The request of current thread. (NotNull)
+     * @param response The response of current thread. (NotNull)
+     */
+    public LaUrlBuilder(HttpServletRequest request, HttpServletResponse response) {
+        this.response = response;
+        this.contextPrefix = resolveContextPrefix(request);
+        this.urlRewriting = determineUrlRewriting(request);
+    }
+
+    protected String resolveContextPrefix(HttpServletRequest request) {
+        final String contextPath = request.getContextPath();
+        return contextPath != null && contextPath.length() > 1 ? contextPath : ""; // root context is "" or "/"
+    }
+
+    protected boolean determineUrlRewriting(HttpServletRequest request) {
+        if (request.isRequestedSessionIdFromCookie()) { // containers do not rewrite URL for cookie session
+            return false;
+        }
+        final ServletContext servletContext = request.getServletContext();
+        if (servletContext == null) { // unknown so encode it
+            return true;
+        }
+        final Set<SessionTrackingMode> modes = servletContext.getEffectiveSessionTrackingModes();
+        return modes == null || modes.contains(SessionTrackingMode.URL);
+    }
+
+    // ===================================================================================
+    //                                                                        Find Builder
+    //                                                                        ============
+    /**
+     * Find the builder of current request, which is created at first call in the request.
+     * @param request The request of current thread. (NotNull)
+     * @param response The response of current thread. (NotNull)
+     * @return The builder saved in request attribute. (NotNull)
+     */
+    public static LaUrlBuilder findBuilder(HttpServletRequest request, HttpServletResponse response) {
+        final Object existing = request.getAttribute(URL_BUILDER_KEY);
+        if (existing instanceof LaUrlBuilder) {
+            return (LaUrlBuilder) existing;
+        }
+        final LaUrlBuilder builder = new LaUrlBuilder(request, response);
+        request.setAttribute(URL_BUILDER_KEY, builder);
+        return builder;
+    }
+
+    // ===================================================================================
+    //                                                                           Build URL
+    //                                                                           =========
+    /**
+     * Begin building URL in the reused buffer, which already has the context path prefix. <br>
+     * The buffer is valid until next begin so call {@link #finish(StringBuilder)} before it.
+     * @return The buffer having the context path prefix. (NotNull)
+     */
+    public StringBuilder begin() {
+        buffer.setLength(0);
+        return buffer.append(contextPrefix);
+    }
+
+    /**
+     * @param sb The buffer returned by {@link #begin()}. (NotNull)
+     * @return The URL encoded if URL rewriting is active. (NotNull)
+     */
+    public String finish(StringBuilder sb) {
+        return encode(sb.toString());
+    }
+
+    /**
+     * @param path The path from context root, e.g. /member/list/ (NotNull)
+     * @return The URL with context path, encoded if URL rewriting is active. (NotNull)
+     */
+    public String buildUrl(String path) {
+        return finish(begin().append(path));
+    }
+
+    /**
+     * @param url The URL to be encoded. (NotNull)
+     * @return The URL encoded by response if URL rewriting is active, or the URL as it is. (NotNull)
+     */
+    public String encode(String url) {
+        return urlRewriting ? response.encodeURL(url) : url;
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public String getContextPrefix() {
+        return contextPrefix;
+    }
+
+    public boolean isUrlRewriting() {
+        return urlRewriting;
+    }
+}
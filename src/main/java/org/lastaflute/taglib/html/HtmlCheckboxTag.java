@@ -18,6 +18,7 @@ package org.lastaflute.taglib.html;
 import javax.servlet.jsp.JspException;
 
 import org.lastaflute.taglib.base.BaseTouchableBodyTag;
+import org.lastaflute.taglib.base.TagMarkupWriter;
 import org.lastaflute.taglib.base.TaglibAttributeKey;
 
 /**
@@ -40,19 +41,19 @@ public class HtmlCheckboxTag extends BaseTouchableBodyTag {
     //                                                                           =========
     @Override
     public int doStartTag() throws JspException {
-        final StringBuilder sb = new StringBuilder("<input type=\"checkbox\"");
-        prepareAttribute(sb, "name", prepareName());
-        prepareAttribute(sb, "accesskey", getAccesskey());
-        prepareAttribute(sb, "tabindex", getTabindex());
-        prepareAttribute(sb, "value", getValue());
+        final TagMarkupWriter writer = createMarkupWriter();
+        writer.append("<input type=\"checkbox\"");
+        prepareNameAttribute(writer);
+        prepareAttribute(writer, "accesskey", getAccesskey());
+        prepareAttribute(writer, "tabindex", getTabindex());
+        prepareAttribute(writer, "value", getValue());
         if (isChecked()) {
-            sb.append(" checked=\"checked\"");
+            writer.flag("checked");
         }
-        sb.append(prepareEventHandlers());
-        sb.append(prepareStyles());
-        prepareOtherAttributes(sb);
-        sb.append(">"); // HTML5 style
-        write(sb.toString());
+        prepareEventHandlers(writer);
+        prepareStyles(writer);
+        prepareOtherAttributes(writer);
+        writer.append('>'); // HTML5 style
         this.text = null;
         return EVAL_BODY_BUFFERED;
     }
@@ -63,10 +64,7 @@ public class HtmlCheckboxTag extends BaseTouchableBodyTag {
             return null;
         }
         if (indexed) {
-            final StringBuilder sb = new StringBuilder();
-            prepareIndex(sb, name);
-            sb.append(property);
-            return sb.toString();
+            return buildIndexedName(name, property);
         }
         return property;
     }
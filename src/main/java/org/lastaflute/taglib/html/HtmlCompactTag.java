@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.html;
+
+import java.io.IOException;
+
+import javax.servlet.jsp.JspException;
+
+import org.lastaflute.taglib.base.BaseBodyTag;
+import org.lastaflute.taglib.base.TaglibWhitespaceCollapsingWriter;
+
+/**
+ * The tag to collapse whitespace runs of the body markup, e.g. indented loops of rows. <br>
+ * The body is streamed to the enclosing writer through {@link TaglibWhitespaceCollapsingWriter},
+ * so content of pre, textarea, script and style is kept as it is.
+ * <pre>
+ * &lt;la:compact&gt;
+ *     &lt;c:forEach var="row" items="${rows}"&gt;
+ *         &lt;tr&gt;...&lt;/tr&gt; // indent and blank lines are collapsed
+ *     &lt;/c:forEach&gt;
+ * &lt;/la:compact&gt;
+ * </pre>
+ * It can be nested in cache tag to cache the collapsed fragment.
+ * @author jflute
+ */
+public class HtmlCompactTag extends BaseBodyTag {
+
+    private static final long serialVersionUID = 1L;
+
+    // ===================================================================================
+    //                                                                           Start Tag
+    //                                                                           =========
+    @Override
+    public int doStartTag() throws JspException {
+        return EVAL_BODY_BUFFERED;
+    }
+
+    // ===================================================================================
+    //                                                                             End Tag
+    //                                                                             =======
+    @Override
+    public int doEndTag() throws JspException {
+        if (bodyContent != null) { // null if empty body
+            final TaglibWhitespaceCollapsingWriter writer = new TaglibWhitespaceCollapsingWriter(bodyContent.getEnclosingWriter());
+            try {
+                bodyContent.writeOut(writer); // streamed, no string of whole body
+                writer.finish();
+            } catch (IOException e) {
+                String msg = "Failed to print the body by the writer: writer=" + writer + " tag=" + buildErrorIdentity();
+                throw new IllegalStateException(msg, e);
+            }
+        }
+        return EVAL_PAGE;
+    }
+
+    // ===================================================================================
+    //                                                                      Error Identity
+    //                                                                      ==============
+    @Override
+    protected String buildErrorIdentity() {
+        return "tag=" + getClass().getName();
+    }
+}
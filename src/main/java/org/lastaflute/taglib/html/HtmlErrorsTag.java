@@ -87,30 +87,34 @@ public class HtmlErrorsTag extends BaseNonBodyTag {
         final boolean footerPresent = present(getFooter());
         final boolean prefixPresent = present(getPrefix());
         final boolean suffixPresent = present(getSuffix());
-        final StringBuilder results = new StringBuilder();
-        boolean headerDone = false;
-        final Iterator<UserMessage> reports = toMessageIterator(errors);
-        while (reports.hasNext()) {
-            final UserMessage report = reports.next();
-            if (!headerDone) {
-                setupHeader(headerPresent, results);
-                headerDone = true;
-            }
-            final String mainMessage = prepareMainMessage(report);
-            if (!isSuppressMessageLine(results, report, mainMessage)) {
-                if (prefixPresent) {
-                    setupPrefix(results, mainMessage);
+        final StringBuilder results = borrowRenderBuffer(); // reused by tags in the request
+        try {
+            boolean headerDone = false;
+            final Iterator<UserMessage> reports = toMessageIterator(errors);
+            while (reports.hasNext()) {
+                final UserMessage report = reports.next();
+                if (!headerDone) {
+                    setupHeader(headerPresent, results);
+                    headerDone = true;
                 }
-                setupMessage(results, report, mainMessage);
-                if (suffixPresent) {
-                    setupSuffix(results, mainMessage);
+                final String mainMessage = prepareMainMessage(report);
+                if (!isSuppressMessageLine(results, report, mainMessage)) {
+                    if (prefixPresent) {
+                        setupPrefix(results, mainMessage);
+                    }
+                    setupMessage(results, report, mainMessage);
+                    if (suffixPresent) {
+                        setupSuffix(results, mainMessage);
+                    }
                 }
             }
+            if (headerDone && footerPresent) {
+                setupFooter(results);
+            }
+            return results.toString();
+        } finally {
+            giveBackRenderBuffer(results);
         }
-        if (headerDone && footerPresent) {
-            setupFooter(results);
-        }
-        return results.toString();
     }
 
     protected Iterator<UserMessage> toMessageIterator(UserMessages errors) {
@@ -20,7 +20,9 @@ import javax.servlet.jsp.PageContext;
 
 import org.dbflute.optional.OptionalThingFunction;
 import org.lastaflute.taglib.base.BaseNonBodyTag;
+import org.lastaflute.taglib.base.TagMarkupWriter;
 import org.lastaflute.taglib.base.TaglibAttributeKey;
+import org.lastaflute.taglib.base.TaglibRenderContext;
 import org.lastaflute.web.LastaWebKey;
 import org.lastaflute.web.ruts.config.ActionMapping;
 import org.lastaflute.web.ruts.config.ModuleConfig;
@@ -69,12 +71,12 @@ public abstract class HtmlFormTag extends BaseNonBodyTag {
     public int doStartTag() throws JspException {
         lookup();
 
-        final StringBuilder sb = new StringBuilder();
-        sb.append(renderFormStartElement());
-        sb.append(renderToken());
-        write(sb.toString());
+        final TagMarkupWriter writer = createMarkupWriter();
+        renderFormStartElement(writer);
+        writer.append(renderToken());
 
         pageContext.setAttribute(TaglibAttributeKey.FORM_KEY, this, PageContext.REQUEST_SCOPE);
+        getRenderContext().pushForm(this); // for fields in the form without attribute lookup
 
         initFormBean();
         return EVAL_BODY_INCLUDE;
@@ -84,31 +86,30 @@ public abstract class HtmlFormTag extends BaseNonBodyTag {
 
     protected abstract void initFormBean() throws JspException;
 
-    protected String renderFormStartElement() {
-        final StringBuilder sb = new StringBuilder("<form");
-        renderName(sb);
-        renderAttribute(sb, "method", getMethod() == null ? "post" : getMethod());
-        renderAction(sb);
-        renderAttribute(sb, "accept-charset", getAcceptCharset());
-        renderAttribute(sb, "class", getStyleClass());
-        renderAttribute(sb, "enctype", getEnctype());
-        renderAttribute(sb, "onreset", getOnreset());
-        renderAttribute(sb, "onsubmit", getOnsubmit());
-        renderAttribute(sb, "style", getStyle());
-        renderAttribute(sb, "target", getTarget());
-        renderOtherAttributes(sb);
-        sb.append(">"); // HTML5 style
-        return sb.toString();
+    protected void renderFormStartElement(TagMarkupWriter writer) {
+        writer.append("<form");
+        renderName(writer);
+        renderAttribute(writer, "method", getMethod() == null ? "post" : getMethod());
+        renderAction(writer);
+        renderAttribute(writer, "accept-charset", getAcceptCharset());
+        renderAttribute(writer, "class", getStyleClass());
+        renderAttribute(writer, "enctype", getEnctype());
+        renderAttribute(writer, "onreset", getOnreset());
+        renderAttribute(writer, "onsubmit", getOnsubmit());
+        renderAttribute(writer, "style", getStyle());
+        renderAttribute(writer, "target", getTarget());
+        renderOtherAttributes(writer);
+        writer.append('>'); // HTML5 style
     }
 
-    protected void renderName(StringBuilder sb) {
-        renderAttribute(sb, "name", beanName);
-        renderAttribute(sb, "id", getStyleId());
+    protected void renderName(TagMarkupWriter writer) {
+        renderAttribute(writer, "name", beanName);
+        renderAttribute(writer, "id", getStyleId());
     }
 
-    protected abstract void renderAction(StringBuilder sb);
+    protected abstract void renderAction(TagMarkupWriter writer);
 
-    protected void renderOtherAttributes(StringBuilder s) {
+    protected void renderOtherAttributes(TagMarkupWriter writer) {
     }
 
     protected String renderToken() {
@@ -131,10 +132,8 @@ public abstract class HtmlFormTag extends BaseNonBodyTag {
         }).orElse("");
     }
 
-    protected void renderAttribute(StringBuilder sb, String attribute, String value) {
-        if (value != null) {
-            sb.append(" ").append(attribute).append("=\"").append(value).append("\"");
-        }
+    protected void renderAttribute(TagMarkupWriter writer, String attribute, String value) {
+        writer.attribute(attribute, value); // writes nothing if null
     }
 
     // ===================================================================================
@@ -143,60 +142,69 @@ public abstract class HtmlFormTag extends BaseNonBodyTag {
     @Override
     public int doEndTag() throws JspException {
         pageContext.removeAttribute(TaglibAttributeKey.BEAN_KEY, PageContext.REQUEST_SCOPE);
-        pageContext.removeAttribute(TaglibAttributeKey.FORM_KEY, PageContext.REQUEST_SCOPE);
+        final TaglibRenderContext context = getRenderContext();
+        context.popForm();
+        final HtmlFormTag outerForm = context.getCurrentForm();
+        if (outerForm != null) { // nested form
+            pageContext.setAttribute(TaglibAttributeKey.FORM_KEY, outerForm, PageContext.REQUEST_SCOPE);
+        } else {
+            pageContext.removeAttribute(TaglibAttributeKey.FORM_KEY, PageContext.REQUEST_SCOPE);
+        }
 
-        final StringBuilder sb = new StringBuilder("</form>");
+        final TagMarkupWriter writer = createMarkupWriter();
+        writer.append("</form>");
         if (focus != null) {
-            sb.append(renderFocusJavascript());
+            renderFocusJavascript(writer);
         }
-        write(sb.toString());
         return EVAL_PAGE;
     }
 
-    protected String renderFocusJavascript() {
-        final StringBuilder results = new StringBuilder();
-        results.append(lineEnd);
-        results.append("<script type=\"text/javascript\"");
+    protected void renderFocusJavascript(TagMarkupWriter writer) {
+        if (isCompactOutput()) {
+            renderCompactFocusJavascript(writer);
+            return;
+        }
+        writer.append(lineEnd);
+        writer.append("<script type=\"text/javascript\"");
         if (this.scriptLanguage) {
-            results.append(" language=\"JavaScript\"");
+            writer.append(" language=\"JavaScript\"");
+        }
+        writer.append(">");
+        writer.append(lineEnd);
+        writer.append("  <!--");
+        writer.append(lineEnd);
+
+        writer.append("  var focusControl = ");
+        writer.append("document.forms[\"").append(beanName).append("\"].elements[\"").append(this.focus).append("\"]");
+        writer.append(";");
+        writer.append(lineEnd);
+        writer.append(lineEnd);
+        writer.append("  if (focusControl.type != \"hidden\" && !focusControl.disabled) {");
+        writer.append(lineEnd);
+
+        writer.append("     focusControl");
+        if (this.focusIndex != null) {
+            writer.append('[').append(this.focusIndex).append(']');
         }
-        results.append(">");
-        results.append(lineEnd);
-        results.append("  <!--");
-        results.append(lineEnd);
-        final StringBuilder focusControl = new StringBuilder("document.forms[\"");
-        focusControl.append(beanName);
-        focusControl.append("\"].elements[\"");
-        focusControl.append(this.focus);
-        focusControl.append("\"]");
-
-        results.append("  var focusControl = ");
-        results.append(focusControl.toString());
-        results.append(";");
-        results.append(lineEnd);
-        results.append(lineEnd);
-        results.append("  if (focusControl.type != \"hidden\" && !focusControl.disabled) {");
-        results.append(lineEnd);
-
-        String index = "";
+        writer.append(".focus();");
+        writer.append(lineEnd);
+        writer.append("  }");
+        writer.append(lineEnd);
+
+        writer.append("  // -->");
+        writer.append(lineEnd);
+        writer.append("</script>");
+        writer.append(lineEnd);
+    }
+
+    protected void renderCompactFocusJavascript(TagMarkupWriter writer) { // same behavior in one line
+        writer.append("<script>var focusControl = ");
+        writer.append("document.forms[\"").append(beanName).append("\"].elements[\"").append(this.focus).append("\"]");
+        writer.append(";if (focusControl.type != \"hidden\" && !focusControl.disabled) {focusControl");
         if (this.focusIndex != null) {
-            StringBuilder sb = new StringBuilder("[");
-            sb.append(this.focusIndex);
-            sb.append("]");
-            index = sb.toString();
+            writer.append('[').append(this.focusIndex).append(']');
         }
-        results.append("     focusControl");
-        results.append(index);
-        results.append(".focus();");
-        results.append(lineEnd);
-        results.append("  }");
-        results.append(lineEnd);
-
-        results.append("  // -->");
-        results.append(lineEnd);
-        results.append("</script>");
-        results.append(lineEnd);
-        return results.toString();
+        writer.append(".focus();}</script>");
     }
 
     // ===================================================================================
@@ -48,14 +48,10 @@ public class HtmlHiddenTag extends BaseTouchableFieldTag {
         if (!write) {
             return EVAL_BODY_BUFFERED;
         }
-        final String results;
-        if (value != null) {
-            results = getEnhanceLogic().filter(value);
-        } else {
-            final Object value = lookupProperty(name, property);
-            results = value != null ? getEnhanceLogic().filter(value.toString()) : "";
+        final Object results = value != null ? value : lookupProperty(name, property);
+        if (results != null) {
+            getEnhanceLogic().escapeTo(pageContext.getOut(), results.toString());
         }
-        write(results);
         return EVAL_BODY_BUFFERED;
     }
 
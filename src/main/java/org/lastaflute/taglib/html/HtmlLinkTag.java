@@ -15,30 +15,22 @@
  */
 package org.lastaflute.taglib.html;
 
-import java.io.IOException;
-
-import javax.servlet.ServletException;
 import javax.servlet.jsp.JspException;
 
 import org.dbflute.helper.message.ExceptionMessageBuilder;
 import org.dbflute.optional.OptionalThingConsumer;
-import org.lastaflute.core.util.ContainerUtil;
 import org.lastaflute.di.util.LdiStringUtil;
 import org.lastaflute.taglib.base.BaseTouchableBodyTag;
+import org.lastaflute.taglib.base.TagMarkupWriter;
+import org.lastaflute.taglib.base.TaglibActionPathCache.ResolvedActionPath;
 import org.lastaflute.taglib.base.TaglibEnhanceLogic;
 import org.lastaflute.taglib.exception.TaglibLinkActionNotFoundException;
+import org.lastaflute.taglib.function.LaUrlBuilder;
 import org.lastaflute.web.LastaWebKey;
-import org.lastaflute.web.path.ActionFoundPathHandler;
 import org.lastaflute.web.path.ActionPathResolver;
-import org.lastaflute.web.path.MappingPathResource;
-import org.lastaflute.web.path.RoutingParamPath;
-import org.lastaflute.web.ruts.config.ActionExecute;
-import org.lastaflute.web.servlet.request.RequestManager;
 import org.lastaflute.web.servlet.session.SessionManager;
 import org.lastaflute.web.token.DoubleSubmitTokenMap;
 import org.lastaflute.web.util.LaActionRuntimeUtil;
-import org.lastaflute.web.util.LaRequestUtil;
-import org.lastaflute.web.util.LaResponseUtil;
 
 /**
  * @author modified by jflute (originated in Struts)
@@ -82,19 +74,19 @@ public class HtmlLinkTag extends BaseTouchableBodyTag {
     //                                                                           =========
     @Override
     public int doStartTag() throws JspException {
-        final StringBuilder sb = new StringBuilder("<a");
-        prepareAttribute(sb, "name", getLinkName());
+        final TagMarkupWriter writer = createMarkupWriter();
+        writer.append("<a");
+        prepareAttribute(writer, "name", getLinkName());
         if (getLinkName() == null || getHref() != null || getPage() != null || getAction() != null) {
-            prepareAttribute(sb, "href", calculateURL());
+            prepareAttribute(writer, "href", calculateURL());
         }
-        prepareAttribute(sb, "target", getTarget());
-        prepareAttribute(sb, "accesskey", getAccesskey());
-        prepareAttribute(sb, "tabindex", getTabindex());
-        sb.append(prepareStyles());
-        sb.append(prepareEventHandlers());
-        prepareOtherAttributes(sb);
-        sb.append(">");
-        getEnhanceLogic().write(pageContext, sb.toString());
+        prepareAttribute(writer, "target", getTarget());
+        prepareAttribute(writer, "accesskey", getAccesskey());
+        prepareAttribute(writer, "tabindex", getTabindex());
+        prepareStyles(writer);
+        prepareEventHandlers(writer);
+        prepareOtherAttributes(writer);
+        writer.append('>');
         text = null;
         return EVAL_BODY_BUFFERED;
     }
@@ -119,9 +111,7 @@ public class HtmlLinkTag extends BaseTouchableBodyTag {
     @Override
     public int doEndTag() throws JspException {
         // Prepare the textual content and ending element of this hyperlink
-        final StringBuilder sb = new StringBuilder();
-        sb.append(text != null ? text : "").append("</a>");
-        getEnhanceLogic().write(pageContext, sb.toString());
+        createMarkupWriter().append(text).append("</a>");
         return EVAL_PAGE;
     }
 
@@ -135,8 +125,19 @@ public class HtmlLinkTag extends BaseTouchableBodyTag {
         if (href.indexOf(':') > -1) {
             throw new IllegalStateException("Unsupported colon in href: " + href);
         }
-        final StringBuilder sb = new StringBuilder();
         final String hrefUrl = buildHrefUrl(href);
+        if (!transaction && anchor == null && LdiStringUtil.isBlank(lang)) { // mostly here
+            return hrefUrl;
+        }
+        final StringBuilder sb = borrowRenderBuffer();
+        try {
+            return buildDecoratedURL(sb, hrefUrl);
+        } finally {
+            giveBackRenderBuffer(sb);
+        }
+    }
+
+    protected String buildDecoratedURL(final StringBuilder sb, final String hrefUrl) throws JspException {
         sb.append(hrefUrl); // not null
         if (transaction) {
             final SessionManager manager = getRequestManager().getSessionManager();
@@ -173,11 +174,8 @@ public class HtmlLinkTag extends BaseTouchableBodyTag {
     }
 
     protected String buildHrefUrl(String input) {
-        final String contextPath = LaRequestUtil.getRequest().getContextPath();
-        final StringBuilder sb = new StringBuilder();
-        if (contextPath.length() > 1) {
-            sb.append(contextPath);
-        }
+        final LaUrlBuilder urlBuilder = getEnhanceLogic().getUrlBuilder(pageContext);
+        final StringBuilder sb = urlBuilder.begin(); // already has context path
         if (LdiStringUtil.isEmpty(input)) {
             sb.append(calculateActionPathByJspPath(getRequestPath()));
         } else if (!input.startsWith("/")) { // add/, ../add/
@@ -186,7 +184,7 @@ public class HtmlLinkTag extends BaseTouchableBodyTag {
         } else { // /member/list/
             resolveAbsolutePath(input, sb);
         }
-        return LaResponseUtil.getResponse().encodeURL(sb.toString());
+        return urlBuilder.finish(sb);
     }
 
     protected void resolveAbsolutePath(String input, StringBuilder sb) {
@@ -195,11 +193,14 @@ public class HtmlLinkTag extends BaseTouchableBodyTag {
         final String queryString = paramMarkIndex >= 0 ? input.substring(paramMarkIndex) : "";
         final ActionPathResolver resolver = getActionResolver();
         try {
-            final ActionFoundPathHandler handler = createActionPathHandler(sb, path, queryString);
-            final boolean handled = resolver.handleActionPath(path, handler).isPathHandled();
-            if (!handled) {
+            final ResolvedActionPath resolved = getEnhanceLogic().resolveActionPath(resolver, path); // cached
+            if (!resolved.isHandled()) {
                 throwLinkActionNotFoundException(path, queryString);
             }
+            // not use actionPath because the path may have prefix
+            // see the form tag class for the details
+            sb.append(appendSlashRearIfNeeds(path)); // rear slash is added automatically
+            sb.append(queryString);
         } catch (Exception e) {
             if (e instanceof RuntimeException) {
                 throw (RuntimeException) e;
@@ -210,20 +211,6 @@ public class HtmlLinkTag extends BaseTouchableBodyTag {
         }
     }
 
-    protected ActionFoundPathHandler createActionPathHandler(final StringBuilder sb, final String path, final String queryString) {
-        return new ActionFoundPathHandler() {
-            @Override
-            public boolean handleActionPath(MappingPathResource pathResource, String actionName, RoutingParamPath paramPath,
-                    ActionExecute methodByParam) throws IOException, ServletException {
-                // not use actionPath because the path may have prefix
-                // see the form tag class for the details
-                sb.append(appendSlashRearIfNeeds(path)); // rear slash is added automatically
-                sb.append(queryString);
-                return true;
-            }
-        }; // not lambda for jetty6
-    }
-
     protected String appendSlashRearIfNeeds(final String str) {
         if (str.contains("?")) { // contains query string so rear slash unneeded
             return str;
@@ -271,7 +258,7 @@ public class HtmlLinkTag extends BaseTouchableBodyTag {
     }
 
     protected String calculateActionPathByJspPath(String requestPath) {
-        return getActionResolver().calculateActionPathByJspPath(requestPath);
+        return getEnhanceLogic().calculateActionPathByJspPath(getActionResolver(), requestPath); // cached
     }
 
     protected String getRequestPath() {
@@ -281,12 +268,8 @@ public class HtmlLinkTag extends BaseTouchableBodyTag {
     // ===================================================================================
     //                                                                           Component
     //                                                                           =========
-    protected RequestManager getRequestManager() {
-        return ContainerUtil.getComponent(RequestManager.class);
-    }
-
     protected ActionPathResolver getActionResolver() {
-        return ContainerUtil.getComponent(ActionPathResolver.class);
+        return getRenderContext().getActionPathResolver();
     }
 
     // ===================================================================================
@@ -15,11 +15,10 @@
  */
 package org.lastaflute.taglib.html;
 
-import java.util.function.Supplier;
-
 import javax.servlet.jsp.JspException;
 
 import org.lastaflute.taglib.base.BaseTouchableBodyTag;
+import org.lastaflute.taglib.base.TagMarkupWriter;
 import org.lastaflute.taglib.base.TaglibAttributeKey;
 
 /**
@@ -70,39 +69,35 @@ public class HtmlMultiboxTag extends BaseTouchableBodyTag {
     //                                                                             =======
     @Override
     public int doEndTag() throws JspException {
-        final StringBuilder sb = new StringBuilder("<input type=\"checkbox\"");
-        prepareAttribute(sb, "name", prepareName());
-        prepareAttribute(sb, "accesskey", getAccesskey());
-        prepareAttribute(sb, "tabindex", getTabindex());
-        String value = prepareValue(sb);
-        prepareChecked(sb, value);
-        sb.append(prepareEventHandlers());
-        sb.append(prepareStyles());
-        prepareOtherAttributes(sb);
-        sb.append(">"); // HTML5 style
-        write(sb.toString());
+        final TagMarkupWriter writer = createMarkupWriter();
+        writer.append("<input type=\"checkbox\"");
+        prepareNameAttribute(writer);
+        prepareAttribute(writer, "accesskey", getAccesskey());
+        prepareAttribute(writer, "tabindex", getTabindex());
+        String value = prepareValue(writer);
+        prepareChecked(writer, value);
+        prepareEventHandlers(writer);
+        prepareStyles(writer);
+        prepareOtherAttributes(writer);
+        writer.append('>'); // HTML5 style
         return EVAL_PAGE;
     }
 
-    protected String prepareValue(StringBuilder sb) throws JspException {
+    protected String prepareValue(TagMarkupWriter writer) throws JspException {
         String value = (this.value == null) ? this.constant : this.value;
         if (value == null) {
             throw new IllegalStateException("Not found the value for multibox: " + name);
         }
-        prepareAttribute(sb, "value", getEnhanceLogic().filter(value));
+        prepareAttribute(writer, "value", getEnhanceLogic().filter(value));
         return value;
     }
 
-    protected void prepareChecked(StringBuilder sb, String value) throws JspException {
+    protected void prepareChecked(TagMarkupWriter writer, String value) throws JspException {
         final Object bean = lookupBean(name);
-        final String[] values = getEnhanceLogic().getPropertyAsStringArray(bean, property, new Supplier<Object>() {
-            public Object get() {
-                return "multiboxTag name=" + name;
-            }
-        });
+        final String[] values = getEnhanceLogic().getPropertyAsStringArray(bean, property, prepareCallerInfo());
         for (int i = 0; i < values.length; i++) {
             if (value.equals(values[i])) {
-                sb.append(" checked=\"checked\"");
+                writer.flag("checked");
                 break;
             }
         }
@@ -16,14 +16,19 @@
 package org.lastaflute.taglib.html;
 
 import java.util.List;
-import java.util.function.Supplier;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.servlet.jsp.JspException;
 
 import org.dbflute.jdbc.Classification;
 import org.dbflute.jdbc.ClassificationMeta;
 import org.dbflute.util.Srl;
+import org.lastaflute.core.smartdeploy.ManagedHotdeploy;
+import org.lastaflute.db.dbflute.classification.ListedClassificationProvider;
 import org.lastaflute.taglib.base.BaseNonBodyTag;
+import org.lastaflute.taglib.base.TagMarkupWriter;
 import org.lastaflute.taglib.base.TaglibEnhanceLogic;
 import org.lastaflute.taglib.exception.TaglibClassificationNotFoundException;
 
@@ -40,6 +45,16 @@ public class HtmlOptionClsTag extends BaseNonBodyTag {
     //                                                                          ==========
     public static final String GROUP_DELIMITER = ".";
 
+    /** The cache of rendered options keyed by name (with group) and alias key, bounded by classification definitions. (NotNull) */
+    protected static final Map<RenderedOptionsKey, RenderedOptions> renderedOptionsCache =
+            new ConcurrentHashMap<RenderedOptionsKey, RenderedOptions>();
+
+    /** The provider that the cached options are rendered by, to clear the cache when it is switched. (NullAllowed) */
+    protected static volatile ListedClassificationProvider cachedProvider;
+
+    /** The hot deploy count when the options are cached, to clear the cache when reloaded. */
+    protected static volatile int cachedHotdeployCount;
+
     // ===================================================================================
     //                                                                           Attribute
     //                                                                           =========
@@ -60,18 +75,73 @@ public class HtmlOptionClsTag extends BaseNonBodyTag {
     //                                                                             =======
     @Override
     public int doEndTag() throws JspException {
-        final TaglibEnhanceLogic logic = getEnhanceLogic();
-        final StringBuilder sb = new StringBuilder();
         final HtmlSelectTag selectTag = selectTag();
-        for (Classification cls : classificationList()) {
-            final String code = cls.code();
-            final String alias = logic.findClassificationAlias(cls);
-            addOption(sb, code, alias, selectTag.isMatched(code));
+        final RenderedOptions options = findRenderedOptions();
+        final TagMarkupWriter writer = createMarkupWriter();
+        final boolean lineSeparated = !isCompactOutput(); // not in fragments, shared by both modes
+        final int size = options.size();
+        for (int i = 0; i < size; i++) {
+            writer.append(options.getOpenFragment(i));
+            if (selectTag.isMatched(options.getCode(i))) {
+                writer.flag("selected");
+            }
+            writer.attribute("style", style).attribute("class", styleClass); // not in fragments, may be runtime expression
+            writer.append(options.getCloseFragment(i));
+            if (lineSeparated) {
+                writer.append('\n');
+            }
         }
-        write(sb.toString());
         return EVAL_PAGE;
     }
 
+    // -----------------------------------------------------
+    //                                      Rendered Options
+    //                                      ----------------
+    protected RenderedOptions findRenderedOptions() {
+        final TaglibEnhanceLogic logic = getEnhanceLogic();
+        final ListedClassificationProvider provider = logic.getListedClassificationProvider(pageContext);
+        final String aliasKey = logic.determineClassificationAliasKey(pageContext).orElse(null);
+        clearRenderedOptionsIfReloaded(provider);
+        final RenderedOptionsKey cacheKey = buildRenderedOptionsCacheKey(aliasKey);
+        RenderedOptions options = renderedOptionsCache.get(cacheKey);
+        if (options == null || options.getProvider() != provider) { // not yet or hot-deployed provider
+            options = prepareRenderedOptions(provider);
+            renderedOptionsCache.put(cacheKey, options);
+        }
+        return options;
+    }
+
+    protected RenderedOptionsKey buildRenderedOptionsCacheKey(String aliasKey) {
+        return new RenderedOptionsKey(name, aliasKey); // group is included in name
+    }
+
+    protected void clearRenderedOptionsIfReloaded(ListedClassificationProvider provider) {
+        // old provider (and its class loader) is not kept by the cache after hot deploy
+        final int currentCount = ManagedHotdeploy.isHotdeploy() ? ManagedHotdeploy.getHotdeployCount() : 0;
+        if (cachedProvider != provider || cachedHotdeployCount != currentCount) {
+            cachedProvider = provider;
+            cachedHotdeployCount = currentCount; // before clearing, same as other caches
+            renderedOptionsCache.clear();
+        }
+    }
+
+    protected RenderedOptions prepareRenderedOptions(ListedClassificationProvider provider) {
+        final TaglibEnhanceLogic logic = getEnhanceLogic();
+        final List<Classification> clsList = classificationList();
+        final int size = clsList.size();
+        final String[] codes = new String[size];
+        final String[] openFragments = new String[size];
+        final String[] closeFragments = new String[size];
+        for (int i = 0; i < size; i++) {
+            final Classification cls = clsList.get(i);
+            final String code = cls.code();
+            codes[i] = code;
+            openFragments[i] = buildOptionOpenFragment(code);
+            closeFragments[i] = buildOptionCloseFragment(logic.findClassificationAlias(pageContext, cls));
+        }
+        return new RenderedOptions(provider, codes, openFragments, closeFragments);
+    }
+
     protected List<Classification> classificationList() {
         final String delimiter = GROUP_DELIMITER;
         final String pureName;
@@ -83,11 +153,7 @@ public class HtmlOptionClsTag extends BaseNonBodyTag {
             pureName = name;
             groupName = null;
         }
-        final ClassificationMeta meta = getEnhanceLogic().findClassificationMeta(pureName, new Supplier<Object>() {
-            public Object get() {
-                return buildErrorIdentity();
-            }
-        }); // not lambda for Jetty6
+        final ClassificationMeta meta = getEnhanceLogic().findClassificationMeta(pageContext, pureName, prepareCallerInfo());
         if (groupName != null) {
             final List<Classification> groupOfList = meta.groupOf(groupName);
             if (groupOfList.isEmpty()) { // means not found
@@ -99,34 +165,119 @@ public class HtmlOptionClsTag extends BaseNonBodyTag {
         }
     }
 
-    protected void addOption(StringBuilder sb, String value, String label, boolean matched) {
-        sb.append("<option value=\"");
-        sb.append(getEnhanceLogic().filter(value));
-        sb.append("\"");
-        if (matched) {
-            sb.append(" selected=\"selected\"");
+    /**
+     * @param value The value of option, not escaped yet. (NotNull)
+     * @return The escaped fragment before selected attribute, e.g. &lt;option value="FML". (NotNull)
+     */
+    protected String buildOptionOpenFragment(String value) {
+        final StringBuilder sb = new StringBuilder();
+        final TagMarkupWriter writer = new TagMarkupWriter(sb);
+        writer.append("<option value=\"");
+        getEnhanceLogic().escapeTo(sb, value);
+        writer.append('"');
+        return sb.toString();
+    }
+
+    /**
+     * @param label The label of option, not escaped yet. (NullAllowed)
+     * @return The escaped fragment after selected and style attributes, e.g. &gt;Formalized&lt;/option&gt;. (NotNull)
+     */
+    protected String buildOptionCloseFragment(String label) {
+        final StringBuilder sb = new StringBuilder();
+        final TagMarkupWriter writer = new TagMarkupWriter(sb);
+        writer.append('>');
+        getEnhanceLogic().escapeTo(sb, String.valueOf(label)); // "null" if no alias as before
+        writer.append("</option>"); // line separator is appended per rendering if not compact
+        return sb.toString();
+    }
+
+    protected HtmlSelectTag selectTag() throws JspException {
+        return HtmlSelectTag.selectTag(pageContext, prepareCallerInfo());
+    }
+
+    // ===================================================================================
+    //                                                                    Rendered Options
+    //                                                                    ================
+    /**
+     * The pre-escaped fragments of options for one classification (group), which is immutable. <br>
+     * Only selected and style attributes are spliced between open and close fragments per request.
+     * @author jflute
+     */
+    public static class RenderedOptions {
+
+        protected final ListedClassificationProvider provider; // to detect hot deploy
+        protected final String[] codes; // not escaped, for matching
+        protected final String[] openFragments; // e.g. <option value="FML"
+        protected final String[] closeFragments; // e.g. >Formalized</option>
+
+        public RenderedOptions(ListedClassificationProvider provider, String[] codes, String[] openFragments,
+                String[] closeFragments) {
+            this.provider = provider;
+            this.codes = codes;
+            this.openFragments = openFragments;
+            this.closeFragments = closeFragments;
         }
-        if (style != null) {
-            sb.append(" style=\"");
-            sb.append(style);
-            sb.append("\"");
+
+        public int size() {
+            return codes.length;
+        }
+
+        public ListedClassificationProvider getProvider() {
+            return provider;
         }
-        if (styleClass != null) {
-            sb.append(" class=\"");
-            sb.append(styleClass);
-            sb.append("\"");
+
+        public String getCode(int index) {
+            return codes[index];
+        }
+
+        public String getOpenFragment(int index) {
+            return openFragments[index];
+        }
+
+        public String getCloseFragment(int index) {
+            return closeFragments[index];
         }
-        sb.append(">");
-        sb.append(getEnhanceLogic().filter(label));
-        sb.append("</option>\n");
     }
 
-    protected HtmlSelectTag selectTag() throws JspException {
-        return HtmlSelectTag.selectTag(pageContext, new Supplier<String>() {
-            public String get() {
-                return "name=" + name;
+    /**
+     * The key of rendered options, which is immutable. <br>
+     * It is compared per element, so e.g. name containing delimiter does not collide with other names. <br>
+     * Styles are not in the key because they may be runtime expression, so the key is bounded by classification definitions.
+     * @author jflute
+     */
+    public static class RenderedOptionsKey {
+
+        protected final String name; // not null, with group e.g. sea.land
+        protected final String aliasKey; // null allowed
+        protected final int hashCode; // calculated at first, used for every lookup
+
+        public RenderedOptionsKey(String name, String aliasKey) {
+            this.name = name;
+            this.aliasKey = aliasKey;
+            this.hashCode = 31 * Objects.hashCode(name) + Objects.hashCode(aliasKey);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof RenderedOptionsKey)) {
+                return false;
             }
-        }); // not lambda for Jetty6
+            final RenderedOptionsKey other = (RenderedOptionsKey) obj;
+            return hashCode == other.hashCode && Objects.equals(name, other.name) && Objects.equals(aliasKey, other.aliasKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public String toString() {
+            return "optionsKey:{" + name + ", " + aliasKey + "}";
+        }
     }
 
     // ===================================================================================
@@ -134,11 +285,8 @@ public class HtmlOptionClsTag extends BaseNonBodyTag {
     //                                                                      ==============
     @Override
     protected String buildErrorIdentity() {
-        try {
-            return "name=" + name + " select_tag=" + selectTag().getProperty();
-        } catch (JspException e) {
-            return "name=" + name + " select_tag=" + e.getMessage();
-        }
+        final HtmlSelectTag selectTag = HtmlSelectTag.findSelectTag(pageContext); // not selectTag() to avoid recursion
+        return "name=" + name + " select_tag=" + (selectTag != null ? selectTag.getProperty() : null);
     }
 
     // ===================================================================================
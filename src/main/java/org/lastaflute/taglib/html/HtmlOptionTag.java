@@ -15,11 +15,10 @@
  */
 package org.lastaflute.taglib.html;
 
-import java.util.function.Supplier;
-
 import javax.servlet.jsp.JspException;
 
 import org.lastaflute.taglib.base.BaseBodyTag;
+import org.lastaflute.taglib.base.TagMarkupWriter;
 import org.lastaflute.taglib.base.TaglibEnhanceLogic;
 
 /**
@@ -68,39 +67,28 @@ public class HtmlOptionTag extends BaseBodyTag {
     //                                                                             =======
     @Override
     public int doEndTag() throws JspException {
-        write(renderOptionElement());
+        renderOptionElement(createMarkupWriter());
         return EVAL_PAGE;
     }
 
-    protected String renderOptionElement() throws JspException {
-        final StringBuilder sb = new StringBuilder("<option value=\"");
-        sb.append(value);
-        sb.append("\"");
+    protected void renderOptionElement(TagMarkupWriter writer) throws JspException {
+        final boolean matched = selectTag().isMatched(value);
+        final String text = text();
+        writer.append("<option value=\"").append(String.valueOf(value)).append('"');
         if (disabled) {
-            sb.append(" disabled=\"disabled\"");
-        }
-        if (selectTag().isMatched(value)) {
-            sb.append(" selected=\"selected\"");
-        }
-        if (style != null) {
-            sb.append(" style=\"").append(style).append("\"");
+            writer.flag("disabled");
         }
-        if (styleId != null) {
-            sb.append(" id=\"").append(styleId).append("\"");
+        if (matched) {
+            writer.flag("selected");
         }
-        if (styleClass != null) {
-            sb.append(" class=\"").append(styleClass).append("\"");
-        }
-        sb.append(">").append(text()).append("</option>");
-        return sb.toString();
+        writer.attribute("style", style);
+        writer.attribute("id", styleId);
+        writer.attribute("class", styleClass);
+        writer.append('>').append(text).append("</option>");
     }
 
     protected HtmlSelectTag selectTag() throws JspException {
-        return HtmlSelectTag.selectTag(pageContext, new Supplier<String>() {
-            public String get() {
-                return "value=" + value + " text=" + text;
-            }
-        }); // not lambda for Jetty6
+        return HtmlSelectTag.selectTag(pageContext, prepareCallerInfo());
     }
 
     protected String text() throws JspException {
@@ -18,6 +18,7 @@ package org.lastaflute.taglib.html;
 import javax.servlet.jsp.JspException;
 
 import org.lastaflute.taglib.base.BaseTouchableBodyTag;
+import org.lastaflute.taglib.base.TagMarkupWriter;
 import org.lastaflute.taglib.base.TaglibAttributeKey;
 
 /**
@@ -40,23 +41,23 @@ public class HtmlRadioTag extends BaseTouchableBodyTag {
     //                                                                           =========
     @Override
     public int doStartTag() throws JspException {
-        final StringBuilder sb = new StringBuilder("<input type=\"radio\"");
-        prepareAttribute(sb, "name", prepareName());
-        prepareAttribute(sb, "accesskey", getAccesskey());
-        prepareAttribute(sb, "tabindex", getTabindex());
+        final TagMarkupWriter writer = createMarkupWriter();
+        writer.append("<input type=\"radio\"");
+        prepareNameAttribute(writer);
+        prepareAttribute(writer, "accesskey", getAccesskey());
+        prepareAttribute(writer, "tabindex", getTabindex());
         final String value = getValue();
-        prepareAttribute(sb, "value", value);
+        prepareAttribute(writer, "value", value);
         final Object lookup = lookupProperty(name, property); // may be String, CDef
         if (lookup != null) {
             if (value != null && value.equals(lookup.toString())) { // toString() for CDef
-                sb.append(" checked=\"checked\"");
+                writer.flag("checked");
             }
         }
-        sb.append(prepareEventHandlers());
-        sb.append(prepareStyles());
-        prepareOtherAttributes(sb);
-        sb.append(">"); // HTML5 style
-        write(sb.toString());
+        prepareEventHandlers(writer);
+        prepareStyles(writer);
+        prepareOtherAttributes(writer);
+        writer.append('>'); // HTML5 style
         this.text = null;
         return EVAL_BODY_BUFFERED;
     }
@@ -67,10 +68,7 @@ public class HtmlRadioTag extends BaseTouchableBodyTag {
             return null;
         }
         if (indexed) {
-            final StringBuilder sb = new StringBuilder();
-            prepareIndex(sb, name);
-            sb.append(property);
-            return sb.toString();
+            return buildIndexedName(name, property);
         }
         return property;
     }
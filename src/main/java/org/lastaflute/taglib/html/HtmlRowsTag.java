@@ -0,0 +1,216 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.html;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+
+import javax.servlet.jsp.JspException;
+import javax.servlet.jsp.PageContext;
+import javax.servlet.jsp.tagext.TryCatchFinally;
+
+import org.lastaflute.taglib.base.BaseBodyTag;
+import org.lastaflute.taglib.base.TaglibAttributeKey;
+import org.lastaflute.taglib.base.TaglibRowContext;
+
+/**
+ * The loop tag for rows of indexed inputs, e.g. editable grid. <br>
+ * It pushes the context of current row (index and row bean) once per iteration,
+ * so nested indexed tags do not search JSTL loop and the row bean per tag.
+ * <pre>
+ * &lt;la:rows id="memberList" property="memberList"&gt;
+ *     &lt;la:text name="memberList" property="memberName" indexed="true"/&gt; // name="memberList[0].memberName"
+ * &lt;/la:rows&gt;
+ * </pre>
+ * The row and index are page-scoped attributes, existing page attributes of the names are restored after the loop
+ * (also when exception), and attributes of other scopes are not touched.
+ * @author jflute
+ */
+public class HtmlRowsTag extends BaseBodyTag implements TryCatchFinally {
+
+    private static final long serialVersionUID = 1L;
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    // id is required, page attribute name of row bean
+    protected String name = TaglibAttributeKey.BEAN_KEY; // bean name that has rows, form as default
+    protected String property; // required, property of rows e.g. list, array
+    protected String indexId; // page attribute name of index, not required
+
+    // -----------------------------------------------------
+    //                                     Internal Handling
+    //                                     -----------------
+    protected Iterator<?> iterator;
+    protected TaglibRowContext rowContext;
+    protected Object previousContext; // to restore when nested rows
+    protected Object previousRow; // page attribute of the id before the loop, to restore
+    protected Object previousIndex; // page attribute of the index ID before the loop, to restore
+
+    // ===================================================================================
+    //                                                                           Start Tag
+    //                                                                           =========
+    @Override
+    public int doStartTag() throws JspException {
+        iterator = toRowIterator(lookupProperty(name, property));
+        if (!iterator.hasNext()) {
+            return SKIP_BODY;
+        }
+        previousContext = pageContext.getAttribute(TaglibAttributeKey.ROW_CONTEXT_KEY, PageContext.PAGE_SCOPE);
+        previousRow = pageContext.getAttribute(id, PageContext.PAGE_SCOPE);
+        if (indexId != null) {
+            previousIndex = pageContext.getAttribute(indexId, PageContext.PAGE_SCOPE);
+        }
+        rowContext = new TaglibRowContext(this, id);
+        pageContext.setAttribute(TaglibAttributeKey.ROW_CONTEXT_KEY, rowContext, PageContext.PAGE_SCOPE);
+        nextRow();
+        return EVAL_BODY_INCLUDE; // not buffered, rows may be large
+    }
+
+    protected Iterator<?> toRowIterator(Object rows) throws JspException {
+        if (rows == null) {
+            return Collections.emptyIterator();
+        } else if (rows instanceof Iterable<?>) {
+            return ((Iterable<?>) rows).iterator();
+        } else if (rows instanceof Object[]) {
+            return Arrays.asList((Object[]) rows).iterator();
+        } else if (rows instanceof Iterator<?>) {
+            return (Iterator<?>) rows;
+        } else {
+            String msg = "Cannot iterate the rows: property=" + property + " type=" + rows.getClass().getName();
+            throw new JspException(msg);
+        }
+    }
+
+    protected void nextRow() {
+        final Object row = iterator.next();
+        rowContext.nextRow(row);
+        if (row != null) {
+            pageContext.setAttribute(id, row, PageContext.PAGE_SCOPE);
+        } else {
+            pageContext.removeAttribute(id, PageContext.PAGE_SCOPE);
+        }
+        if (indexId != null) {
+            pageContext.setAttribute(indexId, Integer.valueOf(rowContext.getIndex()), PageContext.PAGE_SCOPE);
+        }
+    }
+
+    // ===================================================================================
+    //                                                                          After Body
+    //                                                                          ==========
+    @Override
+    public int doAfterBody() throws JspException {
+        if (iterator.hasNext()) {
+            nextRow();
+            return EVAL_BODY_AGAIN;
+        } else {
+            return SKIP_BODY;
+        }
+    }
+
+    // ===================================================================================
+    //                                                                             End Tag
+    //                                                                             =======
+    @Override
+    public int doEndTag() throws JspException {
+        return EVAL_PAGE; // attributes are restored in finally
+    }
+
+    // ===================================================================================
+    //                                                                       Catch/Finally
+    //                                                                       =============
+    @Override
+    public void doCatch(Throwable cause) throws Throwable {
+        throw cause;
+    }
+
+    @Override
+    public void doFinally() {
+        if (rowContext != null) { // also when exception in body, nested indexed tags do not see this row
+            restorePageAttribute(TaglibAttributeKey.ROW_CONTEXT_KEY, previousContext);
+            restorePageAttribute(id, previousRow);
+            if (indexId != null) {
+                restorePageAttribute(indexId, previousIndex);
+            }
+        }
+        iterator = null;
+        rowContext = null;
+        previousContext = null;
+        previousRow = null;
+        previousIndex = null;
+    }
+
+    protected void restorePageAttribute(String attributeName, Object previous) {
+        if (previous != null) {
+            pageContext.setAttribute(attributeName, previous, PageContext.PAGE_SCOPE);
+        } else { // only page scope, e.g. request attribute of same name is not removed
+            pageContext.removeAttribute(attributeName, PageContext.PAGE_SCOPE);
+        }
+    }
+
+    // ===================================================================================
+    //                                                                      Error Identity
+    //                                                                      ==============
+    @Override
+    protected String buildErrorIdentity() {
+        return "id=" + id + " property=" + property + " tag=" + getClass().getName();
+    }
+
+    // ===================================================================================
+    //                                                                             Release
+    //                                                                             =======
+    @Override
+    public void release() {
+        super.release();
+        id = null;
+        name = TaglibAttributeKey.BEAN_KEY;
+        property = null;
+        indexId = null;
+        iterator = null;
+        rowContext = null;
+        previousContext = null;
+        previousRow = null;
+        previousIndex = null;
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public void setProperty(String property) {
+        this.property = property;
+    }
+
+    public String getIndexId() {
+        return indexId;
+    }
+
+    public void setIndexId(String indexId) {
+        this.indexId = indexId;
+    }
+}
@@ -15,13 +15,16 @@
  */
 package org.lastaflute.taglib.html;
 
-import java.util.function.Supplier;
+import java.util.HashSet;
+import java.util.Set;
 
 import javax.servlet.jsp.JspException;
 import javax.servlet.jsp.PageContext;
 
 import org.lastaflute.taglib.base.BaseTouchableBodyTag;
+import org.lastaflute.taglib.base.TagMarkupWriter;
 import org.lastaflute.taglib.base.TaglibAttributeKey;
+import org.lastaflute.taglib.base.TaglibCallerInfo;
 
 /**
  * @author modified by jflute (originated in Struts)
@@ -34,6 +37,9 @@ public class HtmlSelectTag extends BaseTouchableBodyTag {
     private static final long serialVersionUID = 1L;
     public static final String SELECT_KEY = TaglibAttributeKey.Package + ".SELECT";
 
+    /** The count of matched values to use hash set, linear scan is faster under it. (see SelectMatchingBenchmark) */
+    protected static final int MATCHED_VALUE_SET_THRESHOLD = 4;
+
     // ===================================================================================
     //                                                                           Attribute
     //                                                                           =========
@@ -51,32 +57,32 @@ public class HtmlSelectTag extends BaseTouchableBodyTag {
     //                                     -----------------
     protected String savedBody;
     protected String[] matchedValues;
+    protected Set<String> matchedValueSet; // null if small matched values
 
     // ===================================================================================
     //                                                                           Start Tag
     //                                                                           =========
     @Override
     public int doStartTag() throws JspException {
-        write(renderSelectStartElement());
+        renderSelectStartElement(createMarkupWriter());
         pageContext.setAttribute(SELECT_KEY, this);
         calculateMatchValues();
         return EVAL_BODY_BUFFERED;
     }
 
-    protected String renderSelectStartElement() throws JspException {
-        final StringBuilder sb = new StringBuilder("<select");
-        prepareAttribute(sb, "name", prepareName());
-        prepareAttribute(sb, "accesskey", getAccesskey());
+    protected void renderSelectStartElement(TagMarkupWriter writer) throws JspException {
+        writer.append("<select");
+        prepareNameAttribute(writer);
+        prepareAttribute(writer, "accesskey", getAccesskey());
         if (multiple != null) {
-            sb.append(" multiple=\"multiple\"");
+            writer.flag("multiple");
         }
-        prepareAttribute(sb, "size", getSize());
-        prepareAttribute(sb, "tabindex", getTabindex());
-        sb.append(prepareEventHandlers());
-        sb.append(prepareStyles());
-        prepareOtherAttributes(sb);
-        sb.append(">");
-        return sb.toString();
+        prepareAttribute(writer, "size", getSize());
+        prepareAttribute(writer, "tabindex", getTabindex());
+        prepareEventHandlers(writer);
+        prepareStyles(writer);
+        prepareOtherAttributes(writer);
+        writer.append('>');
     }
 
     protected void calculateMatchValues() throws JspException {
@@ -84,16 +90,29 @@ public class HtmlSelectTag extends BaseTouchableBodyTag {
             matchedValues = new String[1];
             matchedValues[0] = value;
         } else {
-            matchedValues = getEnhanceLogic().getPropertyAsStringArray(lookupBean(name), property, new Supplier<Object>() {
-                @Override
-                public Object get() {
-                    return "selectTag name=" + name;
-                }
-            }); // not lambda for Jetty6
+            matchedValues = getEnhanceLogic().getPropertyAsStringArray(lookupBean(name), property, prepareCallerInfo());
             if (matchedValues == null) {
                 matchedValues = EMPTY_STRING_ARRAY;
             }
         }
+        matchedValueSet = prepareMatchedValueSet(matchedValues);
+    }
+
+    protected Set<String> prepareMatchedValueSet(String[] values) {
+        if (values.length < getMatchedValueSetThreshold()) {
+            return null; // array scan is enough
+        }
+        final Set<String> valueSet = new HashSet<String>(values.length * 2);
+        for (String value : values) {
+            if (value != null) {
+                valueSet.add(value);
+            }
+        }
+        return valueSet;
+    }
+
+    protected int getMatchedValueSetThreshold() {
+        return MATCHED_VALUE_SET_THRESHOLD;
     }
 
     // ===================================================================================
@@ -114,13 +133,12 @@ public class HtmlSelectTag extends BaseTouchableBodyTag {
     @Override
     public int doEndTag() throws JspException {
         pageContext.removeAttribute(SELECT_KEY);
-        final StringBuilder sb = new StringBuilder();
+        final TagMarkupWriter writer = createMarkupWriter();
         if (savedBody != null) {
-            sb.append(savedBody);
+            writer.append(savedBody);
             savedBody = null;
         }
-        sb.append("</select>");
-        write(sb.toString());
+        writer.append("</select>");
         return EVAL_PAGE;
     }
 
@@ -133,10 +151,7 @@ public class HtmlSelectTag extends BaseTouchableBodyTag {
             return null;
         }
         if (indexed) {
-            final StringBuilder sb = new StringBuilder();
-            prepareIndex(sb, name);
-            sb.append(property);
-            return sb.toString();
+            return buildIndexedName(name, property);
         }
         return property;
     }
@@ -149,18 +164,25 @@ public class HtmlSelectTag extends BaseTouchableBodyTag {
     // ===================================================================================
     //                                                                      OptionTag Call
     //                                                                      ==============
-    public static HtmlSelectTag selectTag(PageContext pageContext, Supplier<String> notFoundCall) throws JspException {
-        final HtmlSelectTag selectTag = (HtmlSelectTag) pageContext.getAttribute(SELECT_KEY);
+    public static HtmlSelectTag selectTag(PageContext pageContext, TaglibCallerInfo callerInfo) throws JspException {
+        final HtmlSelectTag selectTag = findSelectTag(pageContext);
         if (selectTag == null) {
-            throw new JspException("Not found the select tag in option tag: " + notFoundCall.get());
+            throw new JspException("Not found the select tag in option tag: " + callerInfo.buildCallerIdentity());
         }
         return selectTag;
     }
 
+    public static HtmlSelectTag findSelectTag(PageContext pageContext) { // null allowed
+        return (HtmlSelectTag) pageContext.getAttribute(SELECT_KEY);
+    }
+
     public boolean isMatched(String value) { // called by option tag
         if (matchedValues == null || value == null) {
             return false;
         }
+        if (matchedValueSet != null) {
+            return matchedValueSet.contains(value);
+        }
         for (int i = 0; i < matchedValues.length; i++) {
             if (value.equals(matchedValues[i])) {
                 return true;
@@ -182,6 +204,7 @@ public class HtmlSelectTag extends BaseTouchableBodyTag {
         size = null;
         value = null;
         matchedValues = null;
+        matchedValueSet = null;
     }
 
     // ===================================================================================
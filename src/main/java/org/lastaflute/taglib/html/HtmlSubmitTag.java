@@ -18,6 +18,7 @@ package org.lastaflute.taglib.html;
 import javax.servlet.jsp.JspException;
 
 import org.lastaflute.taglib.base.BaseTouchableBodyTag;
+import org.lastaflute.taglib.base.TagMarkupWriter;
 
 /**
  * @author modified by jflute (originated in Struts)
@@ -61,20 +62,19 @@ public class HtmlSubmitTag extends BaseTouchableBodyTag {
     //                                                                             =======
     @Override
     public int doEndTag() throws JspException {
-        final StringBuilder sb = new StringBuilder();
-        sb.append(getElementOpen());
-        prepareAttribute(sb, "name", prepareName());
-        prepareButtonAttributes(sb);
-        sb.append(prepareEventHandlers());
-        sb.append(prepareStyles());
-        prepareOtherAttributes(sb);
-        sb.append(">"); // HTML5 style
-        write(sb.toString());
+        final TagMarkupWriter writer = createMarkupWriter();
+        writeElementOpen(writer);
+        prepareNameAttribute(writer);
+        prepareButtonAttributes(writer);
+        prepareEventHandlers(writer);
+        prepareStyles(writer);
+        prepareOtherAttributes(writer);
+        writer.append('>'); // HTML5 style
         return EVAL_PAGE;
     }
 
-    protected String getElementOpen() {
-        return "<input type=\"" + getInputTypeName() + "\"";
+    protected void writeElementOpen(TagMarkupWriter writer) {
+        writer.append("<input").attribute("type", getInputTypeName());
     }
 
     protected String getInputTypeName() {
@@ -86,21 +86,25 @@ public class HtmlSubmitTag extends BaseTouchableBodyTag {
             return null;
         }
         if (indexed) {
-            StringBuilder sb = new StringBuilder();
-            sb.append(property);
-            prepareIndex(sb, null);
-            return sb.toString();
+            final StringBuilder sb = borrowRenderBuffer();
+            try {
+                sb.append(property);
+                prepareIndex(sb, null);
+                return sb.toString();
+            } finally {
+                giveBackRenderBuffer(sb);
+            }
         }
         return property;
     }
 
-    protected void prepareButtonAttributes(StringBuilder results) throws JspException {
-        prepareAttribute(results, "accesskey", getAccesskey());
-        prepareAttribute(results, "tabindex", getTabindex());
-        prepareValue(results);
+    protected void prepareButtonAttributes(TagMarkupWriter writer) throws JspException {
+        prepareAttribute(writer, "accesskey", getAccesskey());
+        prepareAttribute(writer, "tabindex", getTabindex());
+        prepareValue(writer);
     }
 
-    protected void prepareValue(StringBuilder results) {
+    protected void prepareValue(TagMarkupWriter writer) {
         String label = resolveSubmitValueResource(value);
         if (label == null && text != null) {
             label = text;
@@ -108,7 +112,7 @@ public class HtmlSubmitTag extends BaseTouchableBodyTag {
         if (label == null || label.length() < 1) {
             label = getDefaultValue();
         }
-        prepareAttribute(results, "value", label);
+        prepareAttribute(writer, "value", label);
     }
 
     protected String resolveSubmitValueResource(String submitValue) {
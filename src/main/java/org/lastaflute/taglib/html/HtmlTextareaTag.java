@@ -18,6 +18,7 @@ package org.lastaflute.taglib.html;
 import javax.servlet.jsp.JspException;
 
 import org.lastaflute.taglib.base.BaseTouchableInputTag;
+import org.lastaflute.taglib.base.TagMarkupWriter;
 
 /**
  * @author modified by jflute (originated in Struts)
@@ -48,24 +49,26 @@ public class HtmlTextareaTag extends BaseTouchableInputTag {
     }
 
     @Override
-    protected void prepareBasicInputAttribute(StringBuilder results) throws JspException {
-        prepareAttribute(results, "name", prepareName());
-        prepareAttribute(results, "accesskey", getAccesskey());
-        prepareAttribute(results, "tabindex", getTabindex());
-        prepareAttribute(results, "cols", getCols());
-        prepareAttribute(results, "rows", getRows());
+    protected void prepareBasicInputAttribute(TagMarkupWriter writer) throws JspException {
+        prepareNameAttribute(writer);
+        prepareAttribute(writer, "accesskey", getAccesskey());
+        prepareAttribute(writer, "tabindex", getTabindex());
+        prepareAttribute(writer, "cols", getCols());
+        prepareAttribute(writer, "rows", getRows());
     }
 
     @Override
-    protected void prepareClosingInputAttribute(StringBuilder results) throws JspException {
-        results.append(">");
-        results.append(renderData());
-        results.append("</textarea>");
+    protected void prepareClosingInputAttribute(TagMarkupWriter writer) throws JspException {
+        writer.append('>');
+        renderData(writer);
+        writer.append("</textarea>");
     }
 
-    protected String renderData() throws JspException {
+    protected void renderData(TagMarkupWriter writer) throws JspException {
         final String data = value != null ? value : (String) lookupProperty(name, property);
-        return data != null ? getEnhanceLogic().filter(data) : "";
+        if (data != null) { // streamed once, large contents e.g. CMS body are not copied
+            getEnhanceLogic().escapeTo(writer.getOut(), data);
+        }
     }
 
     // ===================================================================================
@@ -15,31 +15,24 @@
  */
 package org.lastaflute.taglib.html;
 
-import java.io.IOException;
-
-import javax.servlet.ServletException;
-import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpServletResponse;
 import javax.servlet.jsp.JspException;
 import javax.servlet.jsp.PageContext;
 
 import org.dbflute.helper.message.ExceptionMessageBuilder;
 import org.dbflute.optional.OptionalThingConsumer;
 import org.lastaflute.core.direction.FwAssistantDirector;
-import org.lastaflute.core.util.ContainerUtil;
+import org.lastaflute.taglib.base.TagMarkupWriter;
+import org.lastaflute.taglib.base.TaglibActionPathCache.ResolvedActionPath;
 import org.lastaflute.taglib.base.TaglibAttributeKey;
 import org.lastaflute.taglib.exception.TaglibFormActionNotFoundException;
 import org.lastaflute.taglib.exception.TaglibFormBeanNotFoundException;
 import org.lastaflute.web.LastaWebKey;
 import org.lastaflute.web.exception.ActionFormNotFoundException;
-import org.lastaflute.web.path.ActionFoundPathHandler;
 import org.lastaflute.web.path.ActionPathResolver;
-import org.lastaflute.web.path.MappingPathResource;
 import org.lastaflute.web.path.RoutingParamPath;
 import org.lastaflute.web.ruts.VirtualForm;
 import org.lastaflute.web.ruts.config.ActionExecute;
 import org.lastaflute.web.ruts.config.ActionFormMeta;
-import org.lastaflute.web.servlet.request.RequestManager;
 import org.lastaflute.web.util.LaActionExecuteUtil;
 import org.lastaflute.web.util.LaModuleConfigUtil;
 import org.slf4j.Logger;
@@ -77,11 +70,14 @@ public class MappingHtmlFormTag extends HtmlFormTag {
 
         final ActionPathResolver resolver = getActionResolver();
         try {
-            final ActionFoundPathHandler handler = createActionPathHandler(path, queryString);
-            final boolean handled = resolver.handleActionPath(path, handler).isPathHandled();
-            if (!handled) {
+            final ResolvedActionPath resolved = getEnhanceLogic().resolveActionPath(resolver, path); // cached
+            if (!resolved.isHandled()) {
                 throwFormActionNotFoundException(path, queryString);
             }
+            final String actionName = resolved.getActionName();
+            if (!processActionMapping(path, queryString, actionName, resolved.getParamPath(), resolved.getExecute())) {
+                throwFormActionNotFoundException(path, queryString); // same as not-handled by resolver
+            }
         } catch (Exception e) {
             if (e instanceof RuntimeException) {
                 throw (RuntimeException) e;
@@ -116,15 +112,6 @@ public class MappingHtmlFormTag extends HtmlFormTag {
         }
     }
 
-    protected ActionFoundPathHandler createActionPathHandler(final String path, final String queryString) {
-        return new ActionFoundPathHandler() {
-            public boolean handleActionPath(MappingPathResource pathResource, String actionName, RoutingParamPath paramPath,
-                    ActionExecute methodByParam) throws IOException, ServletException {
-                return processActionMapping(path, queryString, actionName, paramPath, methodByParam);
-            }
-        };
-    }
-
     protected void throwFormActionNotFoundException(String path, String queryString) {
         final ExceptionMessageBuilder br = new ExceptionMessageBuilder();
         br.addNotice("Not found the action for the action path of form tag.");
@@ -151,8 +138,7 @@ public class MappingHtmlFormTag extends HtmlFormTag {
     }
 
     protected String calculateActionPathByJspPath(String requestPath) {
-        final ActionPathResolver resolver = getActionResolver();
-        return resolver.calculateActionPathByJspPath(requestPath);
+        return getEnhanceLogic().calculateActionPathByJspPath(getActionResolver(), requestPath); // cached
     }
 
     // ===================================================================================
@@ -299,29 +285,19 @@ public class MappingHtmlFormTag extends HtmlFormTag {
     }
 
     @Override
-    protected void renderAction(StringBuilder results) {
-        final HttpServletRequest request = (HttpServletRequest) pageContext.getRequest();
-        final HttpServletResponse response = (HttpServletResponse) pageContext.getResponse();
-        results.append(" action=\"");
-        final String contextPath = request.getContextPath();
-        final StringBuilder value = new StringBuilder();
-        if (contextPath.length() > 1) {
-            value.append(contextPath);
-        }
-        value.append(action);
-        results.append(response.encodeURL(value.toString()));
-        results.append("\"");
+    protected void renderAction(TagMarkupWriter writer) {
+        writer.attribute("action", getEnhanceLogic().getUrlBuilder(pageContext).buildUrl(action));
     }
 
     // ===================================================================================
     //                                                                     Other Attribute
     //                                                                     ===============
     @Override
-    protected void renderOtherAttributes(StringBuilder results) {
-        super.renderOtherAttributes(results);
-        renderAttribute(results, "onkeypress", onkeypress);
-        renderAttribute(results, "onkeyup", onkeyup);
-        renderAttribute(results, "onkeydown", onkeydown);
+    protected void renderOtherAttributes(TagMarkupWriter writer) {
+        super.renderOtherAttributes(writer);
+        renderAttribute(writer, "onkeypress", onkeypress);
+        renderAttribute(writer, "onkeyup", onkeyup);
+        renderAttribute(writer, "onkeydown", onkeydown);
     }
 
     // ===================================================================================
@@ -350,15 +326,11 @@ public class MappingHtmlFormTag extends HtmlFormTag {
     //                                                                           Component
     //                                                                           =========
     protected FwAssistantDirector getAssistantDirector() {
-        return ContainerUtil.getComponent(FwAssistantDirector.class);
-    }
-
-    protected RequestManager getRequestManager() {
-        return ContainerUtil.getComponent(RequestManager.class);
+        return getRenderContext().getAssistantDirector();
     }
 
     protected ActionPathResolver getActionResolver() {
-        return ContainerUtil.getComponent(ActionPathResolver.class);
+        return getRenderContext().getActionPathResolver();
     }
 
     // -----------------------------------------------------
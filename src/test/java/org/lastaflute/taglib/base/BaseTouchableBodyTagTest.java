@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+import org.dbflute.utflute.core.PlainTestCase;
+import org.lastaflute.taglib.html.HtmlTextTag;
+import org.lastaflute.web.LastaWebKey;
+
+/**
+ * @author jflute
+ */
+public class BaseTouchableBodyTagTest extends PlainTestCase {
+
+    public void test_prepareEventAttributes_onlySetInRenderingOrder() {
+        // ## Arrange ##
+        HtmlTextTag tag = new HtmlTextTag();
+        tag.setOnfocus("land()");
+        tag.setOnchange("piari()");
+        tag.setOnclick("sea()");
+        StringBuilder sb = new StringBuilder();
+
+        // ## Act ##
+        tag.prepareEventAttributes(new TagMarkupWriter(sb), BaseTouchableBodyTag.EVENT_HANDLER_BITS);
+
+        // ## Assert ##
+        assertEquals(" onclick=\"sea()\" onchange=\"piari()\" onfocus=\"land()\"", sb.toString());
+    }
+
+    public void test_release_onlySetAttributes() {
+        // ## Arrange ##
+        HtmlTextTag tag = new HtmlTextTag();
+        tag.setOnkeyup("sea()");
+        tag.setStyleClass("form-control");
+        tag.setErrorKey("mystic");
+        tag.setReadonly(true);
+
+        // ## Act ##
+        tag.release();
+
+        // ## Assert ##
+        assertEquals(0, tag.attributeBits);
+        assertNull(tag.getOnkeyup());
+        assertNull(tag.getStyleClass());
+        assertEquals(LastaWebKey.ACTION_ERRORS_KEY, tag.getErrorKey());
+        assertFalse(tag.getReadonly());
+    }
+
+    public void test_sparseAttribute_insertAndOverwrite() {
+        // ## Arrange ##
+        HtmlTextTag tag = new HtmlTextTag();
+
+        // ## Act ##
+        tag.setTitleKey("labels.sea");
+        tag.setOnclick("sea()");
+        tag.setErrorStyleClass("is-invalid");
+        tag.setOnclick("land()"); // overwrite in place
+        tag.setOnblur(null);
+
+        // ## Assert ##
+        assertEquals(4, tag.sparseValues.length);
+        assertEquals("land()", tag.getOnclick());
+        assertNull(tag.getOnblur());
+        assertEquals("is-invalid", tag.getErrorStyleClass());
+        assertEquals("labels.sea", tag.getTitleKey());
+        assertNull(tag.getOnchange());
+        assertNull(tag.getAlt());
+        tag.release();
+        assertNull(tag.sparseValues);
+        assertNull(tag.getOnclick());
+    }
+
+    public void test_bitRange() {
+        assertEquals(0x7F, BaseTouchableBodyTag.bitRange(0, 6));
+        assertEquals(0x3000, BaseTouchableBodyTag.bitRange(12, 13));
+        assertEquals(0x3FFFFFFF, BaseTouchableBodyTag.bitRange(0, 29));
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+import org.dbflute.utflute.core.PlainTestCase;
+
+/**
+ * @author jflute
+ */
+public class DynamicTagAttributesTest extends PlainTestCase {
+
+    public void test_put_order_lastWins() {
+        // ## Arrange ##
+        TaglibEnhanceLogic logic = new TaglibEnhanceLogic();
+        DynamicTagAttributes attributes = new DynamicTagAttributes();
+
+        // ## Act ##
+        logic.addDynamicAttribute(attributes, "data-sea", "mystic");
+        logic.addDynamicAttribute(attributes, "autofocus", null);
+        logic.addDynamicAttribute(attributes, "aria-label", "say \"land\"");
+        logic.addDynamicAttribute(attributes, "data-sea", "harbor");
+        logic.addDynamicAttribute(attributes, " ", "ignored");
+
+        // ## Assert ##
+        assertEquals(3, attributes.size());
+        String exp = logic.buildDynamicAttributeExp(attributes);
+        assertEquals(" data-sea=\"harbor\" autofocus aria-label=\"say &quot;land&quot;\"", exp);
+    }
+
+    public void test_clear_reuse() {
+        // ## Arrange ##
+        TaglibEnhanceLogic logic = new TaglibEnhanceLogic();
+        DynamicTagAttributes attributes = new DynamicTagAttributes();
+        for (int i = 0; i < 20; i++) { // over default capacity
+            attributes.put("data-" + i, String.valueOf(i));
+        }
+
+        // ## Act ##
+        attributes.clear();
+        attributes.put("data-piari", "\"\"");
+
+        // ## Assert ##
+        assertEquals(1, attributes.size());
+        assertEquals(" data-piari=\"&quot;&quot;\"", logic.buildDynamicAttributeExp(attributes));
+    }
+}
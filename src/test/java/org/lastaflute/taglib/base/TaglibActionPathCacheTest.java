@@ -0,0 +1,82 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+import org.dbflute.utflute.core.PlainTestCase;
+import org.lastaflute.taglib.base.TaglibActionPathCache.ResolvedActionPath;
+import org.lastaflute.web.path.ActionPathResolver;
+import org.lastaflute.web.path.RoutingParamPath;
+
+/**
+ * @author jflute
+ */
+public class TaglibActionPathCacheTest extends PlainTestCase {
+
+    public void test_resolveActionPath_routingParamNotCached() throws Exception {
+        // ## Arrange ##
+        MockActionPathCache cache = new MockActionPathCache(2);
+
+        // ## Act ##
+        for (int id = 1001; id < 1011; id++) { // many IDs do not fill the cache
+            cache.resolveActionPath(null, "/member/edit/" + id + "/");
+        }
+        ResolvedActionPath first = cache.resolveActionPath(null, "/member/list/");
+        ResolvedActionPath second = cache.resolveActionPath(null, "/member/list/");
+
+        // ## Assert ##
+        assertSame(first, second);
+        assertEquals(11, cache.resolvedCount); // edit is resolved every time, list is once
+        cache.resolveActionPath(null, "/member/edit/1001/");
+        assertEquals(12, cache.resolvedCount);
+    }
+
+    public void test_resolveActionPath_reloadedWhileResolving() throws Exception {
+        // ## Arrange ##
+        MockActionPathCache cache = new MockActionPathCache(16);
+        cache.clearWhileResolving = true; // e.g. other thread detects hot deploy
+
+        // ## Act ##
+        cache.resolveActionPath(null, "/member/list/");
+        cache.clearWhileResolving = false;
+        cache.resolveActionPath(null, "/member/list/");
+        cache.resolveActionPath(null, "/member/list/");
+
+        // ## Assert ##
+        assertEquals(2, cache.resolvedCount); // first result is put into old generation, not served
+    }
+
+    protected static class MockActionPathCache extends TaglibActionPathCache {
+
+        protected int resolvedCount;
+        protected boolean clearWhileResolving;
+
+        public MockActionPathCache(int pathLimit) {
+            super(pathLimit);
+        }
+
+        @Override
+        protected ResolvedActionPath doResolveActionPath(ActionPathResolver resolver, String path) throws Exception {
+            ++resolvedCount;
+            if (clearWhileResolving) {
+                clear();
+            }
+            final boolean hasParam = path.startsWith("/member/edit/");
+            final String paramExp = hasParam ? path.substring("/member/edit/".length(), path.length() - 1) : null;
+            final RoutingParamPath paramPath = hasParam ? new RoutingParamPath(paramExp) : RoutingParamPath.EMPTY;
+            return new ResolvedActionPath(true, hasParam ? "memberEditAction" : "memberListAction", paramPath, null);
+        }
+    }
+}
@@ -18,8 +18,15 @@ package org.lastaflute.taglib.base;
 import static org.junit.Assert.assertArrayEquals;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
 
 import org.dbflute.utflute.core.PlainTestCase;
+import org.lastaflute.core.message.UserMessage;
+import org.lastaflute.core.message.UserMessages;
+import org.lastaflute.taglib.exception.TaglibBeanPropertyNotFoundException;
 
 /**
  * @author jflute
@@ -39,4 +46,127 @@ public class TaglibEnhanceLogicTest extends PlainTestCase {
         log(args);
         assertArrayEquals(new Object[] { "&lt;script&gt;sea&lt;/script&gt;", "2", dateTime.toString() }, args);
     }
+
+    // ===================================================================================
+    //                                                                      Error Property
+    //                                                                      ==============
+    public void test_hasErrorsOf_labelsProperty() {
+        // ## Arrange ##
+        TaglibEnhanceLogic logic = new TaglibEnhanceLogic();
+        UserMessages messages = new UserMessages();
+        messages.add("labels.memberName", new UserMessage("errors.required"));
+        messages.add("{labels.birthdate}", new UserMessage("errors.required"));
+        messages.add("memberStatus", new UserMessage("errors.required"));
+
+        // ## Act ##
+        Set<String> errorProperties = logic.extractErrorProperties(messages);
+
+        // ## Assert ##
+        log(errorProperties);
+        assertTrue(logic.containsErrorProperty(errorProperties, "memberName"));
+        assertTrue(logic.containsErrorProperty(errorProperties, "birthdate"));
+        assertTrue(logic.containsErrorProperty(errorProperties, "labels.memberStatus")); // same as size(property)
+        assertTrue(logic.containsErrorProperty(errorProperties, "{labels.memberStatus}"));
+        assertFalse(logic.containsErrorProperty(errorProperties, "memberAccount"));
+    }
+
+    public void test_normalizeErrorProperty() {
+        // ## Arrange ##
+        TaglibEnhanceLogic logic = new TaglibEnhanceLogic();
+
+        // ## Act ##
+        // ## Assert ##
+        assertEquals("memberName", logic.normalizeErrorProperty("labels.memberName")); // stored as is in some messages
+        assertEquals("memberName", logic.normalizeErrorProperty("{labels.memberName}"));
+        assertEquals("memberList[0].memberName", logic.normalizeErrorProperty("memberList[0].memberName"));
+    }
+
+    // ===================================================================================
+    //                                                                       Property Path
+    //                                                                       =============
+    public void test_getProperty_path_nested() {
+        // ## Arrange ##
+        TaglibEnhanceLogic logic = new TaglibEnhanceLogic();
+        MockMember member = new MockMember();
+        member.address = new MockAddress();
+        member.address.zip = "123-4567";
+
+        // ## Act ##
+        Object zip = logic.getProperty(member, "address.zip", () -> "test");
+
+        // ## Assert ##
+        assertEquals("123-4567", zip);
+    }
+
+    public void test_getProperty_path_indexed() {
+        // ## Arrange ##
+        TaglibEnhanceLogic logic = new TaglibEnhanceLogic();
+        MockMember member = new MockMember();
+        member.purchaseList = Arrays.asList(new MockPurchase(100), new MockPurchase(200));
+        member.codes = new String[] { "sea", "land" };
+
+        // ## Act ##
+        // ## Assert ##
+        assertEquals(200, (int) logic.getProperty(member, "purchaseList[1].price", () -> "test"));
+        assertEquals("land", logic.getProperty(member, "codes[1]", () -> "test"));
+        assertNull(logic.getProperty(member, "purchaseList[2].price", () -> "test")); // out of range
+        assertNull(logic.getProperty(member, "address.zip", () -> "test")); // null in the middle
+    }
+
+    public void test_getProperty_path_invalid() {
+        // ## Arrange ##
+        TaglibEnhanceLogic logic = new TaglibEnhanceLogic();
+        MockMember member = new MockMember();
+
+        // ## Act ##
+        // ## Assert ##
+        assertException(TaglibBeanPropertyNotFoundException.class, () -> logic.getProperty(member, "address..zip", () -> "test"));
+        assertException(TaglibBeanPropertyNotFoundException.class, () -> logic.getProperty(member, "codes[x]", () -> "test"));
+        member.address = new MockAddress();
+        assertException(TaglibBeanPropertyNotFoundException.class, () -> logic.getProperty(member, "address[0]", () -> "test"));
+    }
+
+    public void test_getProperty_callerInfo_onlyWhenError() {
+        // ## Arrange ##
+        TaglibEnhanceLogic logic = new TaglibEnhanceLogic();
+        MockMember member = new MockMember();
+        member.codes = new String[] { "sea" };
+        List<String> calledList = new ArrayList<String>();
+        TaglibCallerInfo callerInfo = () -> {
+            calledList.add("called");
+            return "property=codes tag=MockTag";
+        };
+
+        // ## Act ##
+        logic.getProperty(member, "codes[0]", callerInfo);
+
+        // ## Assert ##
+        assertTrue(calledList.isEmpty());
+        assertException(TaglibBeanPropertyNotFoundException.class, () -> logic.getProperty(member, "codes..zip", callerInfo)).handle(cause -> {
+            assertContains(cause.getMessage(), "caller=property=codes tag=MockTag");
+        });
+        assertEquals(1, calledList.size());
+    }
+
+    public static class MockMember {
+        public MockAddress address;
+        public List<MockPurchase> purchaseList;
+        public String[] codes;
+    }
+
+    public static class MockAddress {
+        public String zip;
+    }
+
+    public static class MockPurchase {
+        private final Integer price;
+
+        public MockPurchase(Integer price) {
+            this.price = price;
+        }
+
+        public Integer getPrice() {
+            return price;
+        }
+    }
 }
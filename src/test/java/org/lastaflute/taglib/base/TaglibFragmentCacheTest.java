@@ -0,0 +1,101 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+import org.dbflute.utflute.core.PlainTestCase;
+import org.lastaflute.taglib.base.TaglibFragmentCache.CachedFragment;
+
+/**
+ * @author jflute
+ */
+public class TaglibFragmentCacheTest extends PlainTestCase {
+
+    private long currentTime = 1000L;
+
+    public void test_store_ttlAndStale() {
+        // ## Arrange ##
+        TaglibFragmentCache cache = createCache(1024);
+
+        // ## Act ##
+        cache.store("header", "<nav>sea</nav>", 100L, 50L);
+        CachedFragment fragment = cache.find("header");
+
+        // ## Assert ##
+        assertEquals("<nav>sea</nav>", fragment.getContent());
+        assertTrue(fragment.isFresh(1099L));
+        assertFalse(fragment.isFresh(1100L));
+        assertTrue(fragment.isServableAsStale(1149L));
+        assertFalse(fragment.isServableAsStale(1150L));
+        assertNull(cache.find("footer"));
+    }
+
+    public void test_store_evictLeastRecentlyUsed() {
+        // ## Arrange ##
+        TaglibFragmentCache cache = createCache(30); // weight is key + content length
+        cache.store("sea", "0123456789", 100L, 0L); // 13
+        cache.store("land", "0123456789", 100L, 0L); // 14
+        cache.find("sea"); // sea is recently used
+
+        // ## Act ##
+        cache.store("piari", "0123456789", 100L, 0L); // 15, total 42 so evicts land
+
+        // ## Assert ##
+        assertNotNull(cache.find("sea"));
+        assertNull(cache.find("land"));
+        assertNotNull(cache.find("piari"));
+        assertEquals(28, cache.getTotalWeight());
+    }
+
+    public void test_store_tooLarge() {
+        // ## Arrange ##
+        TaglibFragmentCache cache = createCache(10);
+
+        // ## Act ##
+        cache.store("sea", "0123456789", 100L, 0L);
+
+        // ## Assert ##
+        assertNull(cache.find("sea"));
+        assertEquals(0, cache.getTotalWeight());
+    }
+
+    public void test_beginRendering_onlyOneRenderer() {
+        // ## Arrange ##
+        TaglibFragmentCache cache = createCache(1024);
+
+        // ## Act ##
+        boolean first = cache.beginRendering("header");
+        boolean second = cache.beginRendering("header");
+        boolean other = cache.beginRendering("footer");
+
+        // ## Assert ##
+        assertTrue(first);
+        assertFalse(second);
+        assertTrue(other);
+        assertFalse(cache.awaitRendering("header", 1L)); // timeout
+        cache.endRendering("header");
+        assertTrue(cache.awaitRendering("header", 1L));
+        assertTrue(cache.beginRendering("header"));
+    }
+
+    private TaglibFragmentCache createCache(int weightLimit) {
+        return new TaglibFragmentCache(weightLimit) {
+            @Override
+            public long currentTimeMillis() {
+                return currentTime;
+            }
+        };
+    }
+}
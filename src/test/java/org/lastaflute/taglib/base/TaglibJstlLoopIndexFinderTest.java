@@ -0,0 +1,121 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+import javax.servlet.jsp.tagext.Tag;
+import javax.servlet.jsp.tagext.TagSupport;
+
+import org.dbflute.utflute.core.PlainTestCase;
+import org.lastaflute.taglib.base.TaglibJstlLoopIndexFinder.LoopIndexReader;
+
+/**
+ * @author jflute
+ */
+public class TaglibJstlLoopIndexFinderTest extends PlainTestCase {
+
+    @Override
+    protected void tearDown() throws Exception {
+        TaglibJstlLoopIndexFinder.registerDirectReader(null);
+        super.tearDown();
+    }
+
+    public void test_findLoopIndex_noJstl() {
+        // ## Arrange ##
+        TagSupport tag = new TagSupport();
+        tag.setParent(new MockLoopTag(3));
+
+        // ## Act ##
+        // ## Assert ##
+        assertNull(TaglibJstlLoopIndexFinder.findLoopIndex(tag)); // JSTL is not in test classpath
+    }
+
+    public void test_findReader_perTagClass() {
+        // ## Arrange ##
+        TagSupport tag = new TagSupport();
+
+        // ## Act ##
+        LoopIndexReader reader = TaglibJstlLoopIndexFinder.findReader(tag);
+
+        // ## Assert ##
+        assertSame(TaglibJstlLoopIndexFinder.NO_JSTL, reader); // discovered from defining loader of the tag class
+        assertSame(reader, TaglibJstlLoopIndexFinder.readerValue.get(TagSupport.class)); // bound to the class, not loader map
+        assertFalse(TaglibJstlLoopIndexFinder.isLoopTag(tag));
+    }
+
+    public void test_findLoopIndex_handleReader() throws Exception {
+        // ## Arrange ##
+        LoopIndexReader reader = TaglibJstlLoopIndexFinder.createHandleReader(MockLoopTag.class, MockLoopStatus.class);
+        TaglibJstlLoopIndexFinder.registerDirectReader(reader);
+        TagSupport inner = new TagSupport();
+        TagSupport middle = new TagSupport();
+        inner.setParent(middle);
+        middle.setParent(new MockLoopTag(7));
+
+        // ## Act ##
+        Integer index = TaglibJstlLoopIndexFinder.findLoopIndex(inner);
+
+        // ## Assert ##
+        assertEquals(Integer.valueOf(7), index);
+        assertNull(TaglibJstlLoopIndexFinder.findLoopIndex(middle.getParent())); // not nested
+    }
+
+    public void test_findLoopIndex_directReader() {
+        // ## Arrange ##
+        TaglibJstlLoopIndexFinder.registerDirectReader(new LoopIndexReader() {
+            public Class<?> getLoopTagType() {
+                return MockLoopTag.class;
+            }
+
+            public Integer readIndex(Tag loopTag) {
+                return ((MockLoopTag) loopTag).getLoopStatus().getIndex();
+            }
+        });
+        TagSupport tag = new TagSupport();
+        tag.setParent(new MockLoopTag(2));
+
+        // ## Act ##
+        // ## Assert ##
+        assertEquals(Integer.valueOf(2), TaglibJstlLoopIndexFinder.findLoopIndex(tag));
+    }
+
+    public static class MockLoopTag extends TagSupport {
+
+        private static final long serialVersionUID = 1L;
+
+        private final MockLoopStatus status;
+
+        public MockLoopTag(int index) {
+            this.status = new MockLoopStatus(index);
+        }
+
+        public MockLoopStatus getLoopStatus() {
+            return status;
+        }
+    }
+
+    public static class MockLoopStatus {
+
+        private final int index;
+
+        public MockLoopStatus(int index) {
+            this.index = index;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+    }
+}
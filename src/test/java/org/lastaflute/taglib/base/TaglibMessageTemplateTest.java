@@ -0,0 +1,71 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+import java.text.MessageFormat;
+import java.util.Locale;
+
+import org.dbflute.utflute.core.PlainTestCase;
+import org.lastaflute.taglib.function.LaFunctions;
+
+/**
+ * @author jflute
+ */
+public class TaglibMessageTemplateTest extends PlainTestCase {
+
+    public void test_compile_constant() {
+        // ## Arrange ##
+        // ## Act ##
+        TaglibMessageTemplate template = TaglibMessageTemplate.compile(Locale.ENGLISH, "labels.sea", "Sea & Land");
+
+        // ## Assert ##
+        assertTrue(template.isConstant());
+        assertFalse(template.isSimple());
+        assertEquals("Sea & Land", template.getMessage());
+    }
+
+    public void test_format_simple_sameAsMessageFormat() {
+        // ## Arrange ##
+        String message = "{1} and {0}, {1} again, over {5}.";
+        TaglibMessageTemplate template = TaglibMessageTemplate.compile(Locale.ENGLISH, "messages.sea", message);
+        Object[] args = new Object[] { "<sea>", 3, null };
+
+        // ## Act ##
+        String formatted = template.format(args);
+
+        // ## Assert ##
+        assertTrue(template.isSimple());
+        assertEquals("3 and &lt;sea&gt;, 3 again, over {5}.", formatted);
+        Object[] escapedArgs = new Object[] { LaFunctions.h(args[0]), LaFunctions.h(args[1]), LaFunctions.h(args[2]) };
+        assertEquals(new MessageFormat(message, Locale.ENGLISH).format(escapedArgs), formatted);
+        assertEquals("<sea>", args[0]); // not changed
+    }
+
+    public void test_format_delegated() {
+        // ## Arrange ##
+        Locale locale = Locale.ENGLISH;
+
+        // ## Act ##
+        // ## Assert ##
+        assertFalse(TaglibMessageTemplate.compile(locale, "errors.quote", "'{0}' is wrong").isSimple());
+        assertFalse(TaglibMessageTemplate.compile(locale, "errors.number", "{0,number} items").isSimple());
+        assertFalse(TaglibMessageTemplate.compile(locale, "errors.named", "over {min}").isSimple());
+        assertFalse(TaglibMessageTemplate.compile(locale, "errors.variable", "@{0}").isSimple());
+        TaglibMessageTemplate template = TaglibMessageTemplate.compile(locale, "errors.required", "{0} is required");
+        assertNull(template.format(new Object[] { "labels.memberName" })); // label resolved by resources
+        assertNull(template.format(new Object[] { "@[labels.memberName]" }));
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+import org.dbflute.utflute.core.PlainTestCase;
+import org.lastaflute.di.helper.beans.exception.BeanIllegalPropertyException;
+import org.lastaflute.di.helper.beans.exception.BeanPropertyNotFoundException;
+import org.lastaflute.taglib.base.TaglibPropertyAccessorCache.PropertyAccessor;
+
+/**
+ * @author jflute
+ */
+public class TaglibPropertyAccessorCacheTest extends PlainTestCase {
+
+    public void test_findAccessor_getter() {
+        // ## Arrange ##
+        TaglibPropertyAccessorCache cache = new TaglibPropertyAccessorCache();
+        MockBean bean = new MockBean();
+        bean.setMemberName("sea");
+
+        // ## Act ##
+        PropertyAccessor accessor = cache.findAccessor(MockBean.class, "memberName");
+
+        // ## Assert ##
+        log(accessor);
+        assertTrue(accessor.isCompiled());
+        assertEquals("sea", accessor.getValue(bean));
+        assertSame(accessor, cache.findAccessor(MockBean.class, "memberName"));
+    }
+
+    public void test_findAccessor_publicField() {
+        // ## Arrange ##
+        TaglibPropertyAccessorCache cache = new TaglibPropertyAccessorCache();
+        MockBean bean = new MockBean();
+        bean.memberStatus = "FML";
+
+        // ## Act ##
+        PropertyAccessor accessor = cache.findAccessor(MockBean.class, "memberStatus");
+
+        // ## Assert ##
+        assertTrue(accessor.isCompiled());
+        assertEquals("FML", accessor.getValue(bean));
+    }
+
+    public void test_findAccessor_notFound() {
+        // ## Arrange ##
+        TaglibPropertyAccessorCache cache = new TaglibPropertyAccessorCache();
+
+        // ## Act ##
+        // ## Assert ##
+        assertException(BeanPropertyNotFoundException.class, () -> cache.findAccessor(MockBean.class, "noexisting"));
+    }
+
+    public void test_findAccessor_getterFailure() {
+        // ## Arrange ##
+        TaglibPropertyAccessorCache cache = new TaglibPropertyAccessorCache();
+        PropertyAccessor accessor = cache.findAccessor(MockBean.class, "broken");
+
+        // ## Act ##
+        // ## Assert ##
+        assertException(BeanIllegalPropertyException.class, () -> accessor.getValue(new MockBean()));
+    }
+
+    public void test_findAccessor_overLimit() {
+        // ## Arrange ##
+        TaglibPropertyAccessorCache cache = new TaglibPropertyAccessorCache(1);
+        MockBean bean = new MockBean();
+        bean.setMemberName("sea");
+        bean.memberStatus = "FML";
+        PropertyAccessor cached = cache.findAccessor(MockBean.class, "memberName");
+
+        // ## Act ##
+        PropertyAccessor first = cache.findAccessor(MockBean.class, "memberStatus");
+        PropertyAccessor second = cache.findAccessor(MockBean.class, "memberStatus");
+
+        // ## Assert ##
+        assertSame(cached, cache.findAccessor(MockBean.class, "memberName"));
+        assertNotSame(first, second); // not cached
+        assertEquals("FML", second.getValue(bean));
+    }
+
+    public static class MockBean {
+
+        public String memberStatus;
+        private String memberName;
+
+        public String getMemberName() {
+            return memberName;
+        }
+
+        public void setMemberName(String memberName) {
+            this.memberName = memberName;
+        }
+
+        public String getBroken() {
+            throw new IllegalStateException("broken");
+        }
+    }
+}
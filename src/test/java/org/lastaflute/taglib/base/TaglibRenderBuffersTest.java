@@ -0,0 +1,71 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+import org.dbflute.utflute.core.PlainTestCase;
+
+/**
+ * @author jflute
+ */
+public class TaglibRenderBuffersTest extends PlainTestCase {
+
+    public void test_borrow_reuse() {
+        // ## Arrange ##
+        TaglibRenderBuffers buffers = new TaglibRenderBuffers();
+        StringBuilder first = buffers.borrow();
+        first.append("sea");
+        buffers.giveBack(first);
+
+        // ## Act ##
+        StringBuilder second = buffers.borrow();
+        StringBuilder nested = buffers.borrow();
+
+        // ## Assert ##
+        assertSame(first, second);
+        assertEquals(0, second.length());
+        assertNotSame(second, nested);
+        assertEquals(2, buffers.getCreatedCount());
+    }
+
+    public void test_giveBack_dropLarge() {
+        // ## Arrange ##
+        TaglibRenderBuffers buffers = new TaglibRenderBuffers();
+        StringBuilder large = buffers.borrow();
+        large.append(new char[TaglibRenderBuffers.KEPT_CAPACITY_LIMIT + 1]);
+
+        // ## Act ##
+        buffers.giveBack(large);
+
+        // ## Assert ##
+        assertEquals(0, buffers.getKeptCount()); // not pinned
+        assertNotSame(large, buffers.borrow());
+    }
+
+    public void test_release() {
+        // ## Arrange ##
+        TaglibRenderBuffers buffers = new TaglibRenderBuffers();
+        for (int i = 0; i < TaglibRenderBuffers.KEPT_BUFFER_LIMIT + 2; i++) {
+            buffers.giveBack(new StringBuilder());
+        }
+        assertEquals(TaglibRenderBuffers.KEPT_BUFFER_LIMIT, buffers.getKeptCount());
+
+        // ## Act ##
+        buffers.release();
+
+        // ## Assert ##
+        assertEquals(0, buffers.getKeptCount());
+    }
+}
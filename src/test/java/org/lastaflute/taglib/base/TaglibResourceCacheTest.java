@@ -0,0 +1,71 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+import java.util.Locale;
+
+import org.dbflute.utflute.core.PlainTestCase;
+
+/**
+ * @author jflute
+ */
+public class TaglibResourceCacheTest extends PlainTestCase {
+
+    public void test_find_perLocale() {
+        // ## Arrange ##
+        TaglibResourceCache<String> cache = new TaglibResourceCache<String>();
+        cache.register(Locale.ENGLISH, "labels.sea|labels.land", "SeaLand", cache.beginResolving());
+        cache.register(Locale.JAPANESE, "labels.sea|labels.land", "海陸", cache.beginResolving());
+
+        // ## Act ##
+        // ## Assert ##
+        assertEquals("SeaLand", cache.find(Locale.ENGLISH, "labels.sea|labels.land"));
+        assertEquals("海陸", cache.find(Locale.JAPANESE, "labels.sea|labels.land"));
+        assertNull(cache.find(Locale.ENGLISH, "labels.sea"));
+        assertNull(cache.find(Locale.FRENCH, "labels.sea|labels.land"));
+    }
+
+    public void test_register_limitAndNullLocale() {
+        // ## Arrange ##
+        TaglibResourceCache<String> cache = new TaglibResourceCache<String>(1);
+
+        // ## Act ##
+        cache.register(Locale.ENGLISH, "labels.sea", "Sea", cache.beginResolving());
+        cache.register(Locale.ENGLISH, "labels.land", "Land", cache.beginResolving());
+        cache.register(null, "labels.piari", "Piari", cache.beginResolving());
+
+        // ## Assert ##
+        assertEquals("Sea", cache.find(Locale.ENGLISH, "labels.sea"));
+        assertNull(cache.find(Locale.ENGLISH, "labels.land")); // over limit
+        assertNull(cache.find(null, "labels.piari"));
+        cache.clear();
+        assertNull(cache.find(Locale.ENGLISH, "labels.sea"));
+    }
+
+    public void test_register_reloadedWhileResolving() {
+        // ## Arrange ##
+        TaglibResourceCache<String> cache = new TaglibResourceCache<String>();
+        int generation = cache.beginResolving();
+
+        // ## Act ##
+        cache.register(Locale.ENGLISH, "labels.sea", "OldSea", generation + 1); // as resolved by other generation
+        cache.register(Locale.ENGLISH, "labels.land", "Land", generation);
+
+        // ## Assert ##
+        assertNull(cache.find(Locale.ENGLISH, "labels.sea")); // not cached, may be by old resources
+        assertEquals("Land", cache.find(Locale.ENGLISH, "labels.land"));
+    }
+}
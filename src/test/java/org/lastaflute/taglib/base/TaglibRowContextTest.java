@@ -0,0 +1,73 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+import javax.servlet.jsp.tagext.TagSupport;
+
+import org.dbflute.utflute.core.PlainTestCase;
+import org.lastaflute.taglib.base.TaglibJstlLoopIndexFinderTest.MockLoopStatus;
+import org.lastaflute.taglib.base.TaglibJstlLoopIndexFinderTest.MockLoopTag;
+
+/**
+ * @author jflute
+ */
+public class TaglibRowContextTest extends PlainTestCase {
+
+    @Override
+    protected void tearDown() throws Exception {
+        TaglibJstlLoopIndexFinder.registerDirectReader(null);
+        super.tearDown();
+    }
+
+    public void test_nextRow_basic() {
+        // ## Arrange ##
+        TaglibRowContext context = new TaglibRowContext(new TagSupport(), "memberList");
+
+        // ## Act ##
+        context.nextRow("sea");
+        context.nextRow("land");
+
+        // ## Assert ##
+        assertEquals(1, context.getIndex());
+        assertEquals("land", context.getRow());
+        assertEquals("memberList", context.getRowName());
+    }
+
+    public void test_isNearestLoopOf_basic() throws Exception {
+        // ## Arrange ##
+        TaglibJstlLoopIndexFinder.registerDirectReader(
+                TaglibJstlLoopIndexFinder.createHandleReader(MockLoopTag.class, MockLoopStatus.class));
+        TagSupport rowsTag = new TagSupport();
+        TaglibRowContext context = new TaglibRowContext(rowsTag, "memberList");
+        TagSupport direct = new TagSupport();
+        direct.setParent(rowsTag);
+        TagSupport wrapper = new TagSupport();
+        wrapper.setParent(rowsTag);
+        TagSupport wrapped = new TagSupport();
+        wrapped.setParent(wrapper);
+        MockLoopTag loopTag = new MockLoopTag(0);
+        loopTag.setParent(rowsTag);
+        TagSupport inLoop = new TagSupport();
+        inLoop.setParent(loopTag);
+
+        // ## Act ##
+        // ## Assert ##
+        assertTrue(context.isNearestLoopOf(direct));
+        assertTrue(context.isNearestLoopOf(wrapped));
+        assertFalse(context.isNearestLoopOf(inLoop)); // JSTL loop is nearer
+        assertFalse(context.isNearestLoopOf(new TagSupport())); // out of rows
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.base;
+
+import java.io.StringWriter;
+
+import org.dbflute.utflute.core.PlainTestCase;
+
+/**
+ * @author jflute
+ */
+public class TaglibWhitespaceCollapsingWriterTest extends PlainTestCase {
+
+    public void test_collapse_basic() {
+        // ## Arrange ##
+        String markup = "  <ul>\n    <li>sea  land</li>\n\n    <li>\tpiari</li>\n  </ul>  ";
+
+        // ## Act ##
+        String collapsed = TaglibWhitespaceCollapsingWriter.collapse(markup);
+
+        // ## Assert ##
+        assertEquals(" <ul>\n<li>sea land</li>\n<li> piari</li>\n</ul> ", collapsed);
+    }
+
+    public void test_collapse_rawElement() {
+        // ## Arrange ##
+        String markup = "<div>  <PRE class=\"x\">a  \n  b</PRE>  <textarea>  c  </textarea>"
+                + "<script>\n  var sea =  1;\n</script><premium>  d  </premium></div>";
+
+        // ## Act ##
+        String collapsed = TaglibWhitespaceCollapsingWriter.collapse(markup);
+
+        // ## Assert ##
+        assertEquals("<div> <PRE class=\"x\">a  \n  b</PRE> <textarea>  c  </textarea>"
+                + "<script>\n  var sea =  1;\n</script><premium> d </premium></div>", collapsed);
+    }
+
+    public void test_collapse_quotedAttribute() {
+        // ## Arrange ##
+        String markup = "<div>\n  <input  type=\"text\"   value=\"a  b\">  <span title='x\n  y' class=\"it's\">  sea  </span>\n</div>";
+
+        // ## Act ##
+        String collapsed = TaglibWhitespaceCollapsingWriter.collapse(markup);
+
+        // ## Assert ##
+        assertEquals("<div>\n<input type=\"text\" value=\"a  b\"> <span title='x\n  y' class=\"it's\"> sea </span>\n</div>", collapsed);
+    }
+
+    public void test_write_chunked() throws Exception {
+        // ## Arrange ##
+        String markup = "<p title=\"a  b\">  sea </p>\n  <pre>  land  </pre>  <p> piari  </p>";
+        String expected = TaglibWhitespaceCollapsingWriter.collapse(markup);
+
+        for (int chunk = 1; chunk <= 5; chunk++) {
+            StringWriter sw = new StringWriter();
+            TaglibWhitespaceCollapsingWriter writer = new TaglibWhitespaceCollapsingWriter(sw);
+
+            // ## Act ##
+            for (int i = 0; i < markup.length(); i += chunk) { // element names are split
+                writer.write(markup, i, Math.min(chunk, markup.length() - i));
+            }
+            writer.finish();
+
+            // ## Assert ##
+            log("chunk={} : {}", chunk, sw);
+            assertEquals(expected, sw.toString());
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.cache;
+
+import javax.servlet.jsp.tagext.BodyTag;
+import javax.servlet.jsp.tagext.Tag;
+
+import org.dbflute.utflute.core.PlainTestCase;
+import org.lastaflute.taglib.base.TaglibFragmentCache;
+
+/**
+ * @author jflute
+ */
+public class CacheFragmentTagTest extends PlainTestCase {
+
+    private long currentTime = 1000L;
+
+    // ===================================================================================
+    //                                                                           Start Tag
+    //                                                                           =========
+    public void test_doStartTag_freshHit() throws Throwable {
+        // ## Arrange ##
+        MockFragmentCache cache = new MockFragmentCache();
+        cache.store("header", "<nav>cached</nav>", 100L, 0L);
+        MockCacheFragmentTag tag = new MockCacheFragmentTag(cache, "<nav>rendered</nav>");
+
+        // ## Act ##
+        int result = drive(tag);
+
+        // ## Assert ##
+        assertEquals(Tag.SKIP_BODY, result);
+        assertEquals("<nav>cached</nav>", tag.written.toString());
+    }
+
+    public void test_doStartTag_renderer() throws Throwable {
+        // ## Arrange ##
+        MockFragmentCache cache = new MockFragmentCache();
+        MockCacheFragmentTag tag = new MockCacheFragmentTag(cache, "<nav>rendered</nav>");
+
+        // ## Act ##
+        int result = drive(tag);
+
+        // ## Assert ##
+        assertEquals(BodyTag.EVAL_BODY_BUFFERED, result);
+        assertEquals("<nav>rendered</nav>", tag.written.toString());
+        assertEquals("<nav>rendered</nav>", cache.find("header").getContent()); // stored
+        assertTrue(cache.beginRendering("header")); // lock is released in finally
+    }
+
+    public void test_doStartTag_staleWhileRevalidate() throws Throwable {
+        // ## Arrange ##
+        MockFragmentCache cache = new MockFragmentCache();
+        cache.store("header", "<nav>stale</nav>", 100L, 500L);
+        currentTime += 200L; // expired but servable as stale
+        cache.beginRendering("header"); // other request is revalidating
+        MockCacheFragmentTag tag = new MockCacheFragmentTag(cache, "<nav>rendered</nav>");
+        tag.setStaleWhileRevalidate(1);
+
+        // ## Act ##
+        int result = drive(tag);
+
+        // ## Assert ##
+        assertEquals(Tag.SKIP_BODY, result);
+        assertEquals("<nav>stale</nav>", tag.written.toString());
+        assertEquals(0, cache.awaitCount); // not waiting
+        assertFalse(cache.beginRendering("header")); // lock of other request is not released
+    }
+
+    public void test_doStartTag_awaitThenHit() throws Throwable {
+        // ## Arrange ##
+        MockFragmentCache cache = new MockFragmentCache();
+        cache.beginRendering("header"); // other request is rendering
+        cache.renderedOnAwait = "<nav>other</nav>";
+        MockCacheFragmentTag tag = new MockCacheFragmentTag(cache, "<nav>rendered</nav>");
+
+        // ## Act ##
+        int result = drive(tag);
+
+        // ## Assert ##
+        assertEquals(Tag.SKIP_BODY, result);
+        assertEquals("<nav>other</nav>", tag.written.toString());
+        assertEquals(1, cache.awaitCount);
+    }
+
+    public void test_doStartTag_timeoutFallback() throws Throwable {
+        // ## Arrange ##
+        MockFragmentCache cache = new MockFragmentCache();
+        cache.beginRendering("header"); // other request is rendering (and too slow)
+        MockCacheFragmentTag tag = new MockCacheFragmentTag(cache, "<nav>rendered</nav>");
+
+        // ## Act ##
+        int result = drive(tag);
+
+        // ## Assert ##
+        assertEquals(BodyTag.EVAL_BODY_BUFFERED, result);
+        assertEquals("<nav>rendered</nav>", tag.written.toString()); // rendered by itself
+        assertEquals(1, cache.awaitCount);
+        assertNull(cache.find("header")); // but not stored
+        assertFalse(cache.beginRendering("header")); // lock of other request is not released
+    }
+
+    public void test_doStartTag_urlRewriting() throws Throwable {
+        // ## Arrange ##
+        MockFragmentCache cache = new MockFragmentCache();
+        cache.store("header", "<nav>cached</nav>", 100L, 0L);
+        MockCacheFragmentTag tag = new MockCacheFragmentTag(cache, "<nav>;jsessionid=sea</nav>");
+        tag.urlRewriting = true;
+
+        // ## Act ##
+        int result = drive(tag);
+
+        // ## Assert ##
+        assertEquals(BodyTag.EVAL_BODY_BUFFERED, result);
+        assertEquals("<nav>;jsessionid=sea</nav>", tag.written.toString()); // not served from cache
+        assertEquals("<nav>cached</nav>", cache.find("header").getContent()); // session ID is not stored
+    }
+
+    // ===================================================================================
+    //                                                                        Assist Logic
+    //                                                                        ============
+    protected int drive(MockCacheFragmentTag tag) throws Throwable {
+        try {
+            final int result = tag.doStartTag();
+            tag.doEndTag();
+            return result;
+        } catch (Throwable cause) {
+            tag.doCatch(cause);
+            throw cause;
+        } finally {
+            tag.doFinally();
+        }
+    }
+
+    protected class MockFragmentCache extends TaglibFragmentCache {
+
+        protected String renderedOnAwait; // stored by other request while waiting, null means timeout
+        protected int awaitCount;
+
+        @Override
+        public boolean awaitRendering(String key, long timeoutMillis) {
+            ++awaitCount;
+            if (renderedOnAwait == null) {
+                return false;
+            }
+            store(key, renderedOnAwait, 100L, 0L);
+            endRendering(key);
+            return true;
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return currentTime;
+        }
+    }
+
+    protected static class MockCacheFragmentTag extends CacheFragmentTag {
+
+        private static final long serialVersionUID = 1L;
+
+        protected final TaglibFragmentCache cache;
+        protected final String body;
+        protected final StringBuilder written = new StringBuilder();
+        protected boolean urlRewriting;
+
+        public MockCacheFragmentTag(TaglibFragmentCache cache, String body) {
+            this.cache = cache;
+            this.body = body;
+            setKey("header");
+            setVaryByLocale(false);
+        }
+
+        @Override
+        protected TaglibFragmentCache getFragmentCache() {
+            return cache;
+        }
+
+        @Override
+        protected boolean isUrlRewriting() {
+            return urlRewriting;
+        }
+
+        @Override
+        protected String extractBodyContent() {
+            return body;
+        }
+
+        @Override
+        protected void write(String text) {
+            written.append(text);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.function;
+
+import java.io.StringWriter;
+
+import org.dbflute.utflute.core.PlainTestCase;
+
+/**
+ * @author jflute
+ */
+public class LaHtmlEscaperTest extends PlainTestCase {
+
+    public void test_escape_taglib() {
+        // ## Arrange ##
+        LaHtmlEscaper escaper = LaHtmlEscaper.TAGLIB;
+
+        // ## Act ##
+        String escaped = escaper.escape("<a href=\"sea\">land & 'piari'</a>");
+
+        // ## Assert ##
+        assertEquals("&lt;a href=&quot;sea&quot;&gt;land &amp; &#39;piari&#39;&lt;/a&gt;", escaped);
+    }
+
+    public void test_escape_jstl() {
+        // ## Arrange ##
+        LaHtmlEscaper escaper = LaHtmlEscaper.JSTL;
+
+        // ## Act ##
+        String escaped = escaper.escape("\"sea\" & 'land'");
+
+        // ## Assert ##
+        assertEquals("&#034;sea&#034; &amp; &#039;land&#039;", escaped);
+        assertEquals(escaped, LaFunctions.h("\"sea\" & 'land'"));
+    }
+
+    public void test_escape_clean() {
+        // ## Arrange ##
+        String text = "mystic harbor ?=+@ あ";
+
+        // ## Act ##
+        // ## Assert ##
+        assertSame(text, LaHtmlEscaper.TAGLIB.escape(text));
+        assertSame("", LaHtmlEscaper.TAGLIB.escape(""));
+        assertNull(LaHtmlEscaper.TAGLIB.escape(null));
+    }
+
+    public void test_escapeTo_writer() throws Exception {
+        // ## Arrange ##
+        StringWriter writer = new StringWriter();
+
+        // ## Act ##
+        LaHtmlEscaper.TAGLIB.escapeTo(writer, "sea<land>");
+        LaHtmlEscaper.TAGLIB.escapeTo(writer, new StringBuilder("&piari"));
+        LaHtmlEscaper.TAGLIB.escapeTo(writer, null);
+
+        // ## Assert ##
+        assertEquals("sea&lt;land&gt;&amp;piari", writer.toString());
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.function;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.dbflute.utflute.core.PlainTestCase;
+
+/**
+ * @author jflute
+ */
+public class LaUrlBuilderTest extends PlainTestCase {
+
+    public void test_buildUrl_cookieSession() {
+        // ## Arrange ##
+        Map<String, Object> attributeMap = new HashMap<String, Object>();
+        HttpServletRequest request = createRequest("/harbor", true, attributeMap);
+        HttpServletResponse response = createResponse();
+
+        // ## Act ##
+        LaUrlBuilder builder = LaUrlBuilder.findBuilder(request, response);
+
+        // ## Assert ##
+        assertFalse(builder.isUrlRewriting());
+        assertEquals("/harbor/member/list/", builder.buildUrl("/member/list/"));
+        assertEquals("/harbor/sea/?land=piari", builder.finish(builder.begin().append("/sea/?land=piari")));
+        assertSame(builder, LaUrlBuilder.findBuilder(request, response));
+    }
+
+    public void test_buildUrl_rewriting() {
+        // ## Arrange ##
+        Map<String, Object> attributeMap = new HashMap<String, Object>();
+        HttpServletRequest request = createRequest("/", false, attributeMap);
+        HttpServletResponse response = createResponse();
+
+        // ## Act ##
+        LaUrlBuilder builder = LaUrlBuilder.findBuilder(request, response);
+
+        // ## Assert ##
+        assertTrue(builder.isUrlRewriting());
+        assertEquals("", builder.getContextPrefix());
+        assertEquals("/member/list/;jsessionid=sea", builder.buildUrl("/member/list/"));
+    }
+
+    // ===================================================================================
+    //                                                                         Mock Helper
+    //                                                                         ===========
+    protected HttpServletRequest createRequest(String contextPath, boolean cookieSession, Map<String, Object> attributeMap) {
+        return (HttpServletRequest) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { HttpServletRequest.class },
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        final String name = method.getName();
+                        if (name.equals("getContextPath")) {
+                            return contextPath;
+                        } else if (name.equals("isRequestedSessionIdFromCookie")) {
+                            return cookieSession;
+                        } else if (name.equals("getAttribute")) {
+                            return attributeMap.get((String) args[0]);
+                        } else if (name.equals("setAttribute")) {
+                            attributeMap.put((String) args[0], args[1]);
+                        }
+                        return null; // e.g. servlet context is unknown
+                    }
+                });
+    }
+
+    protected HttpServletResponse createResponse() {
+        return (HttpServletResponse) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { HttpServletResponse.class },
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("encodeURL")) {
+                            return args[0] + ";jsessionid=sea";
+                        }
+                        return null;
+                    }
+                });
+    }
+}
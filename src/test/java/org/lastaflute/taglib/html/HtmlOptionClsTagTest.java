@@ -0,0 +1,320 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.taglib.html;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.jsp.PageContext;
+
+import org.dbflute.jdbc.Classification;
+import org.dbflute.jdbc.ClassificationMeta;
+import org.dbflute.optional.OptionalThing;
+import org.dbflute.utflute.core.PlainTestCase;
+import org.lastaflute.db.dbflute.classification.ListedClassificationProvider;
+import org.lastaflute.taglib.base.TagMarkupWriter;
+import org.lastaflute.taglib.base.TaglibEnhanceLogic;
+import org.lastaflute.taglib.html.HtmlOptionClsTag.RenderedOptionsKey;
+
+/**
+ * @author jflute
+ */
+public class HtmlOptionClsTagTest extends PlainTestCase {
+
+    @Override
+    protected void tearDown() throws Exception {
+        HtmlOptionClsTag.renderedOptionsCache.clear();
+        HtmlOptionClsTag.cachedProvider = null;
+        super.tearDown();
+    }
+
+    // ===================================================================================
+    //                                                                             End Tag
+    //                                                                             =======
+    public void test_doEndTag_selectedSpliced() throws Exception {
+        // ## Arrange ##
+        MockEnhanceLogic logic = new MockEnhanceLogic(new MockProvider());
+        MockOptionClsTag tag = new MockOptionClsTag(logic, "MemberStatus");
+        tag.addCls("FML", "Formalized");
+        tag.addCls("PRV", "Provisional");
+        tag.setStyleClass("opt");
+        tag.select("PRV");
+
+        // ## Act ##
+        tag.doEndTag();
+
+        // ## Assert ##
+        assertEquals("<option value=\"FML\" class=\"opt\">Formalized</option>\n"
+                + "<option value=\"PRV\" selected=\"selected\" class=\"opt\">Provisional</option>\n", tag.written.toString());
+        assertEquals(1, tag.preparedCount);
+    }
+
+    public void test_doEndTag_cachedWithRuntimeStyle() throws Exception {
+        // ## Arrange ##
+        MockEnhanceLogic logic = new MockEnhanceLogic(new MockProvider());
+        MockOptionClsTag tag = new MockOptionClsTag(logic, "MemberStatus");
+        tag.addCls("FML", "Formalized");
+        tag.addCls("PRV", "Provisional");
+        tag.setStyle("color: red");
+        tag.select("FML");
+        tag.doEndTag();
+        tag.written.setLength(0);
+        tag.setStyle("color: blue"); // e.g. runtime expression
+        tag.select("PRV");
+
+        // ## Act ##
+        tag.doEndTag();
+
+        // ## Assert ##
+        assertEquals("<option value=\"FML\" style=\"color: blue\">Formalized</option>\n"
+                + "<option value=\"PRV\" selected=\"selected\" style=\"color: blue\">Provisional</option>\n", tag.written.toString());
+        assertEquals(1, tag.preparedCount); // fragments are reused
+        assertEquals(1, HtmlOptionClsTag.renderedOptionsCache.size()); // styles are not in key
+    }
+
+    public void test_doEndTag_escaped() throws Exception {
+        // ## Arrange ##
+        MockEnhanceLogic logic = new MockEnhanceLogic(new MockProvider());
+        MockOptionClsTag tag = new MockOptionClsTag(logic, "MemberStatus");
+        tag.addCls("A&\"B\"", "<Sea> & Land");
+        tag.select("A&\"B\"");
+
+        // ## Act ##
+        tag.doEndTag();
+
+        // ## Assert ##
+        assertEquals("<option value=\"A&amp;&quot;B&quot;\" selected=\"selected\">&lt;Sea&gt; &amp; Land</option>\n",
+                tag.written.toString()); // matched by not-escaped code
+    }
+
+    public void test_doEndTag_aliasKey() throws Exception {
+        // ## Arrange ##
+        MockEnhanceLogic logic = new MockEnhanceLogic(new MockProvider());
+        MockOptionClsTag tag = new MockOptionClsTag(logic, "MemberStatus");
+        tag.addCls("FML", "Formalized").addSubItem("ja", "正式会員");
+        tag.doEndTag();
+        tag.written.setLength(0);
+        logic.aliasKey = "ja";
+
+        // ## Act ##
+        tag.doEndTag();
+
+        // ## Assert ##
+        assertEquals("<option value=\"FML\">正式会員</option>\n", tag.written.toString());
+        assertEquals(2, HtmlOptionClsTag.renderedOptionsCache.size()); // per alias key
+    }
+
+    public void test_doEndTag_compactOutput() throws Exception {
+        // ## Arrange ##
+        MockEnhanceLogic logic = new MockEnhanceLogic(new MockProvider());
+        logic.enableCompactOutput();
+        MockOptionClsTag tag = new MockOptionClsTag(logic, "MemberStatus");
+        tag.addCls("FML", "Formalized");
+        tag.addCls("PRV", "Provisional");
+
+        // ## Act ##
+        tag.doEndTag();
+
+        // ## Assert ##
+        assertEquals("<option value=\"FML\">Formalized</option><option value=\"PRV\">Provisional</option>", tag.written.toString());
+    }
+
+    // ===================================================================================
+    //                                                                    Rendered Options
+    //                                                                    ================
+    public void test_findRenderedOptions_providerSwitched() throws Exception {
+        // ## Arrange ##
+        MockEnhanceLogic logic = new MockEnhanceLogic(new MockProvider());
+        MockOptionClsTag statusTag = new MockOptionClsTag(logic, "MemberStatus");
+        statusTag.addCls("FML", "Formalized");
+        MockOptionClsTag payingTag = new MockOptionClsTag(logic, "Paying");
+        payingTag.addCls("TRU", "Paid");
+        statusTag.doEndTag();
+        payingTag.doEndTag();
+        assertEquals(2, HtmlOptionClsTag.renderedOptionsCache.size());
+        MockProvider switched = new MockProvider(); // e.g. hot-deployed
+        logic.provider = switched;
+        statusTag.written.setLength(0);
+
+        // ## Act ##
+        statusTag.doEndTag();
+
+        // ## Assert ##
+        assertEquals("<option value=\"FML\">Formalized</option>\n", statusTag.written.toString());
+        assertEquals(2, statusTag.preparedCount); // rendered again
+        assertEquals(1, HtmlOptionClsTag.renderedOptionsCache.size()); // cleared, old provider is not kept
+        RenderedOptionsKey key = new RenderedOptionsKey("MemberStatus", null);
+        assertSame(switched, HtmlOptionClsTag.renderedOptionsCache.get(key).getProvider());
+    }
+
+    public void test_RenderedOptionsKey_equals() {
+        // ## Arrange ##
+        RenderedOptionsKey key = new RenderedOptionsKey("MemberStatus|ja", null);
+
+        // ## Act ##
+        // ## Assert ##
+        assertEquals(new RenderedOptionsKey("MemberStatus|ja", null), key);
+        assertEquals(new RenderedOptionsKey("MemberStatus|ja", null).hashCode(), key.hashCode());
+        assertFalse(key.equals(new RenderedOptionsKey("MemberStatus", "ja|null"))); // collided as concatenated key
+        assertFalse(key.equals(new RenderedOptionsKey("MemberStatus|ja", "null")));
+    }
+
+    // ===================================================================================
+    //                                                                        Assist Logic
+    //                                                                        ============
+    protected static class MockEnhanceLogic extends TaglibEnhanceLogic {
+
+        protected ListedClassificationProvider provider;
+        protected String aliasKey; // null allowed
+
+        public MockEnhanceLogic(ListedClassificationProvider provider) {
+            this.provider = provider;
+        }
+
+        @Override
+        public ListedClassificationProvider getListedClassificationProvider(PageContext pageContext) {
+            return provider;
+        }
+
+        @Override
+        public OptionalThing<String> determineClassificationAliasKey(PageContext pageContext) {
+            return aliasKey != null ? OptionalThing.of(aliasKey) : OptionalThing.empty();
+        }
+    }
+
+    protected static class MockProvider implements ListedClassificationProvider {
+
+        @Override
+        public ClassificationMeta provide(String classificationName) {
+            throw new IllegalStateException("Not used in the test: " + classificationName);
+        }
+
+        @Override
+        public OptionalThing<String> determineAlias(Locale locale) {
+            return OptionalThing.empty();
+        }
+    }
+
+    protected static class MockOptionClsTag extends HtmlOptionClsTag {
+
+        private static final long serialVersionUID = 1L;
+
+        protected final TaglibEnhanceLogic logic;
+        protected final List<Classification> clsList = new ArrayList<Classification>();
+        protected final HtmlSelectTag selectTag = new HtmlSelectTag();
+        protected final StringBuilder written = new StringBuilder();
+        protected int preparedCount;
+
+        public MockOptionClsTag(TaglibEnhanceLogic logic, String name) {
+            this.logic = logic;
+            setName(name);
+        }
+
+        public MockCls addCls(String code, String alias) {
+            final MockCls cls = new MockCls(code, alias);
+            clsList.add(cls);
+            return cls;
+        }
+
+        public MockOptionClsTag select(String value) {
+            selectTag.matchedValues = new String[] { value };
+            return this;
+        }
+
+        @Override
+        protected TaglibEnhanceLogic getEnhanceLogic() {
+            return logic;
+        }
+
+        @Override
+        protected RenderedOptions prepareRenderedOptions(ListedClassificationProvider provider) {
+            ++preparedCount;
+            return super.prepareRenderedOptions(provider);
+        }
+
+        @Override
+        protected List<Classification> classificationList() {
+            return clsList;
+        }
+
+        @Override
+        protected HtmlSelectTag selectTag() {
+            return selectTag;
+        }
+
+        @Override
+        protected TagMarkupWriter createMarkupWriter() {
+            return new TagMarkupWriter(written);
+        }
+    }
+
+    protected static class MockCls implements Classification {
+
+        protected final String code;
+        protected final String alias;
+        protected final Map<String, Object> subItemMap = new HashMap<String, Object>();
+
+        public MockCls(String code, String alias) {
+            this.code = code;
+            this.alias = alias;
+        }
+
+        public MockCls addSubItem(String key, Object value) {
+            subItemMap.put(key, value);
+            return this;
+        }
+
+        @Override
+        public String code() {
+            return code;
+        }
+
+        @Override
+        public String name() {
+            return code;
+        }
+
+        @Override
+        public String alias() {
+            return alias;
+        }
+
+        @Override
+        public Set<String> sisterSet() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public boolean inGroup(String groupName) {
+            return false;
+        }
+
+        @Override
+        public Map<String, Object> subItemMap() {
+            return subItemMap;
+        }
+
+        @Override
+        public ClassificationMeta meta() {
+            return null;
+        }
+    }
+}